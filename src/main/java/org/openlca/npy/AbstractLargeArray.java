@@ -0,0 +1,152 @@
+package org.openlca.npy;
+
+import java.util.Objects;
+
+abstract class AbstractLargeArray<T> implements NpyLargeArray<T> {
+
+  /**
+   * By default, a page contains {@code 2^24} elements.
+   */
+  static final int DEFAULT_PAGE_SHIFT = 24;
+
+  protected final long[] shape;
+  protected final T pages;
+  protected final boolean fortranOrder;
+  protected final long size;
+  protected final int pageShift;
+  protected final int pageMask;
+
+  protected AbstractLargeArray(
+    long[] shape, T pages, boolean fortranOrder, int pageShift) {
+    this.shape = Objects.requireNonNull(shape);
+    this.pages = Objects.requireNonNull(pages);
+    this.fortranOrder = fortranOrder;
+    this.size = sizeOf(shape);
+    this.pageShift = pageShift;
+    this.pageMask = (1 << pageShift) - 1;
+  }
+
+  static long sizeOf(long[] shape) {
+    long size = 1;
+    for (long dim : shape) {
+      size = Math.multiplyExact(size, dim);
+    }
+    return size;
+  }
+
+  static int pageCountOf(long size, int pageShift) {
+    long pageSize = 1L << pageShift;
+    return Math.toIntExact((size + pageSize - 1) >>> pageShift);
+  }
+
+  /**
+   * Returns the length of the page with the given index for an array of the
+   * given size.
+   */
+  static int pageLengthOf(int page, long size, int pageShift) {
+    long start = (long) page << pageShift;
+    return (int) Math.min(1L << pageShift, size - start);
+  }
+
+  /**
+   * Creates a large array from the given pages which are 1-dimensional heap
+   * arrays of the same type. All pages, except the last page, need to have a
+   * length of {@code 2^pageShift}.
+   */
+  static NpyLargeArray<?> of(
+    long[] shape, boolean fortranOrder, int pageShift,
+    NpyDataType type, NpyArray<?>[] pages) throws NpyFormatException {
+    int n = pages.length;
+    switch (type) {
+      case f8: {
+        var data = new double[n][];
+        for (int i = 0; i < n; i++) {
+          data[i] = pages[i].asDoubleArray().data();
+        }
+        return new NpyLargeDoubleArray(shape, data, fortranOrder, pageShift);
+      }
+      case f4:
+      case f2: {
+        var data = new float[n][];
+        for (int i = 0; i < n; i++) {
+          data[i] = pages[i].asFloatArray().data();
+        }
+        return new NpyLargeFloatArray(shape, data, fortranOrder, pageShift);
+      }
+      case i8:
+      case u4: {
+        var data = new long[n][];
+        for (int i = 0; i < n; i++) {
+          data[i] = pages[i].asLongArray().data();
+        }
+        return new NpyLargeLongArray(shape, data, fortranOrder, pageShift);
+      }
+      case i4:
+      case u2: {
+        var data = new int[n][];
+        for (int i = 0; i < n; i++) {
+          data[i] = pages[i].asIntArray().data();
+        }
+        return new NpyLargeIntArray(shape, data, fortranOrder, pageShift);
+      }
+      case i2:
+      case u1: {
+        var data = new short[n][];
+        for (int i = 0; i < n; i++) {
+          data[i] = pages[i].asShortArray().data();
+        }
+        return new NpyLargeShortArray(shape, data, fortranOrder, pageShift);
+      }
+      case i1: {
+        var data = new byte[n][];
+        for (int i = 0; i < n; i++) {
+          data[i] = pages[i].asByteArray().data();
+        }
+        return new NpyLargeByteArray(shape, data, fortranOrder, pageShift);
+      }
+      case bool: {
+        var data = new boolean[n][];
+        for (int i = 0; i < n; i++) {
+          data[i] = pages[i].asBooleanArray().data();
+        }
+        return new NpyLargeBooleanArray(shape, data, fortranOrder, pageShift);
+      }
+      default:
+        throw new NpyFormatException(
+          "unsupported data type for large arrays: " + type);
+    }
+  }
+
+  @Override
+  public final long[] shape() {
+    return shape;
+  }
+
+  @Override
+  public final long size() {
+    return size;
+  }
+
+  @Override
+  public final int pageSize() {
+    return 1 << pageShift;
+  }
+
+  @Override
+  public final boolean hasColumnOrder() {
+    return fortranOrder;
+  }
+
+  @Override
+  public T data() {
+    return pages;
+  }
+
+  protected final int pageOf(long i) {
+    return (int) (i >>> pageShift);
+  }
+
+  protected final int offsetOf(long i) {
+    return (int) (i & pageMask);
+  }
+}
@@ -3,7 +3,6 @@ package org.openlca.npy;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
-import java.nio.ByteBuffer;
 import java.util.Arrays;
 
 public final class Array2d {
@@ -351,63 +350,352 @@ public final class Array2d {
       : Npy.readElements(file, header, rows, column, columns);
   }
 
+  /**
+   * Reads the given rows of the matrix that is stored in the NPY file in a
+   * single pass over the file. This is much faster than reading the rows one
+   * by one when the matrix is stored in column-major order. The result is a
+   * matrix with the rows in the order of the given indices (which can
+   * contain duplicates), and it has the storage order of the file.
+   *
+   * @param file the NPY file
+   * @param rows the 0-based indices of the rows
+   * @return a matrix with the selected rows
+   */
+  public static NpyArray<?> readRows(File file, int[] rows) {
+    try (var raf = new RandomAccessFile(file, "r");
+         var channel = raf.getChannel()) {
+      var header = NpyHeader.read(channel);
+      return readRows(raf, header, rows);
+    } catch (IOException e) {
+      throw new RuntimeException(
+        "failed to read rows from NPY file " + file, e);
+    }
+  }
+
+  public static NpyArray<?> readRows(
+    RandomAccessFile file, NpyHeader header, int[] rows) {
+    try {
+      return SelectionReader.readRows(file.getChannel(), header, rows);
+    } catch (IOException e) {
+      throw new RuntimeException(
+        "failed to read rows from NPY file " + file, e);
+    }
+  }
+
+  /**
+   * Reads the given columns of the matrix that is stored in the NPY file in
+   * a single pass over the file. This is much faster than reading the
+   * columns one by one when the matrix is stored in row-major order. The
+   * result is a matrix with the columns in the order of the given indices
+   * (which can contain duplicates), and it has the storage order of the file.
+   *
+   * @param file    the NPY file
+   * @param columns the 0-based indices of the columns
+   * @return a matrix with the selected columns
+   */
+  public static NpyArray<?> readColumns(File file, int[] columns) {
+    try (var raf = new RandomAccessFile(file, "r");
+         var channel = raf.getChannel()) {
+      var header = NpyHeader.read(channel);
+      return readColumns(raf, header, columns);
+    } catch (IOException e) {
+      throw new RuntimeException(
+        "failed to read columns from NPY file " + file, e);
+    }
+  }
+
+  public static NpyArray<?> readColumns(
+    RandomAccessFile file, NpyHeader header, int[] columns) {
+    try {
+      return SelectionReader.readColumns(file.getChannel(), header, columns);
+    } catch (IOException e) {
+      throw new RuntimeException(
+        "failed to read columns from NPY file " + file, e);
+    }
+  }
+
+  /**
+   * Reads a rectangular block of the matrix that is stored in the given NPY
+   * file. Only the runs of the block are read: one read per row for
+   * matrices in row-major order and one read per column for matrices in
+   * column-major order, where adjacent runs are read with a single call.
+   * The result has the storage order of the file.
+   *
+   * @param file     the NPY file
+   * @param rowStart the first row of the block
+   * @param rowCount the number of rows of the block
+   * @param colStart the first column of the block
+   * @param colCount the number of columns of the block
+   * @return the block as matrix with {@code rowCount} rows and
+   * {@code colCount} columns
+   */
+  public static NpyArray<?> readBlock(File file,
+    int rowStart, int rowCount, int colStart, int colCount) {
+    try (var raf = new RandomAccessFile(file, "r");
+         var channel = raf.getChannel()) {
+      var header = NpyHeader.read(channel);
+      return readBlock(raf, header, rowStart, rowCount, colStart, colCount);
+    } catch (IOException e) {
+      throw new RuntimeException(
+        "failed to read block from NPY file " + file, e);
+    }
+  }
+
+  public static NpyArray<?> readBlock(RandomAccessFile file, NpyHeader header,
+    int rowStart, int rowCount, int colStart, int colCount) {
+    try {
+      return SelectionReader.readBlock(file.getChannel(), header,
+        rowStart, rowCount, colStart, colCount);
+    } catch (IOException e) {
+      throw new RuntimeException(
+        "failed to read block from NPY file " + file, e);
+    }
+  }
+
+  /**
+   * Writes the given values into the row of the matrix that is stored in the
+   * given NPY file. The number of values must be equal to the number of
+   * columns of the matrix and their data type must match the data type of the
+   * file. Only the bytes of the row are written.
+   *
+   * @param file   the NPY file
+   * @param row    the 0-based index of the row
+   * @param values the new values of the row
+   */
+  public static void writeRow(File file, int row, NpyArray<?> values) {
+    try (var raf = new RandomAccessFile(file, "rw");
+         var channel = raf.getChannel()) {
+      var header = NpyHeader.read(channel);
+      writeRow(raf, header, row, values);
+    } catch (IOException e) {
+      throw new RuntimeException(
+        "failed to write row " + row + " to NPY file " + file, e);
+    }
+  }
+
+  public static void writeRow(
+    RandomAccessFile file, NpyHeader header, int row, NpyArray<?> values) {
+    var dict = header.dict();
+    int rows = dict.sizeOfDimension(0);
+    int columns = dict.sizeOfDimension(1);
+    checkLength(values, columns);
+    if (row < 0 || row >= rows)
+      throw new IndexOutOfBoundsException(row);
+    if (dict.hasFortranOrder()) {
+      Npy.writeElements(file, header, row, rows, values);
+    } else {
+      Npy.writeRange(file, header, (long) row * columns, values);
+    }
+  }
+
+  /**
+   * Writes the given values into the column of the matrix that is stored in
+   * the given NPY file. The number of values must be equal to the number of
+   * rows of the matrix and their data type must match the data type of the
+   * file. Only the bytes of the column are written.
+   *
+   * @param file   the NPY file
+   * @param column the 0-based index of the column
+   * @param values the new values of the column
+   */
+  public static void writeColumn(File file, int column, NpyArray<?> values) {
+    try (var raf = new RandomAccessFile(file, "rw");
+         var channel = raf.getChannel()) {
+      var header = NpyHeader.read(channel);
+      writeColumn(raf, header, column, values);
+    } catch (IOException e) {
+      throw new RuntimeException(
+        "failed to write column " + column + " to NPY file " + file, e);
+    }
+  }
+
+  public static void writeColumn(
+    RandomAccessFile file, NpyHeader header, int column, NpyArray<?> values) {
+    var dict = header.dict();
+    int rows = dict.sizeOfDimension(0);
+    int columns = dict.sizeOfDimension(1);
+    checkLength(values, rows);
+    if (column < 0 || column >= columns)
+      throw new IndexOutOfBoundsException(column);
+    if (dict.hasFortranOrder()) {
+      Npy.writeRange(file, header, (long) column * rows, values);
+    } else {
+      Npy.writeElements(file, header, column, columns, values);
+    }
+  }
+
+  /**
+   * Writes the given 2-dimensional block into the matrix that is stored in
+   * the given NPY file, with the upper left corner of the block at the given
+   * row and column. The block is written run by run, where a run is a row of
+   * the block for matrices in row-major order and a column of the block for
+   * matrices in column-major order.
+   *
+   * @param file  the NPY file
+   * @param row   the row of the upper left corner of the block
+   * @param col   the column of the upper left corner of the block
+   * @param block the block that should be written
+   */
+  public static void writeBlock(
+    File file, int row, int col, NpyArray<?> block) {
+    try (var raf = new RandomAccessFile(file, "rw");
+         var channel = raf.getChannel()) {
+      var header = NpyHeader.read(channel);
+      writeBlock(raf, header, row, col, block);
+    } catch (IOException e) {
+      throw new RuntimeException(
+        "failed to write block to NPY file " + file, e);
+    }
+  }
+
+  public static void writeBlock(RandomAccessFile file, NpyHeader header,
+    int row, int col, NpyArray<?> block) {
+    var dict = header.dict();
+    int rows = dict.sizeOfDimension(0);
+    int columns = dict.sizeOfDimension(1);
+    int blockRows = rowCountOf(block);
+    int blockCols = columnCountOf(block);
+    if (row < 0 || col < 0
+      || row + blockRows > rows || col + blockCols > columns)
+      throw new IndexOutOfBoundsException(
+        "a block of " + blockRows + " x " + blockCols + " at (" + row
+          + ", " + col + ") does not fit into a matrix of "
+          + rows + " x " + columns);
+
+    // the runs of the block need to be in the storage order of the file;
+    // mapped blocks are loaded into memory before their order is switched
+    NpyArray<?> b = block;
+    if (block.hasColumnOrder() != dict.hasFortranOrder()) {
+      if (b instanceof MappedArray) {
+        b = ((MappedArray<?>) b).load();
+      }
+      b = switchOrder(b);
+    }
+    boolean fortran = dict.hasFortranOrder();
+    int runs = fortran ? blockCols : blockRows;
+    int runLength = fortran ? blockRows : blockCols;
+    try {
+      var channel = file.getChannel();
+      for (int i = 0; i < runs; i++) {
+        long offset = fortran
+          ? (long) (col + i) * rows + row
+          : (long) (row + i) * columns + col;
+        int from = i * runLength;
+        RangeWriter.write(channel, header, offset, b, from, from + runLength);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException(
+        "failed to write block to NPY file: " + file, e);
+    }
+  }
+
+  private static void checkLength(NpyArray<?> values, int length) {
+    if (values.size() != length)
+      throw new IllegalArgumentException(
+        "expected " + length + " values but got " + values.size());
+  }
+
   public static <T extends NpyArray<?>> T switchOrder(T array) {
     return OrderSwitch2d.of(array);
   }
 
   /**
    * Read the diagonal of the 2d-array (matrix) stored in the given NPY file.
+   * Matrices of strings ({@code S} and {@code U}) are not supported.
    *
    * @param file the NPY file
    * @return the diagonal of the matrix
+   * @throws IllegalArgumentException if the matrix contains strings
    */
   public static NpyArray<?> readDiag(File file) {
+    return readDiag(file, 0);
+  }
+
+  public static NpyArray<?> readDiag(RandomAccessFile file, NpyHeader header) {
+    return readDiag(file, header, 0, 1);
+  }
+
+  /**
+   * Reads the diagonal {@code k} of the matrix stored in the given NPY file,
+   * which contains the elements {@code a[i, i + k]}. A positive {@code k}
+   * selects a diagonal above and a negative {@code k} a diagonal below the
+   * main diagonal, like in {@code numpy.diagonal}. Close elements of the
+   * diagonal are read with a single positional read.
+   *
+   * @param file the NPY file
+   * @param k    the offset of the diagonal from the main diagonal
+   * @return the diagonal as vector
+   * @throws IndexOutOfBoundsException if the diagonal does not exist
+   * @throws IllegalArgumentException  if the matrix contains strings
+   */
+  public static NpyArray<?> readDiag(File file, int k) {
     try (var raf = new RandomAccessFile(file, "r");
          var channel = raf.getChannel()) {
       var header = NpyHeader.read(channel);
-      return readDiag(raf, header);
+      return readDiag(raf, header, k, 1);
     } catch (IOException e) {
       throw new RuntimeException(
         "failed to read diagonal from NPY file " + file, e);
     }
   }
 
-  public static NpyArray<?> readDiag(RandomAccessFile file, NpyHeader header) {
-    var dict = header.dict();
-    int elemSize = dict.dataType() == NpyDataType.U
-      ? 4
-      : Math.max(dict.dataType().size(), 1);
-
-    int rows = dict.sizeOfDimension(0);
-    int cols = dict.sizeOfDimension(1);
-    int n = Math.min(rows, cols);
-    if (n < 1)
-      throw new IndexOutOfBoundsException(n);
+  public static NpyArray<?> readDiag(
+    RandomAccessFile file, NpyHeader header, int k) {
+    return readDiag(file, header, k, 1);
+  }
 
+  /**
+   * Reads the diagonal {@code k} of the matrix stored in the given file. The
+   * elements of the diagonal are split into {@code parallelism} parts that
+   * are read in parallel with positional reads; the position of the file is
+   * not changed.
+   *
+   * @param file        the NPY file
+   * @param header      the header of the NPY file
+   * @param k           the offset of the diagonal from the main diagonal
+   * @param parallelism the number of parallel reads
+   * @return the diagonal as vector
+   * @throws IndexOutOfBoundsException if the diagonal does not exist
+   * @throws IllegalArgumentException  if the matrix contains strings
+   */
+  public static NpyArray<?> readDiag(
+    RandomAccessFile file, NpyHeader header, int k, int parallelism) {
     try {
-      var reader = NpyArrayReader.of(Npy.shape1d(dict, n));
-      var buffer = ByteBuffer.allocate(elemSize);
-      buffer.order(header.byteOrder());
-      var channel = file.getChannel();
+      return DiagonalReader.read(file.getChannel(), header, k, parallelism);
+    } catch (IOException e) {
+      throw new RuntimeException(
+        "failed to read diagonal from NPY file: " + file, e);
+    }
+  }
 
-      long pos = header.dataOffset();
-      long seekDist = dict.hasFortranOrder()
-        ? (long) (rows + 1) * elemSize
-        : (long) (cols + 1) * elemSize;
-
-      for (int i = 0; i < n; i++) {
-        file.seek(pos);
-        channel.read(buffer);
-        buffer.flip();
-        reader.readNextFrom(buffer);
-        pos += seekDist;
-        buffer.clear();
-      }
+  /**
+   * Reads the band of the diagonals {@code -k..k} of the matrix stored in the
+   * given NPY file in a single pass over the file. The diagonal {@code d} is
+   * stored at position {@code d + k} of the returned array; diagonals that
+   * do not exist in the matrix are returned as empty vectors.
+   *
+   * @param file the NPY file
+   * @param k    the number of diagonals on each side of the main diagonal
+   * @return the diagonals of the band
+   */
+  public static NpyArray<?>[] readBand(File file, int k) {
+    try (var raf = new RandomAccessFile(file, "r");
+         var channel = raf.getChannel()) {
+      var header = NpyHeader.read(channel);
+      return readBand(raf, header, k);
+    } catch (IOException e) {
+      throw new RuntimeException(
+        "failed to read band from NPY file " + file, e);
+    }
+  }
 
-      return reader.finish();
+  public static NpyArray<?>[] readBand(
+    RandomAccessFile file, NpyHeader header, int k) {
+    try {
+      return DiagonalReader.readBand(file.getChannel(), header, k);
     } catch (IOException e) {
       throw new RuntimeException(
-        "failed to read diagonal from NPY file: " + file, e);
+        "failed to read band from NPY file: " + file, e);
     }
   }
 
@@ -0,0 +1,106 @@
+package org.openlca.npy;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A per-thread pool of I/O buffers. Each thread keeps at most one direct and
+ * one heap buffer which are reused as long as they are large enough. A buffer
+ * is taken with {@link #get} and must be given back with {@link #release}
+ * when the read or write operation is done; it must not be used after this.
+ * <p>
+ * While the pooled buffer of a thread is taken, further requests of that
+ * thread, e.g. from nested readers, get a new buffer that is not pooled.
+ * Buffers larger than {@link #MAX_POOLED_SIZE} are also never pooled, which
+ * bounds the memory that a thread keeps. {@link #clear()} drops the buffers
+ * of the current thread and, on their next request, of all other threads,
+ * see {@link Npy#releaseBuffers()}.
+ */
+final class BufferPool {
+
+  /**
+   * The maximum size of a buffer that is kept in the pool.
+   */
+  static final int MAX_POOLED_SIZE = 8 * 1024 * 1024;
+
+  private static final ThreadLocal<Slot[]> slots =
+    ThreadLocal.withInitial(() -> new Slot[]{new Slot(), new Slot()});
+
+  /**
+   * Incremented by {@link #clear()}; slots of an older epoch are emptied on
+   * their next use.
+   */
+  private static volatile int epoch;
+
+  private BufferPool() {
+  }
+
+  /**
+   * Returns a cleared buffer with a limit of {@code size} bytes and the given
+   * byte order. The buffer needs to be given back with {@link #release}.
+   */
+  static ByteBuffer get(int size, boolean direct, ByteOrder order) {
+    var slot = slots.get()[direct ? 0 : 1];
+    int current = epoch;
+    if (slot.epoch != current) {
+      // a buffer that is still in use is not given back to the pool
+      slot.buffer = null;
+      slot.inUse = false;
+      slot.epoch = current;
+    }
+    ByteBuffer buffer;
+    if (slot.inUse || size > MAX_POOLED_SIZE) {
+      buffer = allocate(size, direct);
+    } else {
+      if (slot.buffer == null || slot.buffer.capacity() < size) {
+        slot.buffer = allocate(size, direct);
+      }
+      slot.inUse = true;
+      buffer = slot.buffer;
+    }
+    buffer.clear().limit(size);
+    return buffer.order(order);
+  }
+
+  static ByteBuffer get(NpyOptions options, long totalBytes, ByteOrder order) {
+    int size = totalBytes > 0 && totalBytes < options.bufferSize()
+      ? (int) totalBytes
+      : options.bufferSize();
+    return get(size, options.hasDirectBuffers(), order);
+  }
+
+  /**
+   * Gives a buffer back to the pool of the current thread. Buffers that are
+   * not pooled are just dropped.
+   */
+  static void release(ByteBuffer buffer) {
+    if (buffer == null)
+      return;
+    var slot = slots.get()[buffer.isDirect() ? 0 : 1];
+    if (slot.buffer == buffer) {
+      slot.inUse = false;
+    }
+  }
+
+  /**
+   * Drops the pooled buffers of the current thread immediately and those of
+   * other threads on their next request. Buffers that are still in use stay
+   * valid but are not given back to the pool anymore.
+   */
+  static synchronized void clear() {
+    epoch++;
+    slots.remove();
+  }
+
+  private static ByteBuffer allocate(int size, boolean direct) {
+    return direct
+      ? ByteBuffer.allocateDirect(size)
+      : ByteBuffer.allocate(size);
+  }
+
+  private static final class Slot {
+    ByteBuffer buffer;
+    boolean inUse;
+    int epoch = BufferPool.epoch;
+  }
+}
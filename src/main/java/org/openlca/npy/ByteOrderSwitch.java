@@ -0,0 +1,169 @@
+package org.openlca.npy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import org.openlca.npy.dict.NpyHeaderDict;
+
+/**
+ * Converts NPY files with big-endian data into files with little-endian data.
+ * The data are streamed in chunks through a pooled buffer in which the bytes
+ * of each element are reversed. When the new header, which only differs in
+ * the byte order of the {@code descr} field, fits into the space of the old
+ * header, the file is rewritten in place. Otherwise, the converted file is
+ * written to a temporary file in the same folder that then replaces the
+ * original file.
+ */
+final class ByteOrderSwitch {
+
+  private final FileChannel source;
+  private final long sourceOffset;
+  private final long size;
+  private final int lane;
+
+  private ByteOrderSwitch(FileChannel source, NpyHeader header) {
+    this.source = source;
+    this.sourceOffset = header.dataOffset();
+    var dict = header.dict();
+    // unicode strings are stored as UTF-32 code points; note that dataSize
+    // only covers the first string of an unicode array
+    if (dict.dataType() == NpyDataType.U) {
+      this.lane = 4;
+      this.size = dict.longNumberOfElements() * dict.typeSize() * 4;
+    } else {
+      this.lane = dict.dataType().size();
+      this.size = dict.dataSize();
+    }
+  }
+
+  /**
+   * Converts the given file if it has big-endian data and returns
+   * {@code true} in this case; returns {@code false} if the file was not
+   * changed.
+   */
+  static boolean toLittleEndian(File file) throws IOException {
+    File temp;
+    try (var channel = FileChannel.open(file.toPath(),
+      StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      var header = NpyHeader.read(channel);
+      var dict = header.dict();
+      if (dict.byteOrder() == NpyByteOrder.NOT_APPLICABLE
+        || header.byteOrder() != ByteOrder.BIG_ENDIAN)
+        return false;
+      var headerBytes = littleEndianOf(dict)
+        .toNpyHeader((int) header.dataOffset());
+      var conversion = new ByteOrderSwitch(channel, header);
+
+      // in place
+      if (headerBytes.length == header.dataOffset()) {
+        conversion.copyTo(channel, header.dataOffset());
+        channel.write(ByteBuffer.wrap(headerBytes), 0);
+        return true;
+      }
+
+      // via a temporary file
+      temp = File.createTempFile(
+        "_npy_", ".npy.tmp", file.getAbsoluteFile().getParentFile());
+      try (var target = FileChannel.open(
+        temp.toPath(), StandardOpenOption.WRITE)) {
+        target.write(ByteBuffer.wrap(headerBytes), 0);
+        conversion.copyTo(target, headerBytes.length);
+      } catch (IOException | RuntimeException e) {
+        Files.deleteIfExists(temp.toPath());
+        throw e;
+      }
+    }
+    Files.move(temp.toPath(), file.toPath(),
+      StandardCopyOption.REPLACE_EXISTING);
+    return true;
+  }
+
+  private static NpyHeaderDict littleEndianOf(NpyHeaderDict dict) {
+    var builder = NpyHeaderDict.of(dict.dataType())
+      .withTypeSize(dict.typeSize())
+      .withByteOrder(NpyByteOrder.LITTLE_ENDIAN)
+      .withFortranOrder(dict.hasFortranOrder())
+      .withShape(dict.longShape());
+    for (var e : dict.otherProperties().entrySet()) {
+      builder.withOtherProperty(e.getKey(), e.getValue());
+    }
+    return builder.create();
+  }
+
+  /**
+   * Reads the data in chunks, swaps the bytes of each element, and writes
+   * them to the given target channel, starting at the given offset. The
+   * target can be the source channel with the same offset.
+   */
+  private void copyTo(FileChannel target, long targetOffset)
+    throws IOException {
+    var buffer = BufferPool.get(
+      NpyOptions.defaults(), size, ByteOrder.BIG_ENDIAN);
+    int chunkSize = buffer.limit() - buffer.limit() % lane;
+    try {
+      long done = 0;
+      while (done < size) {
+        int n = (int) Math.min(chunkSize, size - done);
+        buffer.clear().limit(n);
+        while (buffer.hasRemaining()) {
+          int r = source.read(buffer, sourceOffset + done + buffer.position());
+          if (r < 0)
+            throw new NpyFormatException("unexpected end of data; read "
+              + (done + buffer.position()) + " of " + size + " bytes");
+        }
+        buffer.flip();
+        swap(buffer);
+        while (buffer.hasRemaining()) {
+          target.write(buffer, targetOffset + done + buffer.position());
+        }
+        done += n;
+      }
+    } finally {
+      BufferPool.release(buffer);
+    }
+  }
+
+  /**
+   * Reverses the bytes of the elements in the buffer by copying them from a
+   * big-endian view into a little-endian view on the same memory.
+   */
+  private void swap(ByteBuffer buffer) {
+    var be = buffer.duplicate().order(ByteOrder.BIG_ENDIAN);
+    var le = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    int n = buffer.remaining() / lane;
+    switch (lane) {
+      case 8: {
+        var source = be.asLongBuffer();
+        var target = le.asLongBuffer();
+        for (int i = 0; i < n; i++) {
+          target.put(i, source.get(i));
+        }
+        break;
+      }
+      case 4: {
+        var source = be.asIntBuffer();
+        var target = le.asIntBuffer();
+        for (int i = 0; i < n; i++) {
+          target.put(i, source.get(i));
+        }
+        break;
+      }
+      case 2: {
+        var source = be.asShortBuffer();
+        var target = le.asShortBuffer();
+        for (int i = 0; i < n; i++) {
+          target.put(i, source.get(i));
+        }
+        break;
+      }
+      default:
+        // single bytes have no byte order
+    }
+  }
+}
@@ -1,47 +1,133 @@
 package org.openlca.npy;
 
 import java.io.IOException;
-import java.nio.ByteBuffer;
 import java.nio.channels.ReadableByteChannel;
 
 
 class ChannelReader {
 
-  private static final int MAX_BUFFER_SIZE = 8 * 1024;
-
   private final ReadableByteChannel channel;
   private final NpyHeader header;
+  private final NpyOptions options;
 
-  private ChannelReader(ReadableByteChannel channel, NpyHeader header) {
+  private ChannelReader(
+    ReadableByteChannel channel, NpyHeader header, NpyOptions options) {
     this.channel = channel;
     this.header = header;
+    this.options = options;
   }
 
   static NpyArray<?> read(ReadableByteChannel channel, NpyHeader header)
     throws IOException, NpyFormatException {
-    return new ChannelReader(channel, header).read();
+    return read(channel, header, NpyOptions.defaults());
+  }
+
+  static NpyArray<?> read(
+    ReadableByteChannel channel, NpyHeader header, NpyOptions options)
+    throws IOException, NpyFormatException {
+    return new ChannelReader(channel, header, options).read();
+  }
+
+  static NpyLargeArray<?> readLarge(
+    ReadableByteChannel channel, NpyHeader header)
+    throws IOException, NpyFormatException {
+    return new ChannelReader(channel, header, NpyOptions.defaults())
+      .readLarge(AbstractLargeArray.DEFAULT_PAGE_SHIFT);
+  }
+
+  static NpyLargeArray<?> readLarge(
+    ReadableByteChannel channel, NpyHeader header, int pageShift)
+    throws IOException, NpyFormatException {
+    return new ChannelReader(channel, header, NpyOptions.defaults())
+      .readLarge(pageShift);
+  }
+
+  /**
+   * Reads a boolean array into the bits of a {@link NpyBitArray}.
+   */
+  static NpyBitArray readBits(ReadableByteChannel channel, NpyHeader header)
+    throws IOException {
+    var reader = new ChannelReader(channel, header, NpyOptions.defaults());
+    return (NpyBitArray) reader.read(NpyArrayReader.bitsOf(header.dict()));
   }
 
   private NpyArray<?> read() throws IOException, NpyFormatException{
+    return read(NpyArrayReader.of(header.dict()));
+  }
+
+  private NpyArray<?> read(NpyArrayReader builder) throws IOException {
     long totalBytes = header.dict().dataSize();
-    int bufferSize = totalBytes > 0 && totalBytes < ((long) MAX_BUFFER_SIZE)
-      ? (int) totalBytes
-      : MAX_BUFFER_SIZE;
-
-    var builder = NpyArrayReader.of(header.dict());
-
-    var buffer = ByteBuffer.allocate(bufferSize);
-    buffer.order(header.byteOrder());
-    long readBytes = 0;
-    while (readBytes < totalBytes) {
-      int n = channel.read(buffer);
-      if (n <= 0)
-        break;
-      buffer.flip();
-      builder.readAllFrom(buffer);
-      buffer.clear();
-      readBytes += n;
+    var buffer = BufferPool.get(options, totalBytes, header.byteOrder());
+    // a pooled buffer can be larger than requested; compact resets the
+    // limit to the capacity, so we restore the requested size after it
+    int bufferSize = buffer.limit();
+    try {
+      long readBytes = 0;
+      while (readBytes < totalBytes) {
+        int n = channel.read(buffer);
+        if (n <= 0)
+          break;
+        buffer.flip();
+        builder.readAllFrom(buffer);
+        // keep a partially read element for the next round
+        buffer.compact().limit(bufferSize);
+        readBytes += n;
+      }
+    } finally {
+      BufferPool.release(buffer);
     }
     return builder.finish();
   }
+
+  /**
+   * Reads the data into the pages of a large array. Each page is decoded by
+   * its own array reader, so that all type conversions of the readers are
+   * also available for large arrays.
+   */
+  private NpyLargeArray<?> readLarge(int pageShift)
+    throws IOException, NpyFormatException {
+    var dict = header.dict();
+    var type = dict.dataType();
+    if (type.size() == 0 || type == NpyDataType.u8)
+      throw new NpyFormatException(
+        "unsupported data type for large arrays: " + type);
+    long size = dict.longNumberOfElements();
+    var pages = new NpyArray<?>[
+      AbstractLargeArray.pageCountOf(size, pageShift)];
+    var buffer = BufferPool.get(options, dict.dataSize(), header.byteOrder());
+    int bufferSize = buffer.limit();
+    int page = 0;
+    try {
+      NpyArrayReader reader = null;
+      while (page < pages.length) {
+        int n = channel.read(buffer);
+        if (n <= 0)
+          break;
+        buffer.flip();
+        while (page < pages.length && buffer.remaining() >= type.size()) {
+          if (reader == null) {
+            int length = AbstractLargeArray.pageLengthOf(
+              page, size, pageShift);
+            reader = NpyArrayReader.of(Npy.shape1d(dict, length));
+          }
+          reader.readAllFrom(buffer);
+          if (reader.isComplete()) {
+            pages[page] = reader.finish();
+            page++;
+            reader = null;
+          }
+        }
+        buffer.compact().limit(bufferSize);
+      }
+    } finally {
+      BufferPool.release(buffer);
+    }
+    if (page < pages.length)
+      throw new NpyFormatException(
+        "unexpected end of data; read " + page + " of "
+          + pages.length + " pages");
+
+    return AbstractLargeArray.of(
+      dict.longShape(), dict.hasFortranOrder(), pageShift, type, pages);
+  }
 }
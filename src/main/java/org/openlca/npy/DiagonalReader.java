@@ -0,0 +1,185 @@
+package org.openlca.npy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Reads diagonals of a matrix from an NPY file with positional reads. The
+ * diagonal {@code k} contains the elements {@code a[i, i + k]}: {@code k > 0}
+ * are the diagonals above and {@code k < 0} the diagonals below the main
+ * diagonal. The elements of a diagonal have a fixed distance in the file, so
+ * they are added as runs to a {@link RunReader} that reads close elements
+ * with a single call. A band of diagonals {@code -k..k} is read in one pass,
+ * with one run per row (C order) or column (Fortran order).
+ */
+class DiagonalReader {
+
+  private final FileChannel channel;
+  private final NpyHeader header;
+  private final int rows;
+  private final int cols;
+  private final int elemSize;
+  private final boolean fortran;
+
+  private DiagonalReader(FileChannel channel, NpyHeader header) {
+    this.channel = channel;
+    this.header = header;
+    var dict = header.dict();
+    this.rows = dict.sizeOfDimension(0);
+    this.cols = dict.sizeOfDimension(1);
+    this.elemSize = dict.dataType().size();
+    this.fortran = dict.hasFortranOrder();
+    if (elemSize == 0)
+      throw new IllegalArgumentException(
+        "diagonals of strings are not supported");
+  }
+
+  /**
+   * Reads the diagonal {@code k}; the positions of the diagonal are split
+   * into {@code parallelism} parts that are read in parallel when the
+   * parallelism is larger than 1.
+   */
+  static NpyArray<?> read(
+    FileChannel channel, NpyHeader header, int k, int parallelism)
+    throws IOException {
+    if (parallelism < 1)
+      throw new IllegalArgumentException(
+        "invalid parallelism: " + parallelism);
+    var reader = new DiagonalReader(channel, header);
+    int n = reader.lengthOf(k);
+    if (n < 1)
+      throw new IndexOutOfBoundsException(
+        "the diagonal " + k + " does not exist in a matrix of "
+          + reader.rows + " x " + reader.cols);
+    var out = new byte[Math.multiplyExact(n, reader.elemSize)];
+    int parts = Math.min(parallelism, n);
+    if (parts == 1) {
+      reader.readPart(k, 0, n, out);
+    } else {
+      reader.readParallel(k, n, parts, parallelism, out);
+    }
+    return reader.decode(out, n);
+  }
+
+  /**
+   * Reads the band of the diagonals {@code -k..k} in a single pass. The
+   * diagonal {@code d} is stored at position {@code d + k} of the returned
+   * array; diagonals that do not exist in the matrix are empty arrays.
+   */
+  static NpyArray<?>[] readBand(FileChannel channel, NpyHeader header, int k)
+    throws IOException {
+    if (k < 0)
+      throw new IllegalArgumentException("invalid band width: " + k);
+    var reader = new DiagonalReader(channel, header);
+
+    // in storage order, a run is a row (C) or a column (Fortran) and the
+    // band of run r covers the indices [r - k, r + k] of the run
+    int runs = reader.fortran ? reader.cols : reader.rows;
+    int runLength = reader.fortran ? reader.rows : reader.cols;
+    int elemSize = reader.elemSize;
+    long total = 0;
+    for (int r = 0; r < runs; r++) {
+      int lo = Math.max(0, r - k);
+      int hi = Math.min(runLength - 1, r + k);
+      total += Math.max(0, hi - lo + 1);
+    }
+    var bytes = new byte[Math.toIntExact(total * elemSize)];
+    try (var runReader = new RunReader(
+      channel, header.dataOffset(), bytes, 0, bytes.length)) {
+      for (int r = 0; r < runs; r++) {
+        int lo = Math.max(0, r - k);
+        int hi = Math.min(runLength - 1, r + k);
+        if (hi < lo)
+          continue;
+        long offset = ((long) r * runLength + lo) * elemSize;
+        runReader.add(offset, (hi - lo + 1) * elemSize);
+      }
+      runReader.flush();
+    }
+
+    // scatter the elements into the diagonals
+    var diags = new byte[2 * k + 1][];
+    for (int d = -k; d <= k; d++) {
+      diags[d + k] = new byte[Math.max(0, reader.lengthOf(d)) * elemSize];
+    }
+    int pos = 0;
+    for (int r = 0; r < runs; r++) {
+      int lo = Math.max(0, r - k);
+      int hi = Math.min(runLength - 1, r + k);
+      for (int i = lo; i <= hi; i++) {
+        int row = reader.fortran ? i : r;
+        int col = reader.fortran ? r : i;
+        int d = col - row;
+        int index = Math.min(row, col);
+        System.arraycopy(bytes, pos, diags[d + k], index * elemSize, elemSize);
+        pos += elemSize;
+      }
+    }
+
+    var band = new NpyArray<?>[diags.length];
+    for (int i = 0; i < diags.length; i++) {
+      band[i] = reader.decode(diags[i], diags[i].length / elemSize);
+    }
+    return band;
+  }
+
+  /**
+   * Returns the number of elements of the diagonal {@code k}, which is
+   * {@code <= 0} when the diagonal does not exist.
+   */
+  private int lengthOf(int k) {
+    return k >= 0
+      ? Math.min(rows, cols - k)
+      : Math.min(rows + k, cols);
+  }
+
+  /**
+   * Reads the elements {@code [from, to)} of the diagonal {@code k} into the
+   * output, at the position of the first element.
+   */
+  private void readPart(int k, int from, int to, byte[] out)
+    throws IOException {
+    int row0 = k >= 0 ? 0 : -k;
+    int col0 = k >= 0 ? k : 0;
+    long start = fortran
+      ? (long) col0 * rows + row0
+      : (long) row0 * cols + col0;
+    long stride = fortran ? rows + 1 : cols + 1;
+    try (var runReader = new RunReader(channel, header.dataOffset(),
+      out, from * elemSize, (to - from) * elemSize)) {
+      for (int i = from; i < to; i++) {
+        runReader.add((start + i * stride) * elemSize, elemSize);
+      }
+      runReader.flush();
+    }
+  }
+
+  private void readParallel(
+    int k, int n, int parts, int parallelism, byte[] out)
+    throws IOException {
+    var tasks = new ArrayList<ForkJoinTask<?>>(parts);
+    for (int p = 0; p < parts; p++) {
+      int from = (int) ((long) n * p / parts);
+      int to = (int) ((long) n * (p + 1) / parts);
+      tasks.add(ForkJoinTask.adapt(() -> {
+        try {
+          readPart(k, from, to, out);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      }));
+    }
+    ReaderPools.invoke(
+      parallelism, ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+  }
+
+  private NpyArray<?> decode(byte[] bytes, int n) {
+    var reader = NpyArrayReader.of(Npy.shape1d(header.dict(), n));
+    reader.readAllFrom(ByteBuffer.wrap(bytes).order(header.byteOrder()));
+    return reader.finish();
+  }
+}
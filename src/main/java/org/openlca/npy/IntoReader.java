@@ -0,0 +1,316 @@
+package org.openlca.npy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * Reads the elements of an NPY file or of another array, e.g. a memory
+ * mapped array, into an existing Java array. The number of elements of the
+ * source needs to match the length of the destination. Without conversion,
+ * the data type of the source needs to be the data type of the destination;
+ * with conversion, all numeric types are converted like with a Java cast
+ * while the elements are decoded, without an intermediate array.
+ */
+abstract class IntoReader {
+
+  private final NpyDataType target;
+  private final int length;
+
+  private IntoReader(NpyDataType target, int length) {
+    this.target = target;
+    this.length = length;
+  }
+
+  static IntoReader of(double[] dest) {
+    return new DoubleInto(dest);
+  }
+
+  static IntoReader of(float[] dest) {
+    return new FloatInto(dest);
+  }
+
+  static IntoReader of(long[] dest) {
+    return new LongInto(dest);
+  }
+
+  static IntoReader of(int[] dest) {
+    return new IntInto(dest);
+  }
+
+  /**
+   * Reads the data of the given header from the channel which needs to be
+   * positioned at the beginning of the data section.
+   */
+  final NpyArray<?> read(ReadableByteChannel channel, NpyHeader header,
+    boolean convert) throws IOException {
+    var dict = header.dict();
+    check(dict.dataType(), dict.longNumberOfElements(), convert);
+    var type = dict.dataType();
+    int elemSize = type.size();
+    long totalBytes = dict.dataSize();
+    var buffer = BufferPool.get(
+      NpyOptions.defaults(), totalBytes, header.byteOrder());
+    int bufferSize = buffer.limit();
+    try {
+      int pos = 0;
+      while (pos < length) {
+        int n = channel.read(buffer);
+        if (n < 0)
+          throw new NpyFormatException("unexpected end of data; read "
+            + pos + " of " + length + " elements");
+        buffer.flip();
+        int k = Math.min(length - pos, buffer.remaining() / elemSize);
+        decode(buffer, type, pos, k);
+        pos += k;
+        buffer.compact().limit(bufferSize);
+      }
+    } finally {
+      BufferPool.release(buffer);
+    }
+    return wrap(dict.shape(), dict.hasFortranOrder());
+  }
+
+  /**
+   * Copies the elements of the given array. Memory mapped arrays of the
+   * target type are copied directly from the mapped memory; other arrays
+   * are encoded into a buffer from which the elements are decoded.
+   */
+  final NpyArray<?> read(NpyArray<?> source, boolean convert) {
+    var type = source.dataType();
+    check(type, source.size(), convert);
+    if (type == target && copyDirect(source))
+      return wrap(source.shape(), source.hasColumnOrder());
+    int elemSize = type.size();
+    long totalBytes = (long) length * elemSize;
+    var buffer = BufferPool.get(
+      NpyOptions.defaults(), totalBytes, ByteOrder.nativeOrder());
+    try {
+      int pos = 0;
+      while (pos < length) {
+        buffer.clear().limit(
+          (int) Math.min(buffer.capacity(), (long) (length - pos) * elemSize));
+        int k = source.writeRangeTo(pos, length, buffer);
+        buffer.flip();
+        decode(buffer, type, pos, k);
+        pos += k;
+      }
+    } finally {
+      BufferPool.release(buffer);
+    }
+    return wrap(source.shape(), source.hasColumnOrder());
+  }
+
+  private void check(NpyDataType type, long size, boolean convert) {
+    if (type.size() == 0)
+      throw new IllegalArgumentException(
+        "cannot read strings into a " + target + " array");
+    if (!convert && type != target)
+      throw new IllegalArgumentException("the data type " + type
+        + " does not match the type " + target
+        + " of the destination; conversion is not enabled");
+    if (size != length)
+      throw new IllegalArgumentException("the destination array has a length "
+        + "of " + length + " but the source has " + size + " elements");
+  }
+
+  /**
+   * Decodes {@code n} elements of the given type from the buffer into the
+   * positions {@code [pos, pos + n)} of the destination.
+   */
+  abstract void decode(ByteBuffer buffer, NpyDataType type, int pos, int n);
+
+  /**
+   * Directly copies the elements of a source of the target type, if
+   * possible; returns {@code false} if not.
+   */
+  abstract boolean copyDirect(NpyArray<?> source);
+
+  /**
+   * Wraps the destination in an array of the given shape.
+   */
+  abstract NpyArray<?> wrap(int[] shape, boolean fortranOrder);
+
+  private static final class DoubleInto extends IntoReader {
+
+    private final double[] dest;
+
+    DoubleInto(double[] dest) {
+      super(NpyDataType.f8, dest.length);
+      this.dest = dest;
+    }
+
+    @Override
+    void decode(ByteBuffer buffer, NpyDataType type, int pos, int n) {
+      if (type == NpyDataType.f8) {
+        buffer.asDoubleBuffer().get(dest, pos, n);
+        buffer.position(buffer.position() + n * Double.BYTES);
+        return;
+      }
+      if (type == NpyDataType.f4) {
+        for (int i = 0; i < n; i++) {
+          dest[pos + i] = buffer.getFloat();
+        }
+        return;
+      }
+      for (int i = 0; i < n; i++) {
+        dest[pos + i] = Util.getDouble(buffer, type);
+      }
+    }
+
+    @Override
+    boolean copyDirect(NpyArray<?> source) {
+      if (source instanceof MappedDoubleArray) {
+        ((MappedDoubleArray) source).copyTo(dest);
+        return true;
+      }
+      if (source instanceof NpyDoubleArray) {
+        var data = ((NpyDoubleArray) source).data();
+        System.arraycopy(data, 0, dest, 0, dest.length);
+        return true;
+      }
+      return false;
+    }
+
+    @Override
+    NpyArray<?> wrap(int[] shape, boolean fortranOrder) {
+      return new NpyDoubleArray(shape, dest, fortranOrder);
+    }
+  }
+
+  private static final class FloatInto extends IntoReader {
+
+    private final float[] dest;
+
+    FloatInto(float[] dest) {
+      super(NpyDataType.f4, dest.length);
+      this.dest = dest;
+    }
+
+    @Override
+    void decode(ByteBuffer buffer, NpyDataType type, int pos, int n) {
+      if (type == NpyDataType.f4) {
+        buffer.asFloatBuffer().get(dest, pos, n);
+        buffer.position(buffer.position() + n * Float.BYTES);
+        return;
+      }
+      if (type == NpyDataType.f8) {
+        for (int i = 0; i < n; i++) {
+          dest[pos + i] = (float) buffer.getDouble();
+        }
+        return;
+      }
+      for (int i = 0; i < n; i++) {
+        dest[pos + i] = (float) Util.getDouble(buffer, type);
+      }
+    }
+
+    @Override
+    boolean copyDirect(NpyArray<?> source) {
+      if (source instanceof MappedFloatArray) {
+        ((MappedFloatArray) source).copyTo(dest);
+        return true;
+      }
+      if (source instanceof NpyFloatArray) {
+        var data = ((NpyFloatArray) source).data();
+        System.arraycopy(data, 0, dest, 0, dest.length);
+        return true;
+      }
+      return false;
+    }
+
+    @Override
+    NpyArray<?> wrap(int[] shape, boolean fortranOrder) {
+      return new NpyFloatArray(shape, dest, fortranOrder);
+    }
+  }
+
+  private static final class LongInto extends IntoReader {
+
+    private final long[] dest;
+
+    LongInto(long[] dest) {
+      super(NpyDataType.i8, dest.length);
+      this.dest = dest;
+    }
+
+    @Override
+    void decode(ByteBuffer buffer, NpyDataType type, int pos, int n) {
+      if (type == NpyDataType.i8) {
+        buffer.asLongBuffer().get(dest, pos, n);
+        buffer.position(buffer.position() + n * Long.BYTES);
+        return;
+      }
+      if (type == NpyDataType.i4) {
+        for (int i = 0; i < n; i++) {
+          dest[pos + i] = buffer.getInt();
+        }
+        return;
+      }
+      for (int i = 0; i < n; i++) {
+        dest[pos + i] = Util.getLong(buffer, type);
+      }
+    }
+
+    @Override
+    boolean copyDirect(NpyArray<?> source) {
+      if (source instanceof MappedLongArray) {
+        ((MappedLongArray) source).copyTo(dest);
+        return true;
+      }
+      if (source instanceof NpyLongArray) {
+        var data = ((NpyLongArray) source).data();
+        System.arraycopy(data, 0, dest, 0, dest.length);
+        return true;
+      }
+      return false;
+    }
+
+    @Override
+    NpyArray<?> wrap(int[] shape, boolean fortranOrder) {
+      return new NpyLongArray(shape, dest, fortranOrder);
+    }
+  }
+
+  private static final class IntInto extends IntoReader {
+
+    private final int[] dest;
+
+    IntInto(int[] dest) {
+      super(NpyDataType.i4, dest.length);
+      this.dest = dest;
+    }
+
+    @Override
+    void decode(ByteBuffer buffer, NpyDataType type, int pos, int n) {
+      if (type == NpyDataType.i4) {
+        buffer.asIntBuffer().get(dest, pos, n);
+        buffer.position(buffer.position() + n * Integer.BYTES);
+        return;
+      }
+      for (int i = 0; i < n; i++) {
+        dest[pos + i] = (int) Util.getLong(buffer, type);
+      }
+    }
+
+    @Override
+    boolean copyDirect(NpyArray<?> source) {
+      if (source instanceof MappedIntArray) {
+        ((MappedIntArray) source).copyTo(dest);
+        return true;
+      }
+      if (source instanceof NpyIntArray) {
+        var data = ((NpyIntArray) source).data();
+        System.arraycopy(data, 0, dest, 0, dest.length);
+        return true;
+      }
+      return false;
+    }
+
+    @Override
+    NpyArray<?> wrap(int[] shape, boolean fortranOrder) {
+      return new NpyIntArray(shape, dest, fortranOrder);
+    }
+  }
+}
@@ -0,0 +1,270 @@
+package org.openlca.npy;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.openlca.npy.dict.NpyHeaderDict;
+
+/**
+ * Base class of the arrays that read their elements directly from a memory
+ * mapped NPY file instead of copying them into a Java array. Opening such an
+ * array is cheap and it does not require heap space proportional to the size
+ * of the file: the operating system pages the data in on access. Use the
+ * typed accessors of the sub-classes for random access; the {@code asXxx}
+ * conversions load a copy of the data into a heap array.
+ * <p>
+ * Mapped arrays can have more than {@code Integer.MAX_VALUE} elements: use
+ * {@link #longSize()} and the {@code long} based accessors and copy methods
+ * for such arrays. The methods that need to fit the data into a single Java
+ * array or buffer, like {@code load}, {@code copyTo(dest)}, and the
+ * {@code asXxx} conversions, fail for them. Also, {@link #data()} throws an
+ * {@link UnsupportedOperationException} when the data are mapped into more
+ * than one segment, which is the case when they are larger than 1 GB.
+ * <p>
+ * Arrays that are created with {@link Npy#create} are writable: their
+ * elements can be set in place and the changes are written to the file when
+ * {@link #force()} or {@link #close()} is called. Arrays that are opened with
+ * {@link Npy#map} are read-only.
+ *
+ * @param <T> the type of the buffer view that is returned by {@link #data()}
+ */
+public abstract class MappedArray<T> implements NpyArray<T>, AutoCloseable {
+
+  final int[] shape;
+  final boolean fortranOrder;
+  final MappedSegments segments;
+  final long size;
+
+  MappedArray(NpyHeaderDict dict, MappedSegments segments) {
+    this.shape = dict.shape();
+    this.fortranOrder = dict.hasFortranOrder();
+    this.segments = Objects.requireNonNull(segments);
+    this.size = dict.longNumberOfElements();
+  }
+
+  /**
+   * Returns {@code true} if there is a mapped array type for the given type.
+   */
+  static boolean isSupported(NpyDataType type) {
+    switch (type) {
+      case f8:
+      case f4:
+      case i8:
+      case i4:
+      case i2:
+      case i1:
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Creates a mapped array for the given header and mapped data. Returns
+   * {@code null} if there is no mapped array type for the data type of the
+   * header; this is the case for all types which need to be converted into a
+   * wider Java type when they are read (e.g. unsigned integers).
+   */
+  static MappedArray<?> of(NpyHeaderDict dict, MappedSegments segments) {
+    switch (dict.dataType()) {
+      case f8:
+        return new MappedDoubleArray(dict, segments);
+      case f4:
+        return new MappedFloatArray(dict, segments);
+      case i8:
+        return new MappedLongArray(dict, segments);
+      case i4:
+        return new MappedIntArray(dict, segments);
+      case i2:
+        return new MappedShortArray(dict, segments);
+      case i1:
+        return new MappedByteArray(dict, segments);
+      default:
+        return null;
+    }
+  }
+
+  @Override
+  public final int[] shape() {
+    return shape;
+  }
+
+  @Override
+  public final boolean hasColumnOrder() {
+    return fortranOrder;
+  }
+
+  /**
+   * Returns the number of elements of this array.
+   *
+   * @throws ArithmeticException if the array has more than
+   *                             {@code Integer.MAX_VALUE} elements; use
+   *                             {@link #longSize()} in this case
+   */
+  @Override
+  public final int size() {
+    return Math.toIntExact(size);
+  }
+
+  /**
+   * Returns the number of elements of this array, which can be larger than
+   * {@code Integer.MAX_VALUE} for large files.
+   */
+  public final long longSize() {
+    return size;
+  }
+
+  /**
+   * Returns {@code true} if the elements of this array can be modified.
+   */
+  public final boolean isWritable() {
+    return segments.isWritable();
+  }
+
+  /**
+   * Writes the changes of this array to the storage device. This does nothing
+   * when the array is read-only.
+   */
+  public final void force() {
+    segments.force();
+  }
+
+  /**
+   * Same as {@link #force()}. The mapping itself is released by the garbage
+   * collector; there is no way to unmap a file explicitly in Java.
+   */
+  @Override
+  public void close() {
+    force();
+  }
+
+  /**
+   * Returns the 0-based position of the element at the given row and column
+   * in this array, taking the storage order into account. The array needs to
+   * be a 2-dimensional array.
+   *
+   * @throws IndexOutOfBoundsException if the array is not 2-dimensional or
+   *                                   the row or column is out of range
+   */
+  final long indexOf(int row, int col) {
+    if (shape.length != 2)
+      throw new IndexOutOfBoundsException(
+        "not a 2-dimensional array: " + Arrays.toString(shape));
+    if (row < 0 || row >= shape[0] || col < 0 || col >= shape[1])
+      throw new IndexOutOfBoundsException(
+        "(" + row + ", " + col + ") is out of range for a matrix of "
+          + shape[0] + " x " + shape[1]);
+    return fortranOrder
+      ? (long) col * shape[0] + row
+      : (long) row * shape[1] + col;
+  }
+
+  /**
+   * Loads the data of this mapped array into a new heap array of the
+   * corresponding type (e.g. a {@link NpyDoubleArray} for a
+   * {@link MappedDoubleArray}).
+   *
+   * @return a heap copy of this array
+   */
+  public abstract NpyArray<?> load();
+
+  @Override
+  public NpyBooleanArray asBooleanArray() {
+    return load().asBooleanArray();
+  }
+
+  @Override
+  public NpyByteArray asByteArray() {
+    return load().asByteArray();
+  }
+
+  @Override
+  public NpyDoubleArray asDoubleArray() {
+    return load().asDoubleArray();
+  }
+
+  @Override
+  public NpyFloatArray asFloatArray() {
+    return load().asFloatArray();
+  }
+
+  @Override
+  public NpyIntArray asIntArray() {
+    return load().asIntArray();
+  }
+
+  @Override
+  public NpyLongArray asLongArray() {
+    return load().asLongArray();
+  }
+
+  @Override
+  public NpyShortArray asShortArray() {
+    return load().asShortArray();
+  }
+
+  /**
+   * Copies the bytes of the mapped elements directly into the buffer when
+   * the mapped data have the byte order of the buffer.
+   */
+  @Override
+  public int writeRangeTo(int from, int to, ByteBuffer buffer) {
+    if (segments.order() != buffer.order())
+      return NpyArray.super.writeRangeTo(from, to, buffer);
+    int elemSize = dataType().size();
+    int n = Math.min(to - from, buffer.remaining() / elemSize);
+    copyWindows(from, n, 0, (window, pos, k) -> {
+      window.limit(window.position() + k * elemSize);
+      buffer.put(window);
+    });
+    return n;
+  }
+
+  /**
+   * Returns the mapped data as a single buffer. This is only possible when
+   * the data are not split into multiple segments, i.e. when they are smaller
+   * than the segment size of 1 GB.
+   *
+   * @throws UnsupportedOperationException if the data are mapped into
+   *                                       multiple segments
+   */
+  final ByteBuffer singleSegment() {
+    if (segments.segmentCount() > 1)
+      throw new UnsupportedOperationException(
+        "the data are mapped into multiple segments; use the accessor " +
+          "and copy methods of the mapped array instead");
+    return segments.segmentCount() == 0
+      ? ByteBuffer.allocate(0)
+      : segments.segment(0);
+  }
+
+  /**
+   * Copies the range of {@code n} elements starting at position
+   * {@code from} segment by segment: the given function is called with a
+   * buffer that is positioned at the next element and contains at least the
+   * number of elements that are passed to the function. The position in the
+   * Java array, from or into which the elements are copied, starts at
+   * {@code destPos}.
+   */
+  final void copyWindows(long from, int n, int destPos, WindowCopy fn) {
+    if (from < 0 || n < 0 || from + n > size)
+      throw new IndexOutOfBoundsException(
+        "invalid range [" + from + ", " + (from + n) + ") for size " + size);
+    int elemSize = dataType().size();
+    long pos = from * elemSize;
+    while (n > 0) {
+      var window = segments.window(pos);
+      int k = Math.min(n, window.remaining() / elemSize);
+      fn.copy(window, destPos, k);
+      pos += (long) k * elemSize;
+      destPos += k;
+      n -= k;
+    }
+  }
+
+  @FunctionalInterface
+  interface WindowCopy {
+    void copy(ByteBuffer window, int destPos, int n);
+  }
+}
@@ -0,0 +1,110 @@
+package org.openlca.npy;
+
+import java.nio.ByteBuffer;
+
+import org.openlca.npy.dict.NpyHeaderDict;
+
+/**
+ * An array of {@code i1} values that reads its elements directly from a memory
+ * mapped NPY file. Arrays that were created with {@link Npy#create} are
+ * writable.
+ */
+public final class MappedByteArray extends MappedArray<ByteBuffer> {
+
+  MappedByteArray(NpyHeaderDict dict, MappedSegments segments) {
+    super(dict, segments);
+  }
+
+  @Override
+  public NpyDataType dataType() {
+    return NpyDataType.i1;
+  }
+
+  /**
+   * Returns a read-only view of the mapped data. This is only supported when
+   * the data are mapped into a single segment (smaller than 1 GB); use the
+   * accessor and copy methods otherwise.
+   *
+   * @throws UnsupportedOperationException if the data are mapped into
+   *                                       multiple segments
+   */
+  @Override
+  public ByteBuffer data() {
+    return singleSegment().asReadOnlyBuffer();
+  }
+
+  /**
+   * Returns the element at the given 0-based position of the array.
+   */
+  public byte get(long i) {
+    return segments.get(i);
+  }
+
+  /**
+   * Returns the element at the given row and column of this 2-dimensional
+   * array.
+   *
+   * @throws IndexOutOfBoundsException if the row or column is out of range
+   */
+  public byte get(int row, int col) {
+    return get(indexOf(row, col));
+  }
+
+  /**
+   * Sets the element at the given 0-based position of the array. This is
+   * only possible for writable arrays, see {@link Npy#create}.
+   */
+  public void set(long i, byte value) {
+    segments.put(i, value);
+  }
+
+  /**
+   * Sets the element at the given row and column of this 2-dimensional
+   * array.
+   *
+   * @throws IndexOutOfBoundsException if the row or column is out of range
+   */
+  public void set(int row, int col, byte value) {
+    set(indexOf(row, col), value);
+  }
+
+  /**
+   * Copies all elements of this array into the given destination array which
+   * needs to have at least {@link #size()} elements. This fails for arrays
+   * with more than {@code Integer.MAX_VALUE} elements.
+   */
+  public void copyTo(byte[] dest) {
+    copyTo(0, dest, 0, size());
+  }
+
+  /**
+   * Copies {@code n} elements starting from position {@code from} of this
+   * array into the given destination array, starting at {@code destPos}.
+   */
+  public void copyTo(long from, byte[] dest, int destPos, int n) {
+    copyWindows(from, n, destPos,
+      (window, pos, k) -> window.get(dest, pos, k));
+  }
+
+  /**
+   * Copies {@code n} elements of the given source array, starting at
+   * {@code srcPos}, into this array starting at position {@code to}. This
+   * is only possible for writable arrays.
+   */
+  public void copyFrom(byte[] src, int srcPos, long to, int n) {
+    copyWindows(to, n, srcPos,
+      (window, pos, k) -> window.put(src, pos, k));
+  }
+
+  @Override
+  public void writeElementTo(int i, ByteBuffer out) {
+    out.put(get(i));
+  }
+
+  @Override
+  public NpyByteArray load() {
+    var data = new byte[size()];
+    copyTo(data);
+    return new NpyByteArray(shape.clone(), data, fortranOrder);
+  }
+}
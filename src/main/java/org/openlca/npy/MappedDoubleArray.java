@@ -0,0 +1,114 @@
+package org.openlca.npy;
+
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+
+import org.openlca.npy.dict.NpyHeaderDict;
+
+/**
+ * An array of {@code f8} values that reads its elements directly from a memory
+ * mapped NPY file. Arrays that were created with {@link Npy#create} are
+ * writable.
+ */
+public final class MappedDoubleArray extends MappedArray<DoubleBuffer> {
+
+  MappedDoubleArray(NpyHeaderDict dict, MappedSegments segments) {
+    super(dict, segments);
+  }
+
+  @Override
+  public NpyDataType dataType() {
+    return NpyDataType.f8;
+  }
+
+  /**
+   * Returns a read-only view of the mapped data. This is only supported when
+   * the data are mapped into a single segment (smaller than 1 GB); use the
+   * accessor and copy methods otherwise.
+   *
+   * @throws UnsupportedOperationException if the data are mapped into
+   *                                       multiple segments
+   */
+  @Override
+  public DoubleBuffer data() {
+    var buffer = singleSegment();
+    return buffer.asReadOnlyBuffer()
+      .order(buffer.order())
+      .asDoubleBuffer();
+  }
+
+  /**
+   * Returns the element at the given 0-based position of the array.
+   */
+  public double get(long i) {
+    return segments.getDouble(i * Double.BYTES);
+  }
+
+  /**
+   * Returns the element at the given row and column of this 2-dimensional
+   * array.
+   *
+   * @throws IndexOutOfBoundsException if the row or column is out of range
+   */
+  public double get(int row, int col) {
+    return get(indexOf(row, col));
+  }
+
+  /**
+   * Sets the element at the given 0-based position of the array. This is
+   * only possible for writable arrays, see {@link Npy#create}.
+   */
+  public void set(long i, double value) {
+    segments.putDouble(i * Double.BYTES, value);
+  }
+
+  /**
+   * Sets the element at the given row and column of this 2-dimensional
+   * array.
+   *
+   * @throws IndexOutOfBoundsException if the row or column is out of range
+   */
+  public void set(int row, int col, double value) {
+    set(indexOf(row, col), value);
+  }
+
+  /**
+   * Copies all elements of this array into the given destination array which
+   * needs to have at least {@link #size()} elements. This fails for arrays
+   * with more than {@code Integer.MAX_VALUE} elements.
+   */
+  public void copyTo(double[] dest) {
+    copyTo(0, dest, 0, size());
+  }
+
+  /**
+   * Copies {@code n} elements starting from position {@code from} of this
+   * array into the given destination array, starting at {@code destPos}.
+   */
+  public void copyTo(long from, double[] dest, int destPos, int n) {
+    copyWindows(from, n, destPos,
+      (window, pos, k) -> window.asDoubleBuffer().get(dest, pos, k));
+  }
+
+  /**
+   * Copies {@code n} elements of the given source array, starting at
+   * {@code srcPos}, into this array starting at position {@code to}. This
+   * is only possible for writable arrays.
+   */
+  public void copyFrom(double[] src, int srcPos, long to, int n) {
+    copyWindows(to, n, srcPos,
+      (window, pos, k) -> window.asDoubleBuffer().put(src, pos, k));
+  }
+
+  @Override
+  public void writeElementTo(int i, ByteBuffer out) {
+    out.putDouble(get(i));
+  }
+
+  @Override
+  public NpyDoubleArray load() {
+    var data = new double[size()];
+    copyTo(data);
+    return new NpyDoubleArray(shape.clone(), data, fortranOrder);
+  }
+}
@@ -0,0 +1,169 @@
+package org.openlca.npy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Maps a region of a file into memory using one or more mapped buffers
+ * (segments). A single mapped buffer cannot be larger than 2 GB, so larger
+ * regions are split into segments of a fixed power-of-two size. Positions are
+ * {@code long} byte offsets relative to the start of the region. As the
+ * segment size is a multiple of all element sizes of the NPY format, an
+ * element never straddles the boundary between two segments; ranges of
+ * elements that span multiple segments are split by {@link #window(long)}.
+ */
+final class MappedSegments {
+
+  /**
+   * The default segment size is {@code 2^30} bytes (1 GB).
+   */
+  static final int DEFAULT_SHIFT = 30;
+
+  private final MappedByteBuffer[] segments;
+  private final boolean writable;
+  private final ByteOrder order;
+  private final int shift;
+  private final long mask;
+  private final long size;
+
+  private MappedSegments(MappedByteBuffer[] segments,
+    boolean writable, ByteOrder order, int shift, long size) {
+    this.segments = segments;
+    this.writable = writable;
+    this.order = order;
+    this.shift = shift;
+    this.mask = (1L << shift) - 1;
+    this.size = size;
+  }
+
+  static MappedSegments map(
+    FileChannel channel, FileChannel.MapMode mode,
+    long offset, long size, ByteOrder order) throws IOException {
+    return map(channel, mode, offset, size, order, DEFAULT_SHIFT);
+  }
+
+  /**
+   * Maps the given region of the file into segments of size
+   * {@code 2^shift} bytes; the shift needs to be at least 3 so that the
+   * segment size is a multiple of 8 and at most 30.
+   */
+  static MappedSegments map(
+    FileChannel channel, FileChannel.MapMode mode,
+    long offset, long size, ByteOrder order, int shift) throws IOException {
+    if (shift < 3 || shift > 30)
+      throw new IllegalArgumentException("invalid segment shift: " + shift);
+    long segmentSize = 1L << shift;
+    int count = (int) ((size + segmentSize - 1) >>> shift);
+    var segments = new MappedByteBuffer[count];
+    for (int i = 0; i < count; i++) {
+      long start = (long) i << shift;
+      long length = Math.min(segmentSize, size - start);
+      var segment = channel.map(mode, offset + start, length);
+      segment.order(order);
+      segments[i] = segment;
+    }
+    boolean writable = mode == FileChannel.MapMode.READ_WRITE;
+    return new MappedSegments(segments, writable, order, shift, size);
+  }
+
+  /**
+   * Returns the size of the mapped region in bytes.
+   */
+  long size() {
+    return size;
+  }
+
+  boolean isWritable() {
+    return writable;
+  }
+
+  /**
+   * Writes the changes of writable segments to the storage device.
+   */
+  void force() {
+    if (!writable)
+      return;
+    for (var segment : segments) {
+      segment.force();
+    }
+  }
+
+  ByteOrder order() {
+    return order;
+  }
+
+  int segmentCount() {
+    return segments.length;
+  }
+
+  /**
+   * Returns a new buffer that starts at the given position and ends at the
+   * end of the segment that contains this position. The returned buffer has
+   * the byte order of the mapped data and its own position and limit, so it
+   * can be used independently from other threads.
+   */
+  ByteBuffer window(long pos) {
+    var segment = segments[(int) (pos >>> shift)];
+    var window = segment.duplicate().order(order);
+    window.position((int) (pos & mask));
+    return window;
+  }
+
+  /**
+   * Returns a new buffer over the segment with the given index.
+   */
+  ByteBuffer segment(int i) {
+    return segments[i].duplicate().order(order);
+  }
+
+  byte get(long pos) {
+    return segments[(int) (pos >>> shift)].get((int) (pos & mask));
+  }
+
+  short getShort(long pos) {
+    return segments[(int) (pos >>> shift)].getShort((int) (pos & mask));
+  }
+
+  int getInt(long pos) {
+    return segments[(int) (pos >>> shift)].getInt((int) (pos & mask));
+  }
+
+  long getLong(long pos) {
+    return segments[(int) (pos >>> shift)].getLong((int) (pos & mask));
+  }
+
+  float getFloat(long pos) {
+    return segments[(int) (pos >>> shift)].getFloat((int) (pos & mask));
+  }
+
+  double getDouble(long pos) {
+    return segments[(int) (pos >>> shift)].getDouble((int) (pos & mask));
+  }
+
+  void put(long pos, byte value) {
+    segments[(int) (pos >>> shift)].put((int) (pos & mask), value);
+  }
+
+  void putShort(long pos, short value) {
+    segments[(int) (pos >>> shift)].putShort((int) (pos & mask), value);
+  }
+
+  void putInt(long pos, int value) {
+    segments[(int) (pos >>> shift)].putInt((int) (pos & mask), value);
+  }
+
+  void putLong(long pos, long value) {
+    segments[(int) (pos >>> shift)].putLong((int) (pos & mask), value);
+  }
+
+  void putFloat(long pos, float value) {
+    segments[(int) (pos >>> shift)].putFloat((int) (pos & mask), value);
+  }
+
+  void putDouble(long pos, double value) {
+    segments[(int) (pos >>> shift)].putDouble((int) (pos & mask), value);
+  }
+}
@@ -11,6 +11,8 @@ import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritableByteChannel;
 import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
 
 import org.openlca.npy.dict.NpyHeaderDict;
 
@@ -34,15 +36,337 @@ public class Npy {
     }
   }
 
+  /**
+   * Same as {@link #read(File)} but reads the data in parallel with as many
+   * tasks as processors are available and a chunk size of 4 MB.
+   *
+   * @param file the NPY file to read
+   * @return the NPY array with the content of the file
+   */
+  public static NpyArray<?> readParallel(File file) {
+    var options = NpyOptions.builder()
+      .withParallelism(Runtime.getRuntime().availableProcessors())
+      .create();
+    return read(file, options);
+  }
+
+  /**
+   * Reads the given file in parallel. The data of the file are split into
+   * chunks of the given size (rounded down to complete elements) which are
+   * read with positional reads from a shared fork-join pool with the given
+   * parallelism, rounded up to a power of two of at most 64. Each task
+   * decodes its chunk directly into the respective part of the resulting
+   * array. This can be much faster than a sequential read on fast storage
+   * like NVMe drives.
+   *
+   * @param file        the NPY file to read
+   * @param parallelism the number of parallel tasks
+   * @param chunkSize   the size of the chunks in bytes
+   * @return the NPY array with the content of the file
+   */
+  public static NpyArray<?> readParallel(
+    File file, int parallelism, int chunkSize) {
+    var options = NpyOptions.builder()
+      .withParallelism(parallelism)
+      .withChunkSize(chunkSize)
+      .create();
+    return read(file, options);
+  }
+
+  /**
+   * Same as {@link #read(File)} but with the given options for the buffer
+   * size and type as well as parallel reading.
+   *
+   * @param file    the NPY file to read
+   * @param options the options for reading the file
+   * @return the NPY array with the content of the file
+   */
+  public static NpyArray<?> read(File file, NpyOptions options) {
+    try (var f = new RandomAccessFile(file, "r");
+         var channel = f.getChannel()) {
+      var header = NpyHeader.read(channel);
+      return options.parallelism() > 1
+        ? ParallelReader.read(channel, header, options)
+        : ChannelReader.read(channel, header, options);
+    } catch (IOException e) {
+      throw new RuntimeException("failed to read file: " + file, e);
+    }
+  }
+
   public static NpyArray<?> read(ReadableByteChannel channel) {
+    return read(channel, NpyOptions.defaults());
+  }
+
+  /**
+   * Reads an NPY array from the given channel using the buffer options of
+   * the given options. The parallelism of the options is ignored here as
+   * a channel can only be read sequentially.
+   */
+  public static NpyArray<?> read(
+    ReadableByteChannel channel, NpyOptions options) {
     try {
       var header = NpyHeader.read(channel);
-      return ChannelReader.read(channel, header);
+      return ChannelReader.read(channel, header, options);
+    } catch (IOException e) {
+      throw new RuntimeException("failed to read NPY array from channel", e);
+    }
+  }
+
+  /**
+   * Releases the pooled I/O buffers. Each thread that reads or writes NPY
+   * data keeps a direct and a heap buffer of up to 8 MB for the next
+   * operation. Long-lived threads that only rarely read or write NPY data,
+   * e.g. in the thread pool of a server, can call this method to give the
+   * memory free after an operation. The buffers of the current thread are
+   * dropped immediately; other threads, like the worker threads of parallel
+   * reads, drop their buffers on their next request, and idle worker threads
+   * terminate after 60 seconds.
+   */
+  public static void releaseBuffers() {
+    BufferPool.clear();
+  }
+
+  /**
+   * Reads the content of the given file into a large array. Large arrays can
+   * contain more than {@code 2^31 - 1} elements which are stored in pages of
+   * primitive arrays. The data types {@code u8}, {@code S}, and {@code U} are
+   * not supported for large arrays.
+   *
+   * @param file the NPY file to read
+   * @return the large array with the content of the file
+   * @throws NpyFormatException if the NPY format is invalid or unsupported
+   * @throws RuntimeException   IO exceptions are wrapped in runtime exceptions
+   */
+  public static NpyLargeArray<?> readLarge(File file) {
+    try (var f = new RandomAccessFile(file, "r");
+         var channel = f.getChannel()) {
+      var header = NpyHeader.read(channel);
+      return ChannelReader.readLarge(channel, header);
+    } catch (IOException e) {
+      throw new RuntimeException("failed to read file: " + file, e);
+    }
+  }
+
+  public static NpyLargeArray<?> readLarge(ReadableByteChannel channel) {
+    try {
+      var header = NpyHeader.read(channel);
+      return ChannelReader.readLarge(channel, header);
     } catch (IOException e) {
       throw new RuntimeException("failed to read NPY array from channel", e);
     }
   }
 
+  /**
+   * Reads the content of the given file into an existing array, instead of
+   * allocating a new one. This is useful when arrays of the same shape are
+   * read repeatedly. The length of the destination must be the number of
+   * elements in the file and the data type of the file must be {@code f8}.
+   *
+   * @param file the NPY file to read
+   * @param dest the destination array
+   * @return the destination wrapped in an array with the shape and storage
+   * order of the file
+   * @throws IllegalArgumentException if the length or data type do not match
+   */
+  public static NpyDoubleArray readInto(File file, double[] dest) {
+    return readInto(file, dest, false);
+  }
+
+  /**
+   * Same as {@link #readInto(File, double[])}, but when {@code convert} is
+   * {@code true}, all numeric data types are converted to {@code double}
+   * values while they are decoded.
+   */
+  public static NpyDoubleArray readInto(
+    File file, double[] dest, boolean convert) {
+    return (NpyDoubleArray) readInto(file, IntoReader.of(dest), convert);
+  }
+
+  /**
+   * Reads the elements of the given array, typically a memory mapped array
+   * from {@link #map(File)}, into an existing array. Mapped arrays of type
+   * {@code f8} are copied directly from the mapped memory.
+   *
+   * @param array   the source array
+   * @param dest    the destination array with the length of the source
+   * @param convert if {@code true}, all numeric data types are converted,
+   *                otherwise the source needs to have the type {@code f8}
+   * @return the destination wrapped in an array with the shape and storage
+   * order of the source
+   */
+  public static NpyDoubleArray readInto(
+    NpyArray<?> array, double[] dest, boolean convert) {
+    return (NpyDoubleArray) IntoReader.of(dest).read(array, convert);
+  }
+
+  public static NpyFloatArray readInto(File file, float[] dest) {
+    return readInto(file, dest, false);
+  }
+
+  public static NpyFloatArray readInto(
+    File file, float[] dest, boolean convert) {
+    return (NpyFloatArray) readInto(file, IntoReader.of(dest), convert);
+  }
+
+  public static NpyFloatArray readInto(
+    NpyArray<?> array, float[] dest, boolean convert) {
+    return (NpyFloatArray) IntoReader.of(dest).read(array, convert);
+  }
+
+  public static NpyLongArray readInto(File file, long[] dest) {
+    return readInto(file, dest, false);
+  }
+
+  public static NpyLongArray readInto(
+    File file, long[] dest, boolean convert) {
+    return (NpyLongArray) readInto(file, IntoReader.of(dest), convert);
+  }
+
+  public static NpyLongArray readInto(
+    NpyArray<?> array, long[] dest, boolean convert) {
+    return (NpyLongArray) IntoReader.of(dest).read(array, convert);
+  }
+
+  public static NpyIntArray readInto(File file, int[] dest) {
+    return readInto(file, dest, false);
+  }
+
+  public static NpyIntArray readInto(
+    File file, int[] dest, boolean convert) {
+    return (NpyIntArray) readInto(file, IntoReader.of(dest), convert);
+  }
+
+  public static NpyIntArray readInto(
+    NpyArray<?> array, int[] dest, boolean convert) {
+    return (NpyIntArray) IntoReader.of(dest).read(array, convert);
+  }
+
+  /**
+   * Reads the content of the given file into an array of {@code double}
+   * values. Other numeric types are converted while the data are decoded,
+   * so that only the array of the target type is allocated and not an
+   * additional array of the type of the file, as with
+   * {@code Npy.read(file).asDoubleArray()}.
+   *
+   * @param file the NPY file to read
+   * @return the converted array with the shape and storage order of the file
+   */
+  public static NpyDoubleArray readDoubles(File file) {
+    return (NpyDoubleArray) readConverted(file, IntoReader::of, double[]::new);
+  }
+
+  /**
+   * Same as {@link #readDoubles(File)} but for {@code float} values. This
+   * can be used to narrow {@code f8} files to half of their size in memory,
+   * if the precision of {@code float} values is enough.
+   */
+  public static NpyFloatArray readFloats(File file) {
+    return (NpyFloatArray) readConverted(file, IntoReader::of, float[]::new);
+  }
+
+  /**
+   * Same as {@link #readDoubles(File)} but for {@code long} values;
+   * floating point numbers are converted like with a Java cast.
+   */
+  public static NpyLongArray readLongs(File file) {
+    return (NpyLongArray) readConverted(file, IntoReader::of, long[]::new);
+  }
+
+  /**
+   * Same as {@link #readDoubles(File)} but for {@code int} values; all
+   * values are converted like with a Java cast.
+   */
+  public static NpyIntArray readInts(File file) {
+    return (NpyIntArray) readConverted(file, IntoReader::of, int[]::new);
+  }
+
+  /**
+   * Reads a boolean array ({@code ?}) from the given file into the bits of a
+   * {@link NpyBitArray}. The bytes are packed in groups of 8 while the data
+   * are decoded, so that no array of {@code boolean} values is allocated.
+   *
+   * @param file the NPY file with a boolean array
+   * @return the bit array with the shape and storage order of the file
+   * @throws IllegalArgumentException if the file has no boolean array
+   */
+  public static NpyBitArray readBits(File file) {
+    try (var f = new RandomAccessFile(file, "r");
+         var channel = f.getChannel()) {
+      var header = NpyHeader.read(channel);
+      return ChannelReader.readBits(channel, header);
+    } catch (IOException e) {
+      throw new RuntimeException("failed to read file: " + file, e);
+    }
+  }
+
+  /**
+   * Writes the given bit array in the layout of NumPy's {@code packbits}
+   * function (with the default bit order {@code big}) as a vector of
+   * {@code u1} values. This takes 8 times less space than writing it as a
+   * boolean array. The shape of the bit array is not stored; the file can be
+   * unpacked in NumPy with {@code np.unpackbits(a, count=n).reshape(shape)}
+   * and read with {@link #readPackedBits(File, int[], boolean)}.
+   */
+  public static void writePackedBits(File file, NpyBitArray array) {
+    var bytes = array.toPackedBits();
+    var dict = NpyHeaderDict.of(NpyDataType.u1)
+      .withByteOrder(NpyByteOrder.NOT_APPLICABLE)
+      .withShape(new int[]{bytes.length})
+      .create();
+    write(file, dict, bytes);
+  }
+
+  /**
+   * Reads a file with bits in the layout of NumPy's {@code packbits}
+   * function, e.g. written by {@link #writePackedBits(File, NpyBitArray)},
+   * into a bit array of the given shape and storage order. The file needs
+   * to contain a {@code u1} or {@code i1} array with at least as many bits
+   * as the given shape has elements.
+   */
+  public static NpyBitArray readPackedBits(
+    File file, int[] shape, boolean fortranOrder) {
+    try (var f = new RandomAccessFile(file, "r");
+         var channel = f.getChannel()) {
+      var header = NpyHeader.read(channel);
+      var type = header.dict().dataType();
+      if (type != NpyDataType.u1 && type != NpyDataType.i1)
+        throw new IllegalArgumentException(
+          "packed bits need to be stored as bytes but the type is " + type);
+      var bytes = new byte[header.dict().numberOfElements()];
+      var buffer = ByteBuffer.wrap(bytes);
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer) < 0)
+          throw new NpyFormatException("unexpected end of data");
+      }
+      return NpyBitArray.ofPackedBits(bytes, shape, fortranOrder);
+    } catch (IOException e) {
+      throw new RuntimeException("failed to read file: " + file, e);
+    }
+  }
+
+  private static <T> NpyArray<?> readConverted(
+    File file, Function<T, IntoReader> reader, IntFunction<T> alloc) {
+    try (var f = new RandomAccessFile(file, "r");
+         var channel = f.getChannel()) {
+      var header = NpyHeader.read(channel);
+      var dest = alloc.apply(header.dict().numberOfElements());
+      return reader.apply(dest).read(channel, header, true);
+    } catch (IOException e) {
+      throw new RuntimeException("failed to read file: " + file, e);
+    }
+  }
+
+  private static NpyArray<?> readInto(
+    File file, IntoReader reader, boolean convert) {
+    try (var f = new RandomAccessFile(file, "r");
+         var channel = f.getChannel()) {
+      var header = NpyHeader.read(channel);
+      return reader.read(channel, header, convert);
+    } catch (IOException e) {
+      throw new RuntimeException("failed to read file: " + file, e);
+    }
+  }
+
   /**
    * Opens the given file as a random access file and reads the NPY header. It
    * calls the given consumer with the opened file and header and closes the
@@ -104,18 +428,20 @@ public class Npy {
 
     try {
 
-      // seek to the reading position and read the data
+      // read the data with positional reads, so that the position of the
+      // file is not changed and the file can be shared between threads
       long start = header.dataOffset();
       if (offset > 0) {
         start += (long) elemSize * (long) offset;
       }
-      file.seek(start);
       int byteCount = n * elemSize;
       var buffer = ByteBuffer.allocate(byteCount)
         .order(dict.byteOrder().toJava());
-      if (file.getChannel().read(buffer) < byteCount) {
-        throw new IndexOutOfBoundsException(
-          "failed to read " + n + " elements from file");
+      var channel = file.getChannel();
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer, start + buffer.position()) < 0)
+          throw new IndexOutOfBoundsException(
+            "failed to read " + n + " elements from file");
       }
       buffer.flip();
 
@@ -131,6 +457,71 @@ public class Npy {
     }
   }
 
+  /**
+   * Writes the elements of the given array into an existing NPY file,
+   * starting at the 0-based element position {@code offset}. This is the
+   * counterpart of {@link #readRange(File, int, int)}: only the bytes of the
+   * range are written, the rest of the file is not touched. The data type of
+   * the array must match the data type of the file; the elements are encoded
+   * in the byte order of the file.
+   *
+   * @param file   a NPY file
+   * @param offset the 0-based position of the first element in the file
+   * @param array  the elements that should be written
+   */
+  public static void writeRange(File file, long offset, NpyArray<?> array) {
+    try (var raf = new RandomAccessFile(file, "rw");
+         var channel = raf.getChannel()) {
+      var header = NpyHeader.read(channel);
+      writeRange(raf, header, offset, array);
+    } catch (IOException e) {
+      throw new RuntimeException(
+        "failed to write a range of " + array.size()
+          + " elements to NPY file " + file, e);
+    }
+  }
+
+  /**
+   * Same as {@link #writeRange(File, long, NpyArray)} but with an opened NPY
+   * file. The file needs to be opened in a writable mode.
+   *
+   * @param file   the opened NPY file
+   * @param header the NPY header of the file
+   * @param offset the 0-based position of the first element in the file
+   * @param array  the elements that should be written
+   */
+  public static void writeRange(
+    RandomAccessFile file, NpyHeader header, long offset, NpyArray<?> array) {
+    try {
+      RangeWriter.write(
+        file.getChannel(), header, offset, array, 0, array.size());
+    } catch (IOException e) {
+      throw new RuntimeException(
+        "failed to write range to NPY file: " + file, e);
+    }
+  }
+
+  /**
+   * Writes the elements of the given array into an existing NPY file at the
+   * positions {@code offset + i * inc}. This is the counterpart of
+   * {@link #readElements(RandomAccessFile, NpyHeader, int, int, int)}.
+   *
+   * @param file   the opened NPY file
+   * @param header the NPY header of the file
+   * @param offset the 0-based position of the first element in the file
+   * @param inc    the distance between two positions in the file
+   * @param array  the elements that should be written
+   */
+  public static void writeElements(RandomAccessFile file, NpyHeader header,
+    long offset, int inc, NpyArray<?> array) {
+    try {
+      RangeWriter.writeStrided(file.getChannel(), header, offset, inc, array);
+    } catch (IOException e) {
+      throw new RuntimeException(
+        "failed to write elements to NPY file: " + file, e);
+    }
+  }
+
   public static NpyArray<?> readElements(File file, int n, int offset, int inc) {
     try (var raf = new RandomAccessFile(file, "r");
          var channel = raf.getChannel()) {
@@ -155,22 +546,16 @@ public class Npy {
 
     try {
 
-      // read the data
+      // read the data; depending on the increment, the elements are read
+      // one by one or extracted from larger blocks
       var buffer = ByteBuffer.allocate(n * elemSize)
         .order(dict.byteOrder().toJava());
       long fileOffset = header.dataOffset();
       if (offset > 0) {
         fileOffset += (long) elemSize * (long) offset;
       }
-      var channel = file.getChannel();
-      for (int i = 0; i < n; i++) {
-        file.seek(fileOffset + (long) i * inc * elemSize);
-        buffer.limit(buffer.position() + elemSize);
-        if (channel.read(buffer) < elemSize) {
-          throw new IndexOutOfBoundsException(
-            "failed to read " + n + " elements from file");
-        }
-      }
+      StridedReader.read(file.getChannel(), fileOffset, n, elemSize,
+        (long) inc * elemSize, buffer);
       buffer.flip();
 
       // read the range into an array
@@ -184,6 +569,46 @@ public class Npy {
     }
   }
 
+  /**
+   * Reads a NumPy-like slice of the array in the given NPY file, e.g.:
+   *
+   * <pre>{@code
+   * var array = Npy.slice(file, Slice.of("2:10, :, ::4"));
+   * }</pre>
+   * <p>
+   * Only the parts of the file that contain the slice are read, where
+   * contiguous runs of elements are read with as few calls as possible. The
+   * returned array has the shape of the slice and the storage order of the
+   * file.
+   *
+   * @param file  the NPY file
+   * @param slice the slice that should be read
+   * @return the elements of the slice
+   */
+  public static NpyArray<?> slice(File file, Slice slice) {
+    try (var raf = new RandomAccessFile(file, "r");
+         var channel = raf.getChannel()) {
+      var header = NpyHeader.read(channel);
+      return slice(raf, header, slice);
+    } catch (IOException e) {
+      throw new RuntimeException(
+        "failed to read slice " + slice + " from NPY file " + file, e);
+    }
+  }
+
+  /**
+   * Same as {@link #slice(File, Slice)} but with an opened NPY file.
+   */
+  public static NpyArray<?> slice(
+    RandomAccessFile file, NpyHeader header, Slice slice) {
+    try {
+      return SliceReader.read(file.getChannel(), header, slice);
+    } catch (IOException e) {
+      throw new RuntimeException(
+        "failed to read slice " + slice + " from NPY file " + file, e);
+    }
+  }
+
   static NpyHeaderDict shape1d(NpyHeaderDict dict, int n) {
     return NpyHeaderDict.of(dict.dataType())
       .withTypeSize(dict.typeSize())
@@ -214,15 +639,28 @@ public class Npy {
   }
 
   public static void write(File file, NpyArray<?> array) {
+    write(file, array, NpyOptions.defaults());
+  }
+
+  public static void write(File file, NpyArray<?> array, NpyOptions options) {
     try (var f = new RandomAccessFile(file, "rw");
          var channel = f.getChannel()) {
-      write(channel, array);
+      write(channel, array, options);
     } catch (IOException e) {
       throw new RuntimeException("failed to write array to file " + file, e);
     }
   }
 
   public static void write(WritableByteChannel channel, NpyArray<?> array) {
+    write(channel, array, NpyOptions.defaults());
+  }
+
+  /**
+   * Writes the given array to the channel using the buffer size and type of
+   * the given options.
+   */
+  public static void write(
+    WritableByteChannel channel, NpyArray<?> array, NpyOptions options) {
     try {
 
       var dataType = array.dataType();
@@ -249,34 +687,77 @@ public class Npy {
         .create();
       channel.write(ByteBuffer.wrap(dict.toNpyHeader()));
 
-      // allocate a buffer
-      long totalBytes = dict.dataSize();
-      int maxBufferSize = 8 * 1024;
-      int bufferSize = totalBytes < maxBufferSize
-        ? (int) totalBytes
-        : maxBufferSize;
-      var buffer = ByteBuffer.allocate(bufferSize)
-        .order(ByteOrder.LITTLE_ENDIAN);
-
-      // write data to the channel
-      for (int i = 0; i < array.size(); i++) {
-        array.writeElementTo(i, buffer);
-        if (!buffer.hasRemaining()) {
-          buffer.flip();
-          channel.write(buffer);
-          buffer.clear();
+      // get a buffer; we only write elements with a maximum
+      // size of 8 bytes, and the buffer size is at least 8
+      var buffer = BufferPool.get(
+        options, dict.dataSize(), ByteOrder.LITTLE_ENDIAN);
+
+      // write data to the channel in blocks
+      try {
+        int size = array.size();
+        int pos = 0;
+        while (pos < size) {
+          pos += array.writeRangeTo(pos, size, buffer);
+          writeFully(channel, buffer);
         }
+      } finally {
+        BufferPool.release(buffer);
       }
-      if (buffer.position() > 0) {
-        buffer.flip();
-        channel.write(buffer);
-      }
 
     } catch (IOException e) {
       throw new RuntimeException("failed to write NPY array to channel", e);
     }
   }
 
+  public static void write(File file, NpyLargeArray<?> array) {
+    try (var f = new RandomAccessFile(file, "rw");
+         var channel = f.getChannel()) {
+      write(channel, array);
+    } catch (IOException e) {
+      throw new RuntimeException("failed to write array to file " + file, e);
+    }
+  }
+
+  public static void write(
+    WritableByteChannel channel, NpyLargeArray<?> array) {
+    try {
+      var dict = NpyHeaderDict.of(array.dataType())
+        .withShape(array.shape())
+        .withFortranOrder(array.hasColumnOrder())
+        .withByteOrder(NpyByteOrder.LITTLE_ENDIAN)
+        .create();
+      channel.write(ByteBuffer.wrap(dict.toNpyHeader()));
+
+      var buffer = BufferPool.get(
+        NpyOptions.defaults(), dict.dataSize(), ByteOrder.LITTLE_ENDIAN);
+      try {
+        long pos = 0;
+        long size = array.size();
+        while (pos < size) {
+          pos += array.writeElementsTo(pos, buffer);
+          writeFully(channel, buffer);
+        }
+      } finally {
+        BufferPool.release(buffer);
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("failed to write NPY array to channel", e);
+    }
+  }
+
+  /**
+   * Flips the buffer, writes its content completely to the channel, and
+   * clears the buffer.
+   */
+  private static void writeFully(
+    WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
   public static void write(OutputStream stream, NpyArray<?> array) {
     // do not close the channel here because it would
     // close the underlying output stream which is
@@ -285,28 +766,147 @@ public class Npy {
     write(channel, array);
   }
 
+  /**
+   * Converts the data of the given NPY file from big-endian into
+   * little-endian byte order and updates the {@code descr} field of the
+   * header. This can be used to normalize files that were written on
+   * big-endian systems once, so that they can be read in the native order of
+   * most platforms afterwards. The data are converted in a streaming fashion,
+   * in place if possible. Note that the conversion is not atomic: when it
+   * fails in the middle, the file can be left in an invalid state.
+   *
+   * @param file the NPY file to convert
+   * @return {@code true} if the file was converted or {@code false} if it
+   * has no big-endian data
+   */
+  public static boolean toLittleEndian(File file) {
+    try {
+      return ByteOrderSwitch.toLittleEndian(file);
+    } catch (IOException e) {
+      throw new RuntimeException(
+        "failed to convert the byte order of file " + file, e);
+    }
+  }
+
+  /**
+   * Maps the data of the given NPY file into memory and decodes them into a
+   * heap array of the respective type like {@link #read(File)}. Data that
+   * are larger than 1 GB are mapped into multiple segments. To read the
+   * elements directly from the mapped file without copying them into a Java
+   * array, use {@link #map(File)}.
+   *
+   * @param file the NPY file
+   * @return the NPY array with the decoded data
+   */
   public static NpyArray<?> memmap(File file) {
+    return memmap(file, MappedSegments.DEFAULT_SHIFT, false);
+  }
+
+  /**
+   * Maps the data of the given NPY file into memory. For the data types
+   * {@code f8, f4, i8, i4, i2}, and {@code i1} this returns a
+   * {@link MappedArray} that reads the elements directly from the mapped file
+   * on access, without copying them into a Java array. For the other data
+   * types, the mapped data are decoded into a heap array of the respective
+   * type like in {@link #memmap(File)}. Data that are larger than 1 GB are
+   * mapped into multiple segments, so that also files that are larger than
+   * 2 GB can be mapped.
+   *
+   * @param file the NPY file
+   * @return the mapped NPY array
+   */
+  public static NpyArray<?> map(File file) {
+    return map(file, MappedSegments.DEFAULT_SHIFT);
+  }
+
+  /**
+   * Same as {@link #map(File)} but with a configurable segment size of
+   * {@code 2^segmentShift} bytes. Data that are larger than a segment are
+   * mapped into multiple buffers.
+   */
+  static NpyArray<?> map(File file, int segmentShift) {
+    return memmap(file, segmentShift, true);
+  }
+
+  private static NpyArray<?> memmap(
+    File file, int segmentShift, boolean direct) {
     try (var f = new RandomAccessFile(file, "r");
          var channel = f.getChannel()) {
       var header = NpyHeader.read(channel);
-      long dataSize = header.dict().dataSize();
-
-      // only a buffer of size < Integer.MAX_VALUE can be mapped
-      // into memory. if the size of the stored array is larger
-      // we take the normal reader currently
-      long max = Integer.MAX_VALUE;
-      if (dataSize >= max)
-        return ChannelReader.read(channel, header);
-
-      var buffer = channel.map(
-        FileChannel.MapMode.READ_ONLY, header.dataOffset(), dataSize);
-      buffer.order(header.byteOrder());
+      var segments = MappedSegments.map(
+        channel, FileChannel.MapMode.READ_ONLY, header.dataOffset(),
+        header.dict().dataSize(), header.byteOrder(), segmentShift);
+      if (direct) {
+        var mapped = MappedArray.of(header.dict(), segments);
+        if (mapped != null)
+          return mapped;
+      }
+
+      // the segments are aligned to element boundaries, so we can
+      // decode them one after another
       var builder = NpyArrayReader.of(header.dict());
-      builder.readAllFrom(buffer);
+      for (int i = 0; i < segments.segmentCount(); i++) {
+        builder.readAllFrom(segments.segment(i));
+      }
       return builder.finish();
     } catch (IOException e) {
       throw new RuntimeException("failed to memmap NPY file: " + file, e);
     }
   }
 
+  /**
+   * Creates a new NPY file with the given header and returns a writable,
+   * memory mapped array of its data. The data region is pre-allocated and
+   * filled with zeros, so that the array can be filled in place without
+   * holding the full data on the heap. Changes are written to the file when
+   * the returned array is closed:
+   *
+   * <pre>{@code
+   * var dict = NpyHeaderDict.of(NpyDataType.f8)
+   *   .withShape(new int[]{rows, cols})
+   *   .create();
+   * try (var matrix = (MappedDoubleArray) Npy.create(file, dict)) {
+   *   matrix.set(0, 0, 42.0);
+   * }
+   * }</pre>
+   * <p>
+   * An existing file is overwritten. The data type of the header needs to be
+   * one of the types for which a mapped array type exists: {@code f8},
+   * {@code f4}, {@code i8}, {@code i4}, {@code i2}, or {@code i1}.
+   *
+   * @param file the file that should be created
+   * @param dict the header of the file
+   * @return the writable mapped array of the file
+   */
+  public static MappedArray<?> create(File file, NpyHeaderDict dict) {
+    return create(file, dict, MappedSegments.DEFAULT_SHIFT);
+  }
+
+  static MappedArray<?> create(
+    File file, NpyHeaderDict dict, int segmentShift) {
+    if (!MappedArray.isSupported(dict.dataType()))
+      throw new IllegalArgumentException(
+        "unsupported data type for mapped arrays: " + dict.dataType());
+    try (var f = new RandomAccessFile(file, "rw");
+         var channel = f.getChannel()) {
+      var headerBytes = dict.toNpyHeader();
+      var header = NpyHeader.of(dict, headerBytes.length);
+      long dataSize = dict.dataSize();
+
+      // truncate an existing file first so that the data are all zeros
+      f.setLength(0);
+      f.setLength(headerBytes.length + dataSize);
+      var buffer = ByteBuffer.wrap(headerBytes);
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+
+      var segments = MappedSegments.map(
+        channel, FileChannel.MapMode.READ_WRITE, header.dataOffset(),
+        dataSize, header.byteOrder(), segmentShift);
+      return MappedArray.of(dict, segments);
+    } catch (IOException e) {
+      throw new RuntimeException("failed to create NPY file: " + file, e);
+    }
+  }
 }
@@ -33,6 +33,28 @@ public interface NpyArray<T> {
    */
   void writeElementTo(int i, ByteBuffer buffer);
 
+  /**
+   * Writes the elements from position {@code from} (inclusive) to position
+   * {@code to} (exclusive) of this array to the given buffer, as many as fit
+   * into the remaining space of the buffer. The primitive array types
+   * implement this with bulk transfers, which is much faster than writing
+   * the elements one by one with {@link #writeElementTo(int, ByteBuffer)}.
+   *
+   * @param from   the position of the first element that should be written
+   * @param to     the end (exclusive) of the range of elements
+   * @param buffer the byte buffer to which the elements should be written
+   * @return the number of elements that were written to the buffer
+   */
+  default int writeRangeTo(int from, int to, ByteBuffer buffer) {
+    int elemSize = dataType().size();
+    int i = from;
+    while (i < to && buffer.remaining() >= elemSize) {
+      writeElementTo(i, buffer);
+      i++;
+    }
+    return i - from;
+  }
+
   /**
    * Returns the size of this array. That is the number of elements of this
    * array.
@@ -45,6 +67,14 @@ public interface NpyArray<T> {
     return false;
   }
 
+  /**
+   * Returns true if this array is an instance of
+   * {@link NpyUnsignedLongArray}.
+   */
+  default boolean isUnsignedLongArray() {
+    return false;
+  }
+
   default boolean isBooleanArray() {
     return false;
   }
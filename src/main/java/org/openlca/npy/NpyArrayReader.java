@@ -1,10 +1,10 @@
 package org.openlca.npy;
 
-import java.math.BigInteger;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.CharBuffer;
-import java.util.function.ToIntFunction;
-import java.util.function.ToLongFunction;
 
 import org.openlca.npy.dict.NpyHeaderDict;
 
@@ -31,27 +31,27 @@ abstract class NpyArrayReader {
       case bool:
         return new BooleanBuilder(dict);
       case f2:
-        return new FloatBuilder(dict, Util::f2ToFloat);
+        return new Float16Builder(dict);
       case f4:
-        return new FloatBuilder(dict, ByteBuffer::getFloat);
+        return new FloatBuilder(dict);
       case f8:
         return new DoubleBuilder(dict);
       case i1:
         return new ByteBuilder(dict);
       case i2:
-        return new ShortBuilder(dict, ByteBuffer::getShort);
+        return new ShortBuilder(dict);
       case i4:
-        return new IntBuilder(dict, ByteBuffer::getInt);
+        return new IntBuilder(dict);
       case i8:
-        return new LongBuilder(dict, ByteBuffer::getLong);
+        return new LongBuilder(dict);
       case u1:
-        return new ShortBuilder(dict, Util::u1ToShort);
+        return new U1Builder(dict);
       case u2:
-        return new IntBuilder(dict, Util::u2ToInt);
+        return new U2Builder(dict);
       case u4:
-        return new LongBuilder(dict, Util::u4ToLong);
+        return new U4Builder(dict);
       case u8:
-        return new BigIntBuilder(dict);
+        return new UnsignedLongBuilder(dict);
       case S:
         return new AsciiBuilder(dict);
       case U:
@@ -62,11 +62,36 @@ abstract class NpyArrayReader {
     }
   }
 
+  /**
+   * Returns a reader that decodes the elements of a boolean array into the
+   * bits of a {@link NpyBitArray}.
+   */
+  static NpyArrayReader bitsOf(NpyHeaderDict dict) {
+    if (dict.dataType() != NpyDataType.bool)
+      throw new IllegalArgumentException(
+        "not a boolean array: " + dict.dataType());
+    return new BitBuilder(dict);
+  }
+
+  /**
+   * Reads as many complete elements from the given buffer as are available
+   * but not more than the remaining number of elements of the array. Partial
+   * elements at the end of the buffer are not consumed, so the caller can
+   * compact the buffer and continue with the next chunk.
+   */
   final void readAllFrom(ByteBuffer buffer) {
-    while (pos != elementCount && buffer.remaining() >= elementSize) {
-      nextInto(buffer, pos);
-      pos++;
-    }
+    int n = Math.min(elementCount - pos, buffer.remaining() / elementSize);
+    if (n <= 0)
+      return;
+    nextInto(buffer, pos, n);
+    pos += n;
+  }
+
+  /**
+   * Returns {@code true} when all elements of the array have been read.
+   */
+  final boolean isComplete() {
+    return pos == elementCount;
   }
 
   final void readNextFrom(ByteBuffer buffer) {
@@ -76,6 +101,39 @@ abstract class NpyArrayReader {
 
   abstract void nextInto(ByteBuffer buffer, int pos);
 
+  /**
+   * Reads the next {@code n} elements from the buffer into the positions
+   * {@code [pos, pos + n)} of the array. The buffer must contain at least
+   * {@code n} elements. The default implementation reads the elements one by
+   * one; the builders of types that have the same width in Java and NPY
+   * override this with bulk transfers over typed buffer views. This method
+   * does not change the reading position of the reader, but it may use a
+   * scratch array of the reader; threads that read disjoint ranges of
+   * numeric types concurrently need to call
+   * {@link #nextInto(ByteBuffer, int, int, byte[])} with their own scratch
+   * arrays instead.
+   */
+  void nextInto(ByteBuffer buffer, int pos, int n) {
+    for (int i = 0; i < n; i++) {
+      nextInto(buffer, pos + i);
+    }
+  }
+
+  /**
+   * Same as {@link #nextInto(ByteBuffer, int, int)} but with the given
+   * scratch array of {@link #SCRATCH_SIZE} bytes, into which the bytes of
+   * buffers without a backing array are copied when needed.
+   */
+  void nextInto(ByteBuffer buffer, int pos, int n, byte[] scratch) {
+    nextInto(buffer, pos, n);
+  }
+
+  /**
+   * The size of the scratch arrays of
+   * {@link #nextInto(ByteBuffer, int, int, byte[])}.
+   */
+  static final int SCRATCH_SIZE = 8192;
+
   abstract NpyArray<?> finish();
 
   private static final class BooleanBuilder extends NpyArrayReader {
@@ -92,12 +150,71 @@ abstract class NpyArrayReader {
       data[pos] = buffer.get() != 0;
     }
 
+    @Override
+    void nextInto(ByteBuffer buffer, int pos, int n) {
+      int offset = buffer.position();
+      for (int i = 0; i < n; i++) {
+        data[pos + i] = buffer.get(offset + i) != 0;
+      }
+      buffer.position(offset + n);
+    }
+
     @Override
     NpyBooleanArray finish() {
       return new NpyBooleanArray(dict.shape(), data, dict.hasFortranOrder());
     }
   }
 
+  private static final class BitBuilder extends NpyArrayReader {
+
+    private final long[] data;
+
+    private BitBuilder(NpyHeaderDict dict) {
+      super(dict);
+      this.data = new long[NpyBitArray.wordsOf(elementCount)];
+    }
+
+    @Override
+    void nextInto(ByteBuffer buffer, int pos) {
+      if (buffer.get() != 0) {
+        data[pos >>> 6] |= 1L << pos;
+      }
+    }
+
+    /**
+     * Packs groups of 8 bytes, read as one {@code long} value, into 8 bits
+     * at once; only the elements before the first group boundary and after
+     * the last complete group are decoded one by one.
+     */
+    @Override
+    void nextInto(ByteBuffer buffer, int pos, int n) {
+      int end = pos + n;
+      int i = pos;
+      while (i < end && (i & 7) != 0) {
+        nextInto(buffer, i++);
+      }
+      var le = buffer.order() == ByteOrder.LITTLE_ENDIAN
+        ? buffer
+        : buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+      int offset = buffer.position();
+      while (i + 8 <= end) {
+        long bits = NpyBitArray.Bits.pack(le.getLong(offset));
+        data[i >>> 6] |= bits << (i & 63);
+        offset += 8;
+        i += 8;
+      }
+      buffer.position(offset);
+      while (i < end) {
+        nextInto(buffer, i++);
+      }
+    }
+
+    @Override
+    NpyBitArray finish() {
+      return new NpyBitArray(dict.shape(), data, dict.hasFortranOrder());
+    }
+  }
+
   private static final class ByteBuilder extends NpyArrayReader {
 
     private final byte[] data;
@@ -112,6 +229,11 @@ abstract class NpyArrayReader {
       data[pos] = buffer.get();
     }
 
+    @Override
+    void nextInto(ByteBuffer buffer, int pos, int n) {
+      buffer.get(data, pos, n);
+    }
+
     @Override
     NpyByteArray finish() {
       return new NpyByteArray(dict.shape(), data, dict.hasFortranOrder());
@@ -132,6 +254,12 @@ abstract class NpyArrayReader {
       data[pos] = buffer.getDouble();
     }
 
+    @Override
+    void nextInto(ByteBuffer buffer, int pos, int n) {
+      buffer.asDoubleBuffer().get(data, pos, n);
+      buffer.position(buffer.position() + n * 8);
+    }
+
     @Override
     NpyDoubleArray finish() {
       return new NpyDoubleArray(dict.shape(), data, dict.hasFortranOrder());
@@ -141,17 +269,55 @@ abstract class NpyArrayReader {
   private static final class FloatBuilder extends NpyArrayReader {
 
     private final float[] data;
-    private final ToFloatFunction<ByteBuffer> fn;
 
-    private FloatBuilder(NpyHeaderDict dict, ToFloatFunction<ByteBuffer> fn) {
+    private FloatBuilder(NpyHeaderDict dict) {
       super(dict);
       this.data = new float[elementCount];
-      this.fn = fn;
     }
 
     @Override
     void nextInto(ByteBuffer buffer, int pos) {
-      data[pos] = fn.applyAsFloat(buffer);
+      data[pos] = buffer.getFloat();
+    }
+
+    @Override
+    void nextInto(ByteBuffer buffer, int pos, int n) {
+      buffer.asFloatBuffer().get(data, pos, n);
+      buffer.position(buffer.position() + n * 4);
+    }
+
+    @Override
+    NpyFloatArray finish() {
+      return new NpyFloatArray(dict.shape(), data, dict.hasFortranOrder());
+    }
+  }
+
+  private static final class Float16Builder extends NpyArrayReader {
+
+    private final float[] data;
+
+    private Float16Builder(NpyHeaderDict dict) {
+      super(dict);
+      this.data = new float[elementCount];
+    }
+
+    @Override
+    void nextInto(ByteBuffer buffer, int pos) {
+      data[pos] = Util.f2ToFloat(buffer);
+    }
+
+    /**
+     * Reads the raw bits with absolute gets from a typed view and converts
+     * them via the lookup table; this is much faster than decoding the
+     * values one by one from the byte buffer and needs no scratch array.
+     */
+    @Override
+    void nextInto(ByteBuffer buffer, int pos, int n) {
+      var shorts = buffer.asShortBuffer();
+      for (int i = 0; i < n; i++) {
+        data[pos + i] = Util.f2ToFloat(shorts.get(i));
+      }
+      buffer.position(buffer.position() + n * 2);
     }
 
     @Override
@@ -163,17 +329,21 @@ abstract class NpyArrayReader {
   private static final class IntBuilder extends NpyArrayReader {
 
     private final int[] data;
-    private final ToIntFunction<ByteBuffer> fn;
 
-    private IntBuilder(NpyHeaderDict dict, ToIntFunction<ByteBuffer> fn) {
+    private IntBuilder(NpyHeaderDict dict) {
       super(dict);
       this.data = new int[elementCount];
-      this.fn = fn;
     }
 
     @Override
     void nextInto(ByteBuffer buffer, int pos) {
-      data[pos] = fn.applyAsInt(buffer);
+      data[pos] = buffer.getInt();
+    }
+
+    @Override
+    void nextInto(ByteBuffer buffer, int pos, int n) {
+      buffer.asIntBuffer().get(data, pos, n);
+      buffer.position(buffer.position() + n * 4);
     }
 
     @Override
@@ -185,17 +355,21 @@ abstract class NpyArrayReader {
   private static final class ShortBuilder extends NpyArrayReader {
 
     private final short[] data;
-    private final ToShortFunction<ByteBuffer> fn;
 
-    private ShortBuilder(NpyHeaderDict dict, ToShortFunction<ByteBuffer> fn) {
+    private ShortBuilder(NpyHeaderDict dict) {
       super(dict);
       this.data = new short[elementCount];
-      this.fn = fn;
     }
 
     @Override
     void nextInto(ByteBuffer buffer, int pos) {
-      data[pos] = fn.applyAsShort(buffer);
+      data[pos] = buffer.getShort();
+    }
+
+    @Override
+    void nextInto(ByteBuffer buffer, int pos, int n) {
+      buffer.asShortBuffer().get(data, pos, n);
+      buffer.position(buffer.position() + n * 2);
     }
 
     @Override
@@ -207,17 +381,178 @@ abstract class NpyArrayReader {
   private static final class LongBuilder extends NpyArrayReader {
 
     private final long[] data;
-    private final ToLongFunction<ByteBuffer> fn;
 
-    private LongBuilder(NpyHeaderDict dict, ToLongFunction<ByteBuffer> fn) {
+    private LongBuilder(NpyHeaderDict dict) {
+      super(dict);
+      this.data = new long[elementCount];
+    }
+
+    @Override
+    void nextInto(ByteBuffer buffer, int pos) {
+      data[pos] = buffer.getLong();
+    }
+
+    @Override
+    void nextInto(ByteBuffer buffer, int pos, int n) {
+      buffer.asLongBuffer().get(data, pos, n);
+      buffer.position(buffer.position() + n * 8);
+    }
+
+    @Override
+    NpyLongArray finish() {
+      return new NpyLongArray(dict.shape(), data, dict.hasFortranOrder());
+    }
+  }
+
+  /**
+   * Base class of the builders that widen unsigned integers into the next
+   * larger signed Java type. The bulk reads run over the raw bytes of the
+   * buffer: the backing array of heap buffers is used directly, other buffers
+   * like the direct buffers of the default options are copied in chunks into
+   * a scratch array. The elements are then decoded via byte array views with
+   * a fixed byte order in simple loops that the JIT compiler can unroll,
+   * instead of calling a conversion function per element.
+   */
+  private static abstract class WideningBuilder extends NpyArrayReader {
+
+    private byte[] scratch;
+
+    private WideningBuilder(NpyHeaderDict dict) {
+      super(dict);
+    }
+
+    @Override
+    final void nextInto(ByteBuffer buffer, int pos, int n) {
+      if (scratch == null && !buffer.hasArray()) {
+        scratch = new byte[SCRATCH_SIZE];
+      }
+      nextInto(buffer, pos, n, scratch);
+    }
+
+    @Override
+    final void nextInto(ByteBuffer buffer, int pos, int n, byte[] scratch) {
+      int size = dict.dataType().size();
+      boolean bigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+      if (buffer.hasArray()) {
+        int offset = buffer.arrayOffset() + buffer.position();
+        widen(buffer.array(), offset, pos, n, bigEndian);
+        buffer.position(buffer.position() + n * size);
+        return;
+      }
+      int perChunk = scratch.length / size;
+      int done = 0;
+      while (done < n) {
+        int k = Math.min(perChunk, n - done);
+        buffer.get(scratch, 0, k * size);
+        widen(scratch, 0, pos + done, k, bigEndian);
+        done += k;
+      }
+    }
+
+    /**
+     * Decodes {@code n} elements from the given bytes, starting at the
+     * given offset, into the positions {@code [pos, pos + n)} of the array.
+     */
+    abstract void widen(
+      byte[] bytes, int offset, int pos, int n, boolean bigEndian);
+  }
+
+  private static final class U1Builder extends WideningBuilder {
+
+    private final short[] data;
+
+    private U1Builder(NpyHeaderDict dict) {
+      super(dict);
+      this.data = new short[elementCount];
+    }
+
+    @Override
+    void nextInto(ByteBuffer buffer, int pos) {
+      data[pos] = Util.u1ToShort(buffer);
+    }
+
+    @Override
+    void widen(byte[] bytes, int offset, int pos, int n, boolean bigEndian) {
+      for (int i = 0; i < n; i++) {
+        data[pos + i] = (short) (bytes[offset + i] & 0xff);
+      }
+    }
+
+    @Override
+    NpyShortArray finish() {
+      return new NpyShortArray(dict.shape(), data, dict.hasFortranOrder());
+    }
+  }
+
+  private static final class U2Builder extends WideningBuilder {
+
+    private static final VarHandle LE = MethodHandles.byteArrayViewVarHandle(
+      short[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle BE = MethodHandles.byteArrayViewVarHandle(
+      short[].class, ByteOrder.BIG_ENDIAN);
+
+    private final int[] data;
+
+    private U2Builder(NpyHeaderDict dict) {
+      super(dict);
+      this.data = new int[elementCount];
+    }
+
+    @Override
+    void nextInto(ByteBuffer buffer, int pos) {
+      data[pos] = Util.u2ToInt(buffer);
+    }
+
+    @Override
+    void widen(byte[] bytes, int offset, int pos, int n, boolean bigEndian) {
+      // two loops so that the var handles are constants for the JIT
+      if (bigEndian) {
+        for (int i = 0; i < n; i++) {
+          data[pos + i] = (short) BE.get(bytes, offset + 2 * i) & 0xffff;
+        }
+      } else {
+        for (int i = 0; i < n; i++) {
+          data[pos + i] = (short) LE.get(bytes, offset + 2 * i) & 0xffff;
+        }
+      }
+    }
+
+    @Override
+    NpyIntArray finish() {
+      return new NpyIntArray(dict.shape(), data, dict.hasFortranOrder());
+    }
+  }
+
+  private static final class U4Builder extends WideningBuilder {
+
+    private static final VarHandle LE = MethodHandles.byteArrayViewVarHandle(
+      int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle BE = MethodHandles.byteArrayViewVarHandle(
+      int[].class, ByteOrder.BIG_ENDIAN);
+
+    private final long[] data;
+
+    private U4Builder(NpyHeaderDict dict) {
       super(dict);
       this.data = new long[elementCount];
-      this.fn = fn;
     }
 
     @Override
     void nextInto(ByteBuffer buffer, int pos) {
-      data[pos] = fn.applyAsLong(buffer);
+      data[pos] = Util.u4ToLong(buffer);
+    }
+
+    @Override
+    void widen(byte[] bytes, int offset, int pos, int n, boolean bigEndian) {
+      if (bigEndian) {
+        for (int i = 0; i < n; i++) {
+          data[pos + i] = (int) BE.get(bytes, offset + 4 * i) & 0xffffffffL;
+        }
+      } else {
+        for (int i = 0; i < n; i++) {
+          data[pos + i] = (int) LE.get(bytes, offset + 4 * i) & 0xffffffffL;
+        }
+      }
     }
 
     @Override
@@ -226,26 +561,34 @@ abstract class NpyArrayReader {
     }
   }
 
-  private static final class BigIntBuilder extends NpyArrayReader {
+  private static final class UnsignedLongBuilder extends NpyArrayReader {
 
-    private final BigInteger[] data;
+    private final long[] data;
 
-    private BigIntBuilder(NpyHeaderDict dict) {
+    private UnsignedLongBuilder(NpyHeaderDict dict) {
       super(dict);
-      this.data = new BigInteger[elementCount];
+      this.data = new long[elementCount];
     }
 
     @Override
     void nextInto(ByteBuffer buffer, int pos) {
-      data[pos] = Util.u8ToBigInteger(buffer);
+      data[pos] = buffer.getLong();
     }
 
     @Override
-    NpyBigIntArray finish() {
-      return new NpyBigIntArray(dict.shape(), data, dict.hasFortranOrder());
+    void nextInto(ByteBuffer buffer, int pos, int n) {
+      buffer.asLongBuffer().get(data, pos, n);
+      buffer.position(buffer.position() + n * 8);
+    }
+
+    @Override
+    NpyUnsignedLongArray finish() {
+      return new NpyUnsignedLongArray(
+        dict.shape(), data, dict.hasFortranOrder());
     }
   }
 
+
   private static final class AsciiBuilder extends NpyArrayReader {
 
     private final CharBuffer chars;
@@ -54,7 +54,11 @@ public final class NpyBigIntArray extends AbstractNpyArray<BigInteger[]> {
     if (value == null) {
       buffer.putLong(0);
     } else {
-      buffer.putLong(value.longValueExact());
+      if (value.signum() < 0 || value.bitLength() > 64)
+        throw new IllegalArgumentException("the value " + value
+          + " at position " + i + " is not in the range of u8 values");
+      // the lower 64 bits, which are the bits of the unsigned value
+      buffer.putLong(value.longValue());
     }
   }
 
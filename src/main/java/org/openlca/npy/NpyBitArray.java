@@ -0,0 +1,375 @@
+package org.openlca.npy;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A boolean array that stores its elements as bits in a {@code long[]} array,
+ * which takes 8 times less memory than a {@link NpyBooleanArray}. The element
+ * {@code i} is stored in bit {@code i % 64} of word {@code i / 64}, like in
+ * {@link java.util.BitSet}; the bits after the last element are always zero.
+ * <p>
+ * Bit arrays are written with the standard {@code ?} data type of NPY and can
+ * be read from such files with {@link Npy#readBits}. In order to also make the
+ * files smaller, they can be stored in the layout of NumPy's {@code packbits}
+ * function as arrays of {@code u1} values, see {@link Npy#writePackedBits} and
+ * {@link Npy#readPackedBits}.
+ */
+public final class NpyBitArray extends AbstractNpyArray<long[]> {
+
+  private final int size;
+
+  public NpyBitArray(int[] shape, long[] data, boolean fortranOrder) {
+    super(shape, data, fortranOrder);
+    long n = 1;
+    for (int dim : shape) {
+      n *= dim;
+    }
+    if (n > Integer.MAX_VALUE)
+      throw new IllegalArgumentException(
+        "the shape " + Arrays.toString(shape) + " is too large");
+    this.size = (int) n;
+    if (data.length < wordsOf(size))
+      throw new IllegalArgumentException("the data need at least "
+        + wordsOf(size) + " words for " + size + " elements");
+  }
+
+  /**
+   * Creates an array of the given shape with all elements set to
+   * {@code false}.
+   */
+  public static NpyBitArray of(int[] shape, boolean fortranOrder) {
+    long n = 1;
+    for (int dim : shape) {
+      n *= dim;
+    }
+    int words = n > Integer.MAX_VALUE ? 0 : wordsOf((int) n);
+    return new NpyBitArray(shape, new long[words], fortranOrder);
+  }
+
+  public static NpyBitArray vectorOf(boolean[] values) {
+    var data = new long[wordsOf(values.length)];
+    for (int i = 0; i < values.length; i++) {
+      if (values[i]) {
+        data[i >>> 6] |= 1L << i;
+      }
+    }
+    return new NpyBitArray(new int[]{values.length}, data, false);
+  }
+
+  /**
+   * Converts the given array into a bit array with the same shape and
+   * storage order. Elements that are not {@code 0} are set to {@code true}.
+   */
+  public static NpyBitArray of(NpyArray<?> array) {
+    if (array instanceof NpyBitArray)
+      return (NpyBitArray) array;
+    var values = array.asBooleanArray().data();
+    var data = vectorOf(values).data;
+    return new NpyBitArray(
+      array.shape().clone(), data, array.hasColumnOrder());
+  }
+
+  /**
+   * Returns the number of words that are needed to store the given number of
+   * bits.
+   */
+  static int wordsOf(int size) {
+    return (int) ((size + 63L) >>> 6);
+  }
+
+  public boolean get(int i) {
+    return (data[i >>> 6] & (1L << i)) != 0;
+  }
+
+  public void set(int i, boolean value) {
+    if (value) {
+      data[i >>> 6] |= 1L << i;
+    } else {
+      data[i >>> 6] &= ~(1L << i);
+    }
+  }
+
+  /**
+   * Returns the number of elements that are {@code true}.
+   */
+  public long cardinality() {
+    long count = 0;
+    for (long word : data) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  /**
+   * Returns the position of the first element that is {@code true} at or
+   * after the given position, or {@code -1} if there is no such element.
+   */
+  public int nextSetBit(int from) {
+    if (from >= size)
+      return -1;
+    int w = from >>> 6;
+    long word = data[w] & (-1L << from);
+    while (true) {
+      if (word != 0)
+        return (w << 6) + Long.numberOfTrailingZeros(word);
+      w++;
+      if (w >= data.length)
+        return -1;
+      word = data[w];
+    }
+  }
+
+  /**
+   * Calls the given function with the position of each element that is
+   * {@code true}, in ascending order.
+   */
+  public void forEachSetBit(IntConsumer fn) {
+    for (int w = 0; w < data.length; w++) {
+      long word = data[w];
+      while (word != 0) {
+        fn.accept((w << 6) + Long.numberOfTrailingZeros(word));
+        word &= word - 1;
+      }
+    }
+  }
+
+  /**
+   * Returns a new array with the element-wise {@code and} of this array and
+   * the given array, which needs to have the same shape and storage order.
+   */
+  public NpyBitArray and(NpyBitArray other) {
+    checkCompatible(other);
+    var result = new long[wordsOf(size)];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = data[i] & other.data[i];
+    }
+    return new NpyBitArray(copyShape(), result, fortranOrder);
+  }
+
+  /**
+   * Returns a new array with the element-wise {@code or} of this array and
+   * the given array, which needs to have the same shape and storage order.
+   */
+  public NpyBitArray or(NpyBitArray other) {
+    checkCompatible(other);
+    var result = new long[wordsOf(size)];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = data[i] | other.data[i];
+    }
+    return new NpyBitArray(copyShape(), result, fortranOrder);
+  }
+
+  /**
+   * Returns a new array with the element-wise {@code xor} of this array and
+   * the given array, which needs to have the same shape and storage order.
+   */
+  public NpyBitArray xor(NpyBitArray other) {
+    checkCompatible(other);
+    var result = new long[wordsOf(size)];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = data[i] ^ other.data[i];
+    }
+    return new NpyBitArray(copyShape(), result, fortranOrder);
+  }
+
+  private void checkCompatible(NpyBitArray other) {
+    if (!Arrays.equals(shape, other.shape)
+      || fortranOrder != other.fortranOrder)
+      throw new IllegalArgumentException(
+        "the arrays need to have the same shape and storage order");
+  }
+
+  @Override
+  public NpyDataType dataType() {
+    return NpyDataType.bool;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public void writeElementTo(int i, ByteBuffer buffer) {
+    buffer.put(get(i) ? (byte) 1 : (byte) 0);
+  }
+
+  /**
+   * Writes the elements as bytes; each group of 8 elements is expanded into
+   * 8 bytes with a single table lookup.
+   */
+  @Override
+  public int writeRangeTo(int from, int to, ByteBuffer buffer) {
+    int n = Math.min(to - from, buffer.remaining());
+    int end = from + n;
+    int i = from;
+    while (i < end && (i & 7) != 0) {
+      writeElementTo(i++, buffer);
+    }
+    boolean swap = buffer.order() != ByteOrder.LITTLE_ENDIAN;
+    while (i + 8 <= end) {
+      int bits = (int) (data[i >>> 6] >>> (i & 63)) & 0xff;
+      long bytes = Bits.EXPAND[bits];
+      buffer.putLong(swap ? Long.reverseBytes(bytes) : bytes);
+      i += 8;
+    }
+    while (i < end) {
+      writeElementTo(i++, buffer);
+    }
+    return n;
+  }
+
+  /**
+   * Returns the bits of this array in the layout of NumPy's {@code packbits}
+   * function with the default bit order {@code big}: element {@code i} is
+   * stored in bit {@code 7 - i % 8} of byte {@code i / 8}.
+   */
+  public byte[] toPackedBits() {
+    var bytes = new byte[(int) ((size + 7L) >>> 3)];
+    var buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    for (long word : data) {
+      if (buffer.remaining() < 8)
+        break;
+      buffer.putLong(toPacked(word));
+    }
+    int done = buffer.position() << 3;
+    for (int i = done; i < size; i++) {
+      if (get(i)) {
+        bytes[i >>> 3] |= (byte) (0x80 >>> (i & 7));
+      }
+    }
+    return bytes;
+  }
+
+  /**
+   * Creates a bit array from bytes in the layout of NumPy's {@code packbits}
+   * function with the bit order {@code big}, see {@link #toPackedBits()}.
+   * The array has the given shape; additional bits are ignored.
+   */
+  public static NpyBitArray ofPackedBits(
+    byte[] bytes, int[] shape, boolean fortranOrder) {
+    var array = of(shape, fortranOrder);
+    if (bytes.length < ((array.size + 7L) >>> 3))
+      throw new IllegalArgumentException("the packed data have only "
+        + bytes.length + " bytes for " + array.size + " elements");
+    var buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    var data = array.data;
+    int full = array.size >>> 6;
+    for (int w = 0; w < full; w++) {
+      data[w] = fromPacked(buffer.getLong());
+    }
+    for (int i = full << 6; i < array.size; i++) {
+      if ((bytes[i >>> 3] & (0x80 >>> (i & 7))) != 0) {
+        data[i >>> 6] |= 1L << i;
+      }
+    }
+    return array;
+  }
+
+  /**
+   * Converts a word of this array into 8 bytes in {@code packbits} layout,
+   * read as little-endian {@code long} value: the bytes keep their order but
+   * the bits in each byte are reversed.
+   */
+  static long toPacked(long word) {
+    return Long.reverseBytes(Long.reverse(word));
+  }
+
+  /**
+   * The inverse of {@link #toPacked(long)}.
+   */
+  static long fromPacked(long packed) {
+    return Long.reverse(Long.reverseBytes(packed));
+  }
+
+  @Override
+  public NpyBooleanArray asBooleanArray() {
+    var booleans = new boolean[size];
+    forEachSetBit(i -> booleans[i] = true);
+    return new NpyBooleanArray(copyShape(), booleans, fortranOrder);
+  }
+
+  @Override
+  public NpyByteArray asByteArray() {
+    var bytes = new byte[size];
+    forEachSetBit(i -> bytes[i] = 1);
+    return new NpyByteArray(copyShape(), bytes, fortranOrder);
+  }
+
+  @Override
+  public NpyDoubleArray asDoubleArray() {
+    var doubles = new double[size];
+    forEachSetBit(i -> doubles[i] = 1);
+    return new NpyDoubleArray(copyShape(), doubles, fortranOrder);
+  }
+
+  @Override
+  public NpyFloatArray asFloatArray() {
+    var floats = new float[size];
+    forEachSetBit(i -> floats[i] = 1);
+    return new NpyFloatArray(copyShape(), floats, fortranOrder);
+  }
+
+  @Override
+  public NpyIntArray asIntArray() {
+    var ints = new int[size];
+    forEachSetBit(i -> ints[i] = 1);
+    return new NpyIntArray(copyShape(), ints, fortranOrder);
+  }
+
+  @Override
+  public NpyLongArray asLongArray() {
+    var longs = new long[size];
+    forEachSetBit(i -> longs[i] = 1);
+    return new NpyLongArray(copyShape(), longs, fortranOrder);
+  }
+
+  @Override
+  public NpyShortArray asShortArray() {
+    var shorts = new short[size];
+    forEachSetBit(i -> shorts[i] = 1);
+    return new NpyShortArray(copyShape(), shorts, fortranOrder);
+  }
+
+  /**
+   * Conversions between 8 bits and 8 bytes with the values {@code 0} and
+   * {@code 1}, in little-endian order.
+   */
+  static final class Bits {
+
+    private Bits() {
+    }
+
+    /**
+     * Byte {@code k} of the entry {@code b} is bit {@code k} of {@code b}.
+     */
+    static final long[] EXPAND = new long[256];
+
+    static {
+      for (int b = 0; b < 256; b++) {
+        long bytes = 0;
+        for (int k = 0; k < 8; k++) {
+          if ((b & (1 << k)) != 0) {
+            bytes |= 1L << (k << 3);
+          }
+        }
+        EXPAND[b] = bytes;
+      }
+    }
+
+    /**
+     * Packs 8 bytes, read as little-endian {@code long} value, into 8 bits:
+     * bit {@code k} of the result is set if byte {@code k} is not zero.
+     */
+    static int pack(long bytes) {
+      // set the highest bit of each byte that is not zero, move it to the
+      // lowest bit, and gather the lowest bits in the highest byte
+      long high = (((bytes & 0x7f7f7f7f7f7f7f7fL) + 0x7f7f7f7f7f7f7f7fL)
+        | bytes) & 0x8080808080808080L;
+      return (int) (((high >>> 7) * 0x0102040810204080L) >>> 56);
+    }
+  }
+}
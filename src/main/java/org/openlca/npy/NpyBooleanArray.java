@@ -54,6 +54,15 @@ public final class NpyBooleanArray extends AbstractNpyArray<boolean[]> {
     buffer.put(b);
   }
 
+  @Override
+  public int writeRangeTo(int from, int to, ByteBuffer buffer) {
+    int n = Math.min(to - from, buffer.remaining());
+    for (int i = from; i < from + n; i++) {
+      buffer.put(data[i] ? (byte) 1 : (byte) 0);
+    }
+    return n;
+  }
+
   @Override
   public boolean isBooleanArray() {
     return true;
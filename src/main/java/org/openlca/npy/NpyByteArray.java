@@ -52,6 +52,13 @@ public final class NpyByteArray extends AbstractNpyArray<byte[]> {
     buffer.put(data[i]);
   }
 
+  @Override
+  public int writeRangeTo(int from, int to, ByteBuffer buffer) {
+    int n = Math.min(to - from, buffer.remaining());
+    buffer.put(data, from, n);
+    return n;
+  }
+
   @Override
   public boolean isByteArray() {
     return true;
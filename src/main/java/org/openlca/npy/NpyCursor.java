@@ -0,0 +1,294 @@
+package org.openlca.npy;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A reusable cursor for repeated random access to rows, columns, and ranges
+ * of an array in an NPY file. Other than {@link Array2d#readRow} etc., a
+ * cursor reads the elements into an array that is provided by the caller,
+ * and it reuses its internal buffer, so that it does not allocate memory
+ * after it has been warmed up:
+ *
+ * <pre>{@code
+ * var cursor = NpyCursor.of(raf, header);
+ * var row = new double[cursor.columns()];
+ * for (int i : rows) {
+ *   cursor.readRow(i, row);
+ *   // ...
+ * }
+ * }</pre>
+ * <p>
+ * The elements are converted into the type of the destination array like
+ * with a Java cast; values of type {@code u8} are converted to {@code long}
+ * values with the same 64 bits. A cursor only uses positional reads and does
+ * not change the position of the file, but it is not thread-safe: each
+ * thread should use its own cursor.
+ */
+public final class NpyCursor {
+
+  private final FileChannel channel;
+  private final NpyHeader header;
+  private final NpyDataType type;
+  private final int elemSize;
+  private final long size;
+  private final int rows;
+  private final int columns;
+  private final boolean fortran;
+
+  /**
+   * The reader of the strided runs of the matrix, which are the columns of a
+   * matrix in row-major order and the rows of a matrix in column-major
+   * order.
+   */
+  private final StridedReader strided;
+  private ByteBuffer buffer;
+
+  private NpyCursor(FileChannel channel, NpyHeader header) {
+    this.channel = channel;
+    this.header = header;
+    var dict = header.dict();
+    this.type = dict.dataType();
+    this.elemSize = type.size();
+    if (elemSize == 0)
+      throw new IllegalArgumentException(
+        "cursors over strings are not supported");
+    this.size = dict.longNumberOfElements();
+    if (dict.dimensions() == 2) {
+      this.rows = dict.sizeOfDimension(0);
+      this.columns = dict.sizeOfDimension(1);
+    } else {
+      this.rows = -1;
+      this.columns = -1;
+    }
+    this.fortran = dict.hasFortranOrder();
+    long stride = (long) (fortran ? rows : columns) * elemSize;
+    this.strided = new StridedReader(channel, elemSize, stride);
+    int initial = Math.max(1, Math.max(rows, columns)) * elemSize;
+    this.buffer = ByteBuffer.allocateDirect(initial)
+      .order(header.byteOrder());
+  }
+
+  /**
+   * Creates a new cursor on the given file. The cursor does not own the
+   * file; the file needs to be open while the cursor is used.
+   *
+   * @param file   the opened NPY file
+   * @param header the header of the file
+   * @return the cursor
+   */
+  public static NpyCursor of(RandomAccessFile file, NpyHeader header) {
+    return new NpyCursor(file.getChannel(), header);
+  }
+
+  public NpyHeader header() {
+    return header;
+  }
+
+  /**
+   * Returns the number of rows when the array is a matrix, otherwise
+   * {@code -1}.
+   */
+  public int rows() {
+    return rows;
+  }
+
+  /**
+   * Returns the number of columns when the array is a matrix, otherwise
+   * {@code -1}.
+   */
+  public int columns() {
+    return columns;
+  }
+
+  public void readRow(int row, double[] dest) {
+    fillRow(row, dest.length);
+    for (int i = 0; i < columns; i++) {
+      dest[i] = nextDouble();
+    }
+  }
+
+  public void readRow(int row, float[] dest) {
+    fillRow(row, dest.length);
+    for (int i = 0; i < columns; i++) {
+      dest[i] = (float) nextDouble();
+    }
+  }
+
+  public void readRow(int row, long[] dest) {
+    fillRow(row, dest.length);
+    for (int i = 0; i < columns; i++) {
+      dest[i] = nextLong();
+    }
+  }
+
+  public void readRow(int row, int[] dest) {
+    fillRow(row, dest.length);
+    for (int i = 0; i < columns; i++) {
+      dest[i] = (int) nextLong();
+    }
+  }
+
+  public void readColumn(int column, double[] dest) {
+    fillColumn(column, dest.length);
+    for (int i = 0; i < rows; i++) {
+      dest[i] = nextDouble();
+    }
+  }
+
+  public void readColumn(int column, float[] dest) {
+    fillColumn(column, dest.length);
+    for (int i = 0; i < rows; i++) {
+      dest[i] = (float) nextDouble();
+    }
+  }
+
+  public void readColumn(int column, long[] dest) {
+    fillColumn(column, dest.length);
+    for (int i = 0; i < rows; i++) {
+      dest[i] = nextLong();
+    }
+  }
+
+  public void readColumn(int column, int[] dest) {
+    fillColumn(column, dest.length);
+    for (int i = 0; i < rows; i++) {
+      dest[i] = (int) nextLong();
+    }
+  }
+
+  /**
+   * Reads {@code n} elements, starting at the 0-based element position
+   * {@code offset} in storage order, into the beginning of the given array.
+   */
+  public void readRange(long offset, int n, double[] dest) {
+    fillRange(offset, n, dest.length);
+    for (int i = 0; i < n; i++) {
+      dest[i] = nextDouble();
+    }
+  }
+
+  public void readRange(long offset, int n, float[] dest) {
+    fillRange(offset, n, dest.length);
+    for (int i = 0; i < n; i++) {
+      dest[i] = (float) nextDouble();
+    }
+  }
+
+  public void readRange(long offset, int n, long[] dest) {
+    fillRange(offset, n, dest.length);
+    for (int i = 0; i < n; i++) {
+      dest[i] = nextLong();
+    }
+  }
+
+  public void readRange(long offset, int n, int[] dest) {
+    fillRange(offset, n, dest.length);
+    for (int i = 0; i < n; i++) {
+      dest[i] = (int) nextLong();
+    }
+  }
+
+  private void fillRow(int row, int destLength) {
+    checkMatrix();
+    if (row < 0 || row >= rows)
+      throw new IndexOutOfBoundsException(
+        "row " + row + " is out of bounds for a matrix with " + rows + " rows");
+    checkDest(columns, destLength);
+    if (fortran) {
+      fillStrided(row, columns);
+    } else {
+      fill((long) row * columns, columns);
+    }
+  }
+
+  private void fillColumn(int column, int destLength) {
+    checkMatrix();
+    if (column < 0 || column >= columns)
+      throw new IndexOutOfBoundsException("column " + column
+        + " is out of bounds for a matrix with " + columns + " columns");
+    checkDest(rows, destLength);
+    if (fortran) {
+      fill((long) column * rows, rows);
+    } else {
+      fillStrided(column, rows);
+    }
+  }
+
+  private void fillRange(long offset, int n, int destLength) {
+    if (offset < 0 || n < 0 || offset + n > size)
+      throw new IndexOutOfBoundsException("a range of " + n
+        + " elements at " + offset + " is out of bounds for an array of "
+        + size + " elements");
+    checkDest(n, destLength);
+    fill(offset, n);
+  }
+
+  private void checkMatrix() {
+    if (rows < 0)
+      throw new IllegalStateException("the array is not a matrix");
+  }
+
+  private static void checkDest(int n, int destLength) {
+    if (destLength < n)
+      throw new IllegalArgumentException("the destination array has a length"
+        + " of " + destLength + " but " + n + " elements are read");
+  }
+
+  /**
+   * Prepares the buffer for reading {@code n} elements; the buffer is grown
+   * if it is too small.
+   */
+  private void prepare(int n) {
+    int bytes = Math.multiplyExact(n, elemSize);
+    if (buffer.capacity() < bytes) {
+      buffer = ByteBuffer.allocateDirect(bytes).order(header.byteOrder());
+    }
+    buffer.clear().limit(bytes);
+  }
+
+  /**
+   * Reads {@code n} contiguous elements, starting at the given element
+   * position, into the buffer and flips it.
+   */
+  private void fill(long offset, int n) {
+    prepare(n);
+    long pos = header.dataOffset() + offset * elemSize;
+    try {
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer, pos + buffer.position()) < 0)
+          throw new NpyFormatException(
+            "unexpected end of file at position " + (pos + buffer.position()));
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("failed to read from NPY file", e);
+    }
+    buffer.flip();
+  }
+
+  /**
+   * Reads the strided run with the given index, which is a column of a
+   * matrix in row-major order or a row of a matrix in column-major order,
+   * into the buffer and flips it.
+   */
+  private void fillStrided(int index, int n) {
+    prepare(n);
+    long start = header.dataOffset() + (long) index * elemSize;
+    try {
+      strided.read(start, n, buffer);
+    } catch (IOException e) {
+      throw new RuntimeException("failed to read from NPY file", e);
+    }
+    buffer.flip();
+  }
+
+  private double nextDouble() {
+    return Util.getDouble(buffer, type);
+  }
+
+  private long nextLong() {
+    return Util.getLong(buffer, type);
+  }
+}
@@ -52,6 +52,14 @@ public final class NpyDoubleArray extends AbstractNpyArray<double[]> {
     buffer.putDouble(data[i]);
   }
 
+  @Override
+  public int writeRangeTo(int from, int to, ByteBuffer buffer) {
+    int n = Math.min(to - from, buffer.remaining() / Double.BYTES);
+    buffer.asDoubleBuffer().put(data, from, n);
+    buffer.position(buffer.position() + n * Double.BYTES);
+    return n;
+  }
+
   @Override
   public boolean isDoubleArray() {
     return true;
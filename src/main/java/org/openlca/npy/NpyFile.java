@@ -0,0 +1,213 @@
+package org.openlca.npy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.util.function.Function;
+
+/**
+ * A handle of an NPY file that can be shared between threads. The file is
+ * opened once and its header is parsed once; all reads of the handle are
+ * positional reads on the file channel that do not change the position of
+ * the channel, so that many threads can read rows, columns, ranges, etc.
+ * concurrently from the same handle:
+ *
+ * <pre>{@code
+ * try (var npy = NpyFile.open(file)) {
+ *   // e.g. called from the worker threads of a server
+ *   var row = npy.readRow(42);
+ * }
+ * }</pre>
+ * <p>
+ * A file channel is closed when a thread is interrupted while it reads from
+ * the channel. The handle then reopens the file: the interrupted thread gets
+ * the exception of its read, but the handle can still be used by all other
+ * threads, and reads that failed because of the closed channel are
+ * repeated.
+ */
+public final class NpyFile implements AutoCloseable {
+
+  private final File file;
+  private final NpyHeader header;
+  private volatile RandomAccessFile raf;
+  private volatile boolean closed;
+
+  private NpyFile(File file, RandomAccessFile raf, NpyHeader header) {
+    this.file = file;
+    this.raf = raf;
+    this.header = header;
+  }
+
+  /**
+   * Opens the given NPY file for reading and parses its header.
+   *
+   * @param file the NPY file
+   * @return the opened handle which needs to be closed when it is not used
+   * anymore
+   */
+  public static NpyFile open(File file) {
+    RandomAccessFile raf = null;
+    try {
+      raf = new RandomAccessFile(file, "r");
+      var header = NpyHeader.read(raf.getChannel());
+      return new NpyFile(file, raf, header);
+    } catch (IOException | RuntimeException e) {
+      if (raf != null) {
+        try {
+          raf.close();
+        } catch (IOException ignored) {
+        }
+      }
+      if (e instanceof RuntimeException)
+        throw (RuntimeException) e;
+      throw new RuntimeException("failed to open NPY file: " + file, e);
+    }
+  }
+
+  public File file() {
+    return file;
+  }
+
+  public NpyHeader header() {
+    return header;
+  }
+
+  /**
+   * Same as {@link Npy#readRange(File, int, int)}.
+   */
+  public NpyArray<?> readRange(int n, int offset) {
+    return read(f -> Npy.readRange(f, header, n, offset));
+  }
+
+  /**
+   * Same as {@link Npy#readElements(File, int, int, int)}.
+   */
+  public NpyArray<?> readElements(int n, int offset, int inc) {
+    return read(f -> Npy.readElements(f, header, n, offset, inc));
+  }
+
+  /**
+   * Same as {@link Npy#slice(File, Slice)}.
+   */
+  public NpyArray<?> slice(Slice slice) {
+    return read(f -> Npy.slice(f, header, slice));
+  }
+
+  /**
+   * Same as {@link Array2d#readRow(File, int)}.
+   */
+  public NpyArray<?> readRow(int row) {
+    return read(f -> Array2d.readRow(f, header, row));
+  }
+
+  /**
+   * Same as {@link Array2d#readColumn(File, int)}.
+   */
+  public NpyArray<?> readColumn(int column) {
+    return read(f -> Array2d.readColumn(f, header, column));
+  }
+
+  /**
+   * Same as {@link Array2d#readRows(File, int[])}.
+   */
+  public NpyArray<?> readRows(int[] rows) {
+    return read(f -> Array2d.readRows(f, header, rows));
+  }
+
+  /**
+   * Same as {@link Array2d#readColumns(File, int[])}.
+   */
+  public NpyArray<?> readColumns(int[] columns) {
+    return read(f -> Array2d.readColumns(f, header, columns));
+  }
+
+  /**
+   * Same as {@link Array2d#readBlock(File, int, int, int, int)}.
+   */
+  public NpyArray<?> readBlock(
+    int rowStart, int rowCount, int colStart, int colCount) {
+    return read(f -> Array2d.readBlock(
+      f, header, rowStart, rowCount, colStart, colCount));
+  }
+
+  /**
+   * Same as {@link Array2d#readDiag(File, int)}.
+   */
+  public NpyArray<?> readDiag(int k) {
+    return read(f -> Array2d.readDiag(f, header, k));
+  }
+
+  /**
+   * Same as {@link Array2d#readBand(File, int)}.
+   */
+  public NpyArray<?>[] readBand(int k) {
+    return read(f -> Array2d.readBand(f, header, k));
+  }
+
+  /**
+   * Runs the given read with the current file. When the read fails because
+   * the channel was closed by an interrupt, the file is reopened. The read
+   * is then repeated, except in the interrupted thread itself.
+   */
+  private <T> T read(Function<RandomAccessFile, T> fn) {
+    while (true) {
+      var current = raf;
+      if (closed)
+        throw new IllegalStateException("NPY file is closed: " + file);
+      try {
+        return fn.apply(current);
+      } catch (RuntimeException e) {
+        if (closed || !isClosedChannel(e))
+          throw e;
+        reopen(current);
+        if (isInterruptClose(e) || Thread.currentThread().isInterrupted())
+          throw e;
+      }
+    }
+  }
+
+  private static boolean isClosedChannel(Throwable e) {
+    for (var t = e; t != null; t = t.getCause()) {
+      if (t instanceof ClosedChannelException)
+        return true;
+    }
+    return false;
+  }
+
+  private static boolean isInterruptClose(Throwable e) {
+    for (var t = e; t != null; t = t.getCause()) {
+      if (t instanceof ClosedByInterruptException)
+        return true;
+    }
+    return false;
+  }
+
+  /**
+   * Replaces the given file, that was closed by an interrupt, with a newly
+   * opened file; does nothing when another thread already did this.
+   */
+  private synchronized void reopen(RandomAccessFile failed) {
+    if (closed || raf != failed)
+      return;
+    try {
+      failed.close();
+      raf = new RandomAccessFile(file, "r");
+    } catch (IOException e) {
+      throw new RuntimeException("failed to reopen NPY file: " + file, e);
+    }
+  }
+
+  @Override
+  public synchronized void close() {
+    if (closed)
+      return;
+    closed = true;
+    try {
+      raf.close();
+    } catch (IOException e) {
+      throw new RuntimeException("failed to close NPY file: " + file, e);
+    }
+  }
+}
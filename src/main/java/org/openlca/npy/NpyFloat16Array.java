@@ -0,0 +1,172 @@
+package org.openlca.npy;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An array of half-precision floating point numbers ({@code f2}). The values
+ * are stored as their raw 16 bits in a {@code short[]} array. Such arrays are
+ * typically created from {@code float} or {@code double} values to write them
+ * in half of the space of {@code f4} values, e.g.:
+ *
+ * <pre>{@code
+ * Npy.write(file, NpyFloat16Array.of(floatArray));
+ * }</pre>
+ * <p>
+ * The values are encoded like in NumPy: they are rounded to the nearest
+ * half-precision number with ties to even, values that are too large become
+ * infinite, small values become subnormal numbers or zero, and NaNs stay
+ * NaNs. Note that arrays of type {@code f2} are read as {@link NpyFloatArray}
+ * instances by {@link Npy#read}.
+ */
+public final class NpyFloat16Array extends AbstractNpyArray<short[]> {
+
+  public NpyFloat16Array(int[] shape, short[] data, boolean fortranOrder) {
+    super(shape, data, fortranOrder);
+  }
+
+  public static NpyFloat16Array vectorOf(float[] values) {
+    return new NpyFloat16Array(
+      new int[]{values.length}, encode(values), false);
+  }
+
+  public static NpyFloat16Array vectorOf(double[] values) {
+    return new NpyFloat16Array(
+      new int[]{values.length}, encode(values), false);
+  }
+
+  /**
+   * Converts the given array into an array of half-precision numbers with the
+   * same shape and storage order. {@code float} and {@code double} values are
+   * rounded directly into half-precision numbers; other numeric arrays are
+   * converted via their {@code double} values.
+   */
+  public static NpyFloat16Array of(NpyArray<?> array) {
+    if (array instanceof NpyFloat16Array)
+      return (NpyFloat16Array) array;
+    if (array.dataType().size() == 0)
+      throw new IllegalArgumentException(
+        "cannot convert strings to f2 values: " + array.dataType());
+    short[] data = array.dataType() == NpyDataType.f4
+      ? encode(array.asFloatArray().data())
+      : encode(array.asDoubleArray().data());
+    return new NpyFloat16Array(
+      array.shape().clone(), data, array.hasColumnOrder());
+  }
+
+  /**
+   * Encodes the given {@code float} values into the bits of half-precision
+   * numbers.
+   */
+  public static short[] encode(float[] values) {
+    var bits = new short[values.length];
+    for (int i = 0; i < values.length; i++) {
+      bits[i] = Util.floatToF2(values[i]);
+    }
+    return bits;
+  }
+
+  /**
+   * Encodes the given {@code double} values into the bits of half-precision
+   * numbers. Each value is rounded once, directly from double precision.
+   */
+  public static short[] encode(double[] values) {
+    var bits = new short[values.length];
+    for (int i = 0; i < values.length; i++) {
+      bits[i] = Util.doubleToF2(values[i]);
+    }
+    return bits;
+  }
+
+  /**
+   * Returns the {@code float} value of the element at position {@code i}.
+   */
+  public float get(int i) {
+    return Util.f2ToFloat(data[i]);
+  }
+
+  @Override
+  public NpyDataType dataType() {
+    return NpyDataType.f2;
+  }
+
+  @Override
+  public int size() {
+    return data.length;
+  }
+
+  @Override
+  public void writeElementTo(int i, ByteBuffer buffer) {
+    buffer.putShort(data[i]);
+  }
+
+  @Override
+  public int writeRangeTo(int from, int to, ByteBuffer buffer) {
+    int n = Math.min(to - from, buffer.remaining() / Short.BYTES);
+    buffer.asShortBuffer().put(data, from, n);
+    buffer.position(buffer.position() + n * Short.BYTES);
+    return n;
+  }
+
+  @Override
+  public NpyBooleanArray asBooleanArray() {
+    var booleans = new boolean[data.length];
+    for (int i = 0; i < data.length; i++) {
+      booleans[i] = get(i) != 0;
+    }
+    return new NpyBooleanArray(copyShape(), booleans, fortranOrder);
+  }
+
+  @Override
+  public NpyByteArray asByteArray() {
+    var bytes = new byte[data.length];
+    for (int i = 0; i < data.length; i++) {
+      bytes[i] = (byte) get(i);
+    }
+    return new NpyByteArray(copyShape(), bytes, fortranOrder);
+  }
+
+  @Override
+  public NpyDoubleArray asDoubleArray() {
+    var doubles = new double[data.length];
+    for (int i = 0; i < data.length; i++) {
+      doubles[i] = get(i);
+    }
+    return new NpyDoubleArray(copyShape(), doubles, fortranOrder);
+  }
+
+  @Override
+  public NpyFloatArray asFloatArray() {
+    var floats = new float[data.length];
+    for (int i = 0; i < data.length; i++) {
+      floats[i] = get(i);
+    }
+    return new NpyFloatArray(copyShape(), floats, fortranOrder);
+  }
+
+  @Override
+  public NpyIntArray asIntArray() {
+    var ints = new int[data.length];
+    for (int i = 0; i < data.length; i++) {
+      ints[i] = (int) get(i);
+    }
+    return new NpyIntArray(copyShape(), ints, fortranOrder);
+  }
+
+  @Override
+  public NpyLongArray asLongArray() {
+    var longs = new long[data.length];
+    for (int i = 0; i < data.length; i++) {
+      longs[i] = (long) get(i);
+    }
+    return new NpyLongArray(copyShape(), longs, fortranOrder);
+  }
+
+  @Override
+  public NpyShortArray asShortArray() {
+    var shorts = new short[data.length];
+    for (int i = 0; i < data.length; i++) {
+      shorts[i] = (short) get(i);
+    }
+    return new NpyShortArray(copyShape(), shorts, fortranOrder);
+  }
+}
@@ -52,6 +52,14 @@ public final class NpyFloatArray extends AbstractNpyArray<float[]> {
     buffer.putFloat(data[i]);
   }
 
+  @Override
+  public int writeRangeTo(int from, int to, ByteBuffer buffer) {
+    int n = Math.min(to - from, buffer.remaining() / Float.BYTES);
+    buffer.asFloatBuffer().put(data, from, n);
+    buffer.position(buffer.position() + n * Float.BYTES);
+    return n;
+  }
+
   @Override
   public boolean isFloatArray() {
     return true;
@@ -22,6 +22,10 @@ public final class NpyHeader {
     this.dict = Objects.requireNonNull(dict);
   }
 
+  static NpyHeader of(NpyHeaderDict dict, long dataOffset) {
+    return new NpyHeader(dataOffset, dict);
+  }
+
   @Override
   public String toString() {
     return dict.toString();
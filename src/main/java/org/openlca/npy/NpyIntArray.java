@@ -53,6 +53,14 @@ public final class NpyIntArray extends AbstractNpyArray<int[]> {
     buffer.putInt(data[i]);
   }
 
+  @Override
+  public int writeRangeTo(int from, int to, ByteBuffer buffer) {
+    int n = Math.min(to - from, buffer.remaining() / Integer.BYTES);
+    buffer.asIntBuffer().put(data, from, n);
+    buffer.position(buffer.position() + n * Integer.BYTES);
+    return n;
+  }
+
   @Override
   public boolean isIntArray() {
     return true;
@@ -0,0 +1,53 @@
+package org.openlca.npy;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An array that can hold more than {@code 2^31 - 1} elements. Such arrays
+ * cannot be stored in a single Java array, so the elements are stored in
+ * pages of primitive arrays. All pages have the same length, except the last
+ * page which can be shorter. The shape, size, and element positions of large
+ * arrays are {@code long} values.
+ *
+ * @param <T> the type of the pages, e.g. {@code double[][]}
+ */
+public interface NpyLargeArray<T> {
+
+  /**
+   * Returns the pages of this array. The element at position {@code i} is
+   * stored in page {@code i / pageSize()} at position {@code i % pageSize()}.
+   */
+  T data();
+
+  long[] shape();
+
+  /**
+   * Returns the number of elements of this array.
+   */
+  long size();
+
+  /**
+   * Returns the number of elements of a (full) page of this array.
+   */
+  int pageSize();
+
+  /**
+   * Returns {@code true} when this array is stored in column-major order
+   * (Fortran order).
+   */
+  boolean hasColumnOrder();
+
+  NpyDataType dataType();
+
+  /**
+   * Writes as many elements as possible, starting from position
+   * {@code from}, into the given buffer.
+   *
+   * @param from   the 0-based position of the first element that should be
+   *               written
+   * @param buffer the byte buffer to which the elements should be written
+   * @return the number of elements that were written
+   */
+  int writeElementsTo(long from, ByteBuffer buffer);
+
+}
@@ -0,0 +1,68 @@
+package org.openlca.npy;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A large array of {@code bool} values which are stored in pages of
+ * {@code boolean[]} arrays.
+ */
+public final class NpyLargeBooleanArray
+  extends AbstractLargeArray<boolean[][]> {
+
+  /**
+   * Creates a new array of the given shape with all elements set to
+   * {@code false}.
+   *
+   * @param shape        the shape of the array
+   * @param fortranOrder {@code true} if the array is stored in column-major
+   *                     order, {@code false} for row-major order
+   */
+  public NpyLargeBooleanArray(long[] shape, boolean fortranOrder) {
+    this(shape, allocate(shape, DEFAULT_PAGE_SHIFT), fortranOrder,
+      DEFAULT_PAGE_SHIFT);
+  }
+
+  NpyLargeBooleanArray(
+    long[] shape, boolean[][] pages, boolean fortranOrder, int pageShift) {
+    super(shape, pages, fortranOrder, pageShift);
+  }
+
+  static boolean[][] allocate(long[] shape, int pageShift) {
+    long size = sizeOf(shape);
+    var pages = new boolean[pageCountOf(size, pageShift)][];
+    for (int i = 0; i < pages.length; i++) {
+      pages[i] = new boolean[pageLengthOf(i, size, pageShift)];
+    }
+    return pages;
+  }
+
+  @Override
+  public NpyDataType dataType() {
+    return NpyDataType.bool;
+  }
+
+  public boolean get(long i) {
+    return pages[pageOf(i)][offsetOf(i)];
+  }
+
+  public void set(long i, boolean value) {
+    pages[pageOf(i)][offsetOf(i)] = value;
+  }
+
+  @Override
+  public int writeElementsTo(long from, ByteBuffer buffer) {
+    int n = (int) Math.min(buffer.remaining(), size - from);
+    int written = 0;
+    while (written < n) {
+      long i = from + written;
+      var page = pages[pageOf(i)];
+      int offset = offsetOf(i);
+      int k = Math.min(n - written, page.length - offset);
+      for (int j = offset; j < offset + k; j++) {
+        buffer.put(page[j] ? (byte) 1 : (byte) 0);
+      }
+      written += k;
+    }
+    return written;
+  }
+}
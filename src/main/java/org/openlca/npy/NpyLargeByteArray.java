@@ -0,0 +1,65 @@
+package org.openlca.npy;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A large array of {@code i1} values which are stored in pages of
+ * {@code byte[]} arrays.
+ */
+public final class NpyLargeByteArray extends AbstractLargeArray<byte[][]> {
+
+  /**
+   * Creates a new array of the given shape with all elements set to
+   * {@code 0}.
+   *
+   * @param shape        the shape of the array
+   * @param fortranOrder {@code true} if the array is stored in column-major
+   *                     order, {@code false} for row-major order
+   */
+  public NpyLargeByteArray(long[] shape, boolean fortranOrder) {
+    this(shape, allocate(shape, DEFAULT_PAGE_SHIFT), fortranOrder,
+      DEFAULT_PAGE_SHIFT);
+  }
+
+  NpyLargeByteArray(
+    long[] shape, byte[][] pages, boolean fortranOrder, int pageShift) {
+    super(shape, pages, fortranOrder, pageShift);
+  }
+
+  static byte[][] allocate(long[] shape, int pageShift) {
+    long size = sizeOf(shape);
+    var pages = new byte[pageCountOf(size, pageShift)][];
+    for (int i = 0; i < pages.length; i++) {
+      pages[i] = new byte[pageLengthOf(i, size, pageShift)];
+    }
+    return pages;
+  }
+
+  @Override
+  public NpyDataType dataType() {
+    return NpyDataType.i1;
+  }
+
+  public byte get(long i) {
+    return pages[pageOf(i)][offsetOf(i)];
+  }
+
+  public void set(long i, byte value) {
+    pages[pageOf(i)][offsetOf(i)] = value;
+  }
+
+  @Override
+  public int writeElementsTo(long from, ByteBuffer buffer) {
+    int n = (int) Math.min(buffer.remaining(), size - from);
+    int written = 0;
+    while (written < n) {
+      long i = from + written;
+      var page = pages[pageOf(i)];
+      int offset = offsetOf(i);
+      int k = Math.min(n - written, page.length - offset);
+      buffer.put(page, offset, k);
+      written += k;
+    }
+    return written;
+  }
+}
@@ -0,0 +1,66 @@
+package org.openlca.npy;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A large array of {@code f8} values which are stored in pages of
+ * {@code double[]} arrays.
+ */
+public final class NpyLargeDoubleArray extends AbstractLargeArray<double[][]> {
+
+  /**
+   * Creates a new array of the given shape with all elements set to
+   * {@code 0}.
+   *
+   * @param shape        the shape of the array
+   * @param fortranOrder {@code true} if the array is stored in column-major
+   *                     order, {@code false} for row-major order
+   */
+  public NpyLargeDoubleArray(long[] shape, boolean fortranOrder) {
+    this(shape, allocate(shape, DEFAULT_PAGE_SHIFT), fortranOrder,
+      DEFAULT_PAGE_SHIFT);
+  }
+
+  NpyLargeDoubleArray(
+    long[] shape, double[][] pages, boolean fortranOrder, int pageShift) {
+    super(shape, pages, fortranOrder, pageShift);
+  }
+
+  static double[][] allocate(long[] shape, int pageShift) {
+    long size = sizeOf(shape);
+    var pages = new double[pageCountOf(size, pageShift)][];
+    for (int i = 0; i < pages.length; i++) {
+      pages[i] = new double[pageLengthOf(i, size, pageShift)];
+    }
+    return pages;
+  }
+
+  @Override
+  public NpyDataType dataType() {
+    return NpyDataType.f8;
+  }
+
+  public double get(long i) {
+    return pages[pageOf(i)][offsetOf(i)];
+  }
+
+  public void set(long i, double value) {
+    pages[pageOf(i)][offsetOf(i)] = value;
+  }
+
+  @Override
+  public int writeElementsTo(long from, ByteBuffer buffer) {
+    int n = (int) Math.min(buffer.remaining() / Double.BYTES, size - from);
+    int written = 0;
+    while (written < n) {
+      long i = from + written;
+      var page = pages[pageOf(i)];
+      int offset = offsetOf(i);
+      int k = Math.min(n - written, page.length - offset);
+      buffer.asDoubleBuffer().put(page, offset, k);
+      buffer.position(buffer.position() + k * Double.BYTES);
+      written += k;
+    }
+    return written;
+  }
+}
@@ -0,0 +1,66 @@
+package org.openlca.npy;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A large array of {@code i8} values which are stored in pages of
+ * {@code long[]} arrays.
+ */
+public final class NpyLargeLongArray extends AbstractLargeArray<long[][]> {
+
+  /**
+   * Creates a new array of the given shape with all elements set to
+   * {@code 0}.
+   *
+   * @param shape        the shape of the array
+   * @param fortranOrder {@code true} if the array is stored in column-major
+   *                     order, {@code false} for row-major order
+   */
+  public NpyLargeLongArray(long[] shape, boolean fortranOrder) {
+    this(shape, allocate(shape, DEFAULT_PAGE_SHIFT), fortranOrder,
+      DEFAULT_PAGE_SHIFT);
+  }
+
+  NpyLargeLongArray(
+    long[] shape, long[][] pages, boolean fortranOrder, int pageShift) {
+    super(shape, pages, fortranOrder, pageShift);
+  }
+
+  static long[][] allocate(long[] shape, int pageShift) {
+    long size = sizeOf(shape);
+    var pages = new long[pageCountOf(size, pageShift)][];
+    for (int i = 0; i < pages.length; i++) {
+      pages[i] = new long[pageLengthOf(i, size, pageShift)];
+    }
+    return pages;
+  }
+
+  @Override
+  public NpyDataType dataType() {
+    return NpyDataType.i8;
+  }
+
+  public long get(long i) {
+    return pages[pageOf(i)][offsetOf(i)];
+  }
+
+  public void set(long i, long value) {
+    pages[pageOf(i)][offsetOf(i)] = value;
+  }
+
+  @Override
+  public int writeElementsTo(long from, ByteBuffer buffer) {
+    int n = (int) Math.min(buffer.remaining() / Long.BYTES, size - from);
+    int written = 0;
+    while (written < n) {
+      long i = from + written;
+      var page = pages[pageOf(i)];
+      int offset = offsetOf(i);
+      int k = Math.min(n - written, page.length - offset);
+      buffer.asLongBuffer().put(page, offset, k);
+      buffer.position(buffer.position() + k * Long.BYTES);
+      written += k;
+    }
+    return written;
+  }
+}
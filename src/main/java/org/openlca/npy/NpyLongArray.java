@@ -52,6 +52,14 @@ public final class NpyLongArray extends AbstractNpyArray<long[]> {
     buffer.putLong(data[i]);
   }
 
+  @Override
+  public int writeRangeTo(int from, int to, ByteBuffer buffer) {
+    int n = Math.min(to - from, buffer.remaining() / Long.BYTES);
+    buffer.asLongBuffer().put(data, from, n);
+    buffer.position(buffer.position() + n * Long.BYTES);
+    return n;
+  }
+
   @Override
   public boolean isLongArray() {
     return true;
@@ -0,0 +1,120 @@
+package org.openlca.npy;
+
+/**
+ * Options for reading and writing NPY files. Use {@link #defaults()} for the
+ * default options or {@link #builder()} to create custom options:
+ *
+ * <pre>{@code
+ * var options = NpyOptions.builder()
+ *   .withBufferSize(4 * 1024 * 1024)
+ *   .withDirectBuffers(true)
+ *   .withParallelism(8)
+ *   .create();
+ * var array = Npy.read(file, options);
+ * }</pre>
+ */
+public final class NpyOptions {
+
+  /**
+   * The default buffer size of 1 MB.
+   */
+  public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+  private static final NpyOptions DEFAULTS = builder().create();
+
+  private final int bufferSize;
+  private final boolean directBuffers;
+  private final int parallelism;
+  private final int chunkSize;
+
+  private NpyOptions(Builder builder) {
+    this.bufferSize = builder.bufferSize;
+    this.directBuffers = builder.directBuffers;
+    this.parallelism = builder.parallelism;
+    this.chunkSize = builder.chunkSize;
+  }
+
+  public static NpyOptions defaults() {
+    return DEFAULTS;
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Returns the size of the buffers, in bytes, that are used for sequential
+   * reading and writing.
+   */
+  public int bufferSize() {
+    return bufferSize;
+  }
+
+  /**
+   * Returns {@code true} if direct buffers are used for reading and writing.
+   * Channels can transfer data directly from and into direct buffers while
+   * heap buffers are copied into a temporary direct buffer by the JDK.
+   */
+  public boolean hasDirectBuffers() {
+    return directBuffers;
+  }
+
+  /**
+   * Returns the number of parallel tasks for reading files. A value of
+   * {@code 1} means that the files are read sequentially.
+   */
+  public int parallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Returns the size of the chunks, in bytes, when a file is read in
+   * parallel.
+   */
+  public int chunkSize() {
+    return chunkSize;
+  }
+
+  public static class Builder {
+
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private boolean directBuffers = true;
+    private int parallelism = 1;
+    private int chunkSize = ParallelReader.DEFAULT_CHUNK_SIZE;
+
+    private Builder() {
+    }
+
+    public Builder withBufferSize(int bufferSize) {
+      if (bufferSize < 8)
+        throw new IllegalArgumentException(
+          "buffer size must be at least 8 bytes: " + bufferSize);
+      this.bufferSize = bufferSize;
+      return this;
+    }
+
+    public Builder withDirectBuffers(boolean b) {
+      this.directBuffers = b;
+      return this;
+    }
+
+    public Builder withParallelism(int parallelism) {
+      if (parallelism < 1)
+        throw new IllegalArgumentException(
+          "invalid parallelism: " + parallelism);
+      this.parallelism = parallelism;
+      return this;
+    }
+
+    public Builder withChunkSize(int chunkSize) {
+      if (chunkSize < 1)
+        throw new IllegalArgumentException("invalid chunk size: " + chunkSize);
+      this.chunkSize = chunkSize;
+      return this;
+    }
+
+    public NpyOptions create() {
+      return new NpyOptions(this);
+    }
+  }
+}
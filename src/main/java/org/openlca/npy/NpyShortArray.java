@@ -52,6 +52,14 @@ public final class NpyShortArray extends AbstractNpyArray<short[]> {
     buffer.putShort(data[i]);
   }
 
+  @Override
+  public int writeRangeTo(int from, int to, ByteBuffer buffer) {
+    int n = Math.min(to - from, buffer.remaining() / Short.BYTES);
+    buffer.asShortBuffer().put(data, from, n);
+    buffer.position(buffer.position() + n * Short.BYTES);
+    return n;
+  }
+
   @Override
   public boolean isShortArray() {
     return true;
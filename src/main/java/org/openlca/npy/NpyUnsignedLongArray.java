@@ -0,0 +1,204 @@
+package org.openlca.npy;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+
+/**
+ * An array of unsigned 64-bit integers ({@code u8}). The values are stored
+ * as the raw bits in a {@code long[]} array, so that values larger than
+ * {@link Long#MAX_VALUE} are stored as negative {@code long} values. Use the
+ * unsigned methods of this class or {@link Long#compareUnsigned},
+ * {@link Long#toUnsignedString}, etc. to work with them. An array of
+ * arbitrary precision integers can be created with {@link #asBigIntArray()}
+ * when needed.
+ */
+public final class NpyUnsignedLongArray extends AbstractNpyArray<long[]> {
+
+  public NpyUnsignedLongArray(int[] shape, long[] data, boolean fortranOrder) {
+    super(shape, data, fortranOrder);
+  }
+
+  public static NpyUnsignedLongArray vectorOf(long[] data) {
+    return new NpyUnsignedLongArray(new int[]{data.length}, data, false);
+  }
+
+  /**
+   * Wraps the given data in a 2-dimensional array in row-major order (C order).
+   *
+   * @param data the data of the array
+   * @param rows the number of rows of the array
+   * @param cols the number of columns of the array
+   * @return a 2d array of the given shape
+   */
+  public static NpyUnsignedLongArray rowOrderOf(
+    long[] data, int rows, int cols) {
+    return new NpyUnsignedLongArray(new int[]{rows, cols}, data, false);
+  }
+
+  /**
+   * Wraps the given data in a 2-dimensional array in column-major order (
+   * Fortran order).
+   *
+   * @param data the data of the array
+   * @param rows the number of rows of the array
+   * @param cols the number of columns of the array
+   * @return a 2d array of the given shape
+   */
+  public static NpyUnsignedLongArray columnOrderOf(
+    long[] data, int rows, int cols) {
+    return new NpyUnsignedLongArray(new int[]{rows, cols}, data, true);
+  }
+
+  /**
+   * Converts the given unsigned value to the nearest {@code double} value.
+   */
+  public static double toDouble(long value) {
+    if (value >= 0)
+      return value;
+    // halve the value and keep the lowest bit as sticky bit, so that the
+    // result is correctly rounded
+    return (double) ((value >>> 1) | (value & 1)) * 2.0;
+  }
+
+  /**
+   * Converts the given unsigned value to a {@link BigInteger}.
+   */
+  public static BigInteger toBigInteger(long value) {
+    if (value >= 0)
+      return BigInteger.valueOf(value);
+    return BigInteger.valueOf(value & Long.MAX_VALUE).setBit(63);
+  }
+
+  /**
+   * Compares the unsigned values at the positions {@code i} and {@code j} of
+   * this array.
+   */
+  public int compare(int i, int j) {
+    return Long.compareUnsigned(data[i], data[j]);
+  }
+
+  /**
+   * Returns the decimal string of the unsigned value at position {@code i}.
+   */
+  public String toString(int i) {
+    return Long.toUnsignedString(data[i]);
+  }
+
+  @Override
+  public String toString() {
+    var b = new StringBuilder("[");
+    int n = Math.min(data.length, 100);
+    for (int i = 0; i < n; i++) {
+      if (i > 0) {
+        b.append(", ");
+      }
+      b.append(Long.toUnsignedString(data[i]));
+    }
+    if (n < data.length) {
+      b.append(", ...");
+    }
+    return b.append(']').toString();
+  }
+
+  @Override
+  public NpyDataType dataType() {
+    return NpyDataType.u8;
+  }
+
+  @Override
+  public int size() {
+    return data.length;
+  }
+
+  @Override
+  public void writeElementTo(int i, ByteBuffer buffer) {
+    buffer.putLong(data[i]);
+  }
+
+  @Override
+  public int writeRangeTo(int from, int to, ByteBuffer buffer) {
+    int n = Math.min(to - from, buffer.remaining() / Long.BYTES);
+    buffer.asLongBuffer().put(data, from, n);
+    buffer.position(buffer.position() + n * Long.BYTES);
+    return n;
+  }
+
+  @Override
+  public boolean isUnsignedLongArray() {
+    return true;
+  }
+
+  /**
+   * Converts this array into an array of arbitrary precision integers.
+   */
+  public NpyBigIntArray asBigIntArray() {
+    var ints = new BigInteger[data.length];
+    for (int i = 0; i < data.length; i++) {
+      ints[i] = toBigInteger(data[i]);
+    }
+    return new NpyBigIntArray(copyShape(), ints, fortranOrder);
+  }
+
+  @Override
+  public NpyBooleanArray asBooleanArray() {
+    var booleans = new boolean[data.length];
+    for (int i = 0; i < data.length; i++) {
+      booleans[i] = data[i] != 0;
+    }
+    return new NpyBooleanArray(copyShape(), booleans, fortranOrder);
+  }
+
+  @Override
+  public NpyByteArray asByteArray() {
+    var bytes = new byte[data.length];
+    for (int i = 0; i < data.length; i++) {
+      bytes[i] = (byte) data[i];
+    }
+    return new NpyByteArray(copyShape(), bytes, fortranOrder);
+  }
+
+  @Override
+  public NpyDoubleArray asDoubleArray() {
+    var doubles = new double[data.length];
+    for (int i = 0; i < data.length; i++) {
+      doubles[i] = toDouble(data[i]);
+    }
+    return new NpyDoubleArray(copyShape(), doubles, fortranOrder);
+  }
+
+  @Override
+  public NpyFloatArray asFloatArray() {
+    var floats = new float[data.length];
+    for (int i = 0; i < data.length; i++) {
+      floats[i] = (float) toDouble(data[i]);
+    }
+    return new NpyFloatArray(copyShape(), floats, fortranOrder);
+  }
+
+  @Override
+  public NpyIntArray asIntArray() {
+    var ints = new int[data.length];
+    for (int i = 0; i < data.length; i++) {
+      ints[i] = (int) data[i];
+    }
+    return new NpyIntArray(copyShape(), ints, fortranOrder);
+  }
+
+  /**
+   * Converts this array into a signed {@code long} array with the same bits;
+   * values larger than {@link Long#MAX_VALUE} become negative.
+   */
+  @Override
+  public NpyLongArray asLongArray() {
+    return new NpyLongArray(copyShape(), data.clone(), fortranOrder);
+  }
+
+  @Override
+  public NpyShortArray asShortArray() {
+    var shorts = new short[data.length];
+    for (int i = 0; i < data.length; i++) {
+      shorts[i] = (short) data[i];
+    }
+    return new NpyShortArray(copyShape(), shorts, fortranOrder);
+  }
+}
@@ -0,0 +1,298 @@
+package org.openlca.npy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.openlca.npy.dict.NpyHeaderDict;
+
+/**
+ * Writes an NPY file incrementally, row by row or in chunks of rows, without
+ * knowing the number of rows in advance. The writer first writes a header
+ * with reserved space for the largest possible number of rows. When the
+ * writer is closed, the first dimension of the shape is replaced in place
+ * with the number of rows that were written. Only the elements in the write
+ * buffer are held in memory, no matter how many rows are written:
+ *
+ * <pre>{@code
+ * try (var writer = NpyWriter.of(file, NpyDataType.f8)
+ *   .withRowShape(cols)
+ *   .create()) {
+ *   for (double[] row : rows) {
+ *     writer.append(row);
+ *   }
+ * }
+ * }</pre>
+ * <p>
+ * The data are written in row-major order (C order) and little-endian byte
+ * order. Elements can be appended in chunks of any size but the total number
+ * of elements needs to be a multiple of the row size when the writer is
+ * closed.
+ */
+public final class NpyWriter implements AutoCloseable {
+
+  private final RandomAccessFile file;
+  private final FileChannel channel;
+  private final NpyDataType dataType;
+  private final int[] rowShape;
+  private final int rowSize;
+  private final int headerLength;
+  private final ByteBuffer buffer;
+
+  private long elementCount;
+  private boolean closed;
+
+  private NpyWriter(Builder builder) throws IOException {
+    this.dataType = builder.dataType;
+    this.rowShape = builder.rowShape;
+    int size = 1;
+    for (int dim : rowShape) {
+      size = Math.multiplyExact(size, dim);
+    }
+    this.rowSize = size;
+
+    // reserve space for the maximum number of rows in the header
+    var header = dictOf(Long.MAX_VALUE).toNpyHeader();
+    this.headerLength = header.length;
+    this.file = new RandomAccessFile(builder.file, "rw");
+    this.channel = file.getChannel();
+    try {
+      file.setLength(0);
+      writeFully(ByteBuffer.wrap(header));
+    } catch (IOException e) {
+      file.close();
+      throw e;
+    }
+
+    int bufferSize = builder.options.bufferSize();
+    this.buffer = builder.options.hasDirectBuffers()
+      ? ByteBuffer.allocateDirect(bufferSize)
+      : ByteBuffer.allocate(bufferSize);
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  /**
+   * Creates a builder for a writer of the given file and data type. The data
+   * type needs to be the data type of the arrays that are appended to the
+   * writer; string types are not supported.
+   */
+  public static Builder of(File file, NpyDataType dataType) {
+    return new Builder(file, dataType);
+  }
+
+  /**
+   * Returns the number of complete rows that were written so far.
+   */
+  public long rows() {
+    return elementCount / rowSize;
+  }
+
+  /**
+   * Returns the number of elements that were written so far.
+   */
+  public long size() {
+    return elementCount;
+  }
+
+  /**
+   * Appends the elements of the given array. The array needs to have the
+   * data type of this writer; its shape is ignored, the elements are
+   * appended in row-major order. 2-dimensional arrays in column-major order
+   * are switched into row-major order first; other arrays in column-major
+   * order with more than one non-trivial dimension are rejected. Writers of
+   * type {@code f2} also accept {@code f4} and {@code f8} arrays which are
+   * rounded to half-precision numbers, see {@link NpyFloat16Array}.
+   *
+   * @throws IllegalArgumentException if the data type does not match or the
+   *                                  array is a column-major array that
+   *                                  cannot be switched into row-major order
+   */
+  public void append(NpyArray<?> array) {
+    if (closed)
+      throw new IllegalStateException("the writer is closed");
+    if (array.hasColumnOrder() && !isVectorLike(array.shape())) {
+      if (array.shape().length != 2)
+        throw new IllegalArgumentException("cannot append an array of "
+          + array.shape().length + " dimensions in column-major order");
+      if (array instanceof MappedArray) {
+        array = ((MappedArray<?>) array).load();
+      }
+      array = Array2d.switchOrder(array);
+    }
+    if (dataType == NpyDataType.f2
+      && (array.dataType() == NpyDataType.f4
+      || array.dataType() == NpyDataType.f8)) {
+      array = NpyFloat16Array.of(array);
+    }
+    if (array.dataType() != dataType)
+      throw new IllegalArgumentException("the data type "
+        + array.dataType() + " does not match the type of the writer "
+        + dataType);
+    try {
+      int elemSize = dataType.size();
+      int n = array.size();
+      int pos = 0;
+      while (pos < n) {
+        if (buffer.remaining() < elemSize) {
+          flush();
+        }
+        pos += array.writeRangeTo(pos, n, buffer);
+      }
+      elementCount += n;
+    } catch (IOException e) {
+      throw new RuntimeException("failed to append array", e);
+    }
+  }
+
+  /**
+   * Returns {@code true} if at most one dimension of the shape is larger
+   * than 1; the storage order does not matter for such arrays.
+   */
+  private static boolean isVectorLike(int[] shape) {
+    int n = 0;
+    for (int dim : shape) {
+      if (dim > 1) {
+        n++;
+      }
+    }
+    return n <= 1;
+  }
+
+  public void append(double[] values) {
+    append(NpyDoubleArray.vectorOf(values));
+  }
+
+  public void append(float[] values) {
+    append(NpyFloatArray.vectorOf(values));
+  }
+
+  public void append(long[] values) {
+    append(NpyLongArray.vectorOf(values));
+  }
+
+  public void append(int[] values) {
+    append(NpyIntArray.vectorOf(values));
+  }
+
+  public void append(short[] values) {
+    append(NpyShortArray.vectorOf(values));
+  }
+
+  public void append(byte[] values) {
+    append(NpyByteArray.vectorOf(values));
+  }
+
+  public void append(boolean[] values) {
+    append(NpyBooleanArray.vectorOf(values));
+  }
+
+  /**
+   * Writes the remaining data and updates the shape in the header of the
+   * file. If the number of elements is not a multiple of the row size, the
+   * last incomplete row is removed from the file and an
+   * {@link IllegalStateException} is thrown after the file was closed.
+   */
+  @Override
+  public void close() {
+    if (closed)
+      return;
+    closed = true;
+    long rows = rows();
+    try (file; channel) {
+      flush();
+      var header = dictOf(rows).toNpyHeader(headerLength);
+      if (header.length != headerLength)
+        throw new IllegalStateException(
+          "the header length changed; this is a bug");
+      var buf = ByteBuffer.wrap(header);
+      long pos = 0;
+      while (buf.hasRemaining()) {
+        pos += channel.write(buf, pos);
+      }
+      if (rows * rowSize != elementCount) {
+        file.setLength(headerLength + rows * rowSize * dataType.size());
+      }
+    } catch (IOException e) {
+      throw new RuntimeException("failed to close NPY writer", e);
+    }
+    if (rows * rowSize != elementCount)
+      throw new IllegalStateException("the last row is incomplete; wrote "
+        + elementCount + " elements with a row size of " + rowSize);
+  }
+
+  private NpyHeaderDict dictOf(long rows) {
+    var shape = new long[rowShape.length + 1];
+    shape[0] = rows;
+    for (int i = 0; i < rowShape.length; i++) {
+      shape[i + 1] = rowShape[i];
+    }
+    return NpyHeaderDict.of(dataType)
+      .withShape(shape)
+      .withByteOrder(NpyByteOrder.LITTLE_ENDIAN)
+      .create();
+  }
+
+  private void flush() throws IOException {
+    buffer.flip();
+    writeFully(buffer);
+    buffer.clear();
+  }
+
+  private void writeFully(ByteBuffer buf) throws IOException {
+    while (buf.hasRemaining()) {
+      channel.write(buf);
+    }
+  }
+
+  public static class Builder {
+
+    private final File file;
+    private final NpyDataType dataType;
+    private int[] rowShape = new int[0];
+    private NpyOptions options = NpyOptions.defaults();
+
+    private Builder(File file, NpyDataType dataType) {
+      this.file = Objects.requireNonNull(file);
+      this.dataType = Objects.requireNonNull(dataType);
+      if (dataType.size() == 0)
+        throw new IllegalArgumentException(
+          "unsupported data type for NPY writers: " + dataType);
+    }
+
+    /**
+     * Sets the shape of a single row, i.e. all dimensions of the array
+     * except the first one. When no row shape is set, a 1-dimensional array
+     * is written.
+     */
+    public Builder withRowShape(int... rowShape) {
+      for (int dim : rowShape) {
+        if (dim < 1)
+          throw new IllegalArgumentException(
+            "invalid row shape: " + Arrays.toString(rowShape));
+      }
+      this.rowShape = rowShape.clone();
+      return this;
+    }
+
+    /**
+     * Sets the options for the size and type of the write buffer.
+     */
+    public Builder withOptions(NpyOptions options) {
+      this.options = Objects.requireNonNull(options);
+      return this;
+    }
+
+    public NpyWriter create() {
+      try {
+        return new NpyWriter(this);
+      } catch (IOException e) {
+        throw new RuntimeException("failed to create NPY writer: " + file, e);
+      }
+    }
+  }
+}
@@ -22,6 +22,12 @@ class OrderSwitch2d<T extends NpyArray<?>> {
   private T apply() {
     if (array.isBigIntegerArray())
       return (T) switchBigInts((NpyBigIntArray) array);
+    if (array.isUnsignedLongArray())
+      return (T) switchUnsignedLongs((NpyUnsignedLongArray) array);
+    if (array instanceof NpyFloat16Array)
+      return (T) switchFloat16s((NpyFloat16Array) array);
+    if (array instanceof NpyBitArray)
+      return (T) switchBits((NpyBitArray) array);
     if (array.isBooleanArray())
       return (T) switchBooleans(array.asBooleanArray());
     if (array.isByteArray())
@@ -154,6 +160,39 @@ class OrderSwitch2d<T extends NpyArray<?>> {
       : NpyLongArray.columnOrderOf(newData, rows, cols);
   }
 
+  private NpyUnsignedLongArray switchUnsignedLongs(NpyUnsignedLongArray a) {
+    var data = a.data;
+    var newData = new long[data.length];
+    iter((pos, newPos) -> {
+      var value = data[pos];
+      if (value == 0)
+        return;
+      newData[newPos] = value;
+    });
+    return a.hasColumnOrder()
+      ? NpyUnsignedLongArray.rowOrderOf(newData, rows, cols)
+      : NpyUnsignedLongArray.columnOrderOf(newData, rows, cols);
+  }
+
+  private NpyFloat16Array switchFloat16s(NpyFloat16Array a) {
+    var data = a.data;
+    var newData = new short[data.length];
+    iter((pos, newPos) -> newData[newPos] = data[pos]);
+    return new NpyFloat16Array(
+      new int[]{rows, cols}, newData, !a.hasColumnOrder());
+  }
+
+  private NpyBitArray switchBits(NpyBitArray a) {
+    var switched = NpyBitArray.of(
+      new int[]{rows, cols}, !a.hasColumnOrder());
+    iter((pos, newPos) -> {
+      if (a.get(pos)) {
+        switched.set(newPos, true);
+      }
+    });
+    return switched;
+  }
+
   private NpyShortArray switchShorts(NpyShortArray a) {
     var data = a.data;
     var newData = new short[data.length];
@@ -0,0 +1,110 @@
+package org.openlca.npy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Reads the data of an NPY file in parallel. The data region is split into
+ * element-aligned chunks which are read with positional reads on a shared
+ * fork-join pool, see {@link ReaderPools}. Each task decodes its chunk
+ * directly into its own slice of the destination array.
+ */
+class ParallelReader {
+
+  static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+
+  private final FileChannel channel;
+  private final NpyHeader header;
+  private final NpyArrayReader builder;
+  private final int elementSize;
+  private final int chunkElements;
+  private final int elementCount;
+  private final boolean directBuffers;
+
+  private ParallelReader(
+    FileChannel channel, NpyHeader header, NpyOptions options) {
+    this.channel = channel;
+    this.header = header;
+    this.builder = NpyArrayReader.of(header.dict());
+    this.elementSize = header.dict().dataType().size();
+    this.chunkElements = Math.max(1, options.chunkSize() / elementSize);
+    this.elementCount = header.dict().numberOfElements();
+    this.directBuffers = options.hasDirectBuffers();
+  }
+
+  /**
+   * Reads the array with the parallelism and chunk size of the given
+   * options. String types are read sequentially.
+   */
+  static NpyArray<?> read(
+    FileChannel channel, NpyHeader header, NpyOptions options)
+    throws IOException {
+    if (header.dict().dataType().size() == 0) {
+      channel.position(header.dataOffset());
+      return ChannelReader.read(channel, header, options);
+    }
+
+    var reader = new ParallelReader(channel, header, options);
+    int chunks = (int) (((long) reader.elementCount
+      + reader.chunkElements - 1) / reader.chunkElements);
+    ReaderPools.invoke(
+      options.parallelism(), reader.new ChunkTask(0, chunks));
+    return reader.builder.finish();
+  }
+
+  private void readChunk(int chunk) {
+    int start = chunk * chunkElements;
+    int n = Math.min(chunkElements, elementCount - start);
+    var buffer = BufferPool.get(
+      n * elementSize, directBuffers, header.byteOrder());
+    long offset = header.dataOffset() + (long) start * elementSize;
+    try {
+      while (buffer.hasRemaining()) {
+        int k = channel.read(buffer, offset + buffer.position());
+        if (k < 0)
+          throw new NpyFormatException(
+            "unexpected end of file at position "
+              + (offset + buffer.position()));
+      }
+      buffer.flip();
+      // the builder is shared, so each task needs its own scratch array
+      var scratch = new byte[NpyArrayReader.SCRATCH_SIZE];
+      builder.nextInto(buffer, start, n, scratch);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      BufferPool.release(buffer);
+    }
+  }
+
+  /**
+   * Splits the range of chunks {@code [from, to)} until a single chunk
+   * remains which is then read by the task.
+   */
+  private class ChunkTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int from;
+    private final int to;
+
+    ChunkTask(int from, int to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= 1) {
+        if (from < to) {
+          readChunk(from);
+        }
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      invokeAll(new ChunkTask(from, mid), new ChunkTask(mid, to));
+    }
+  }
+}
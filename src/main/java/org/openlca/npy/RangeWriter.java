@@ -0,0 +1,123 @@
+package org.openlca.npy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Writes elements of an array into the data region of an existing NPY file
+ * with positional writes. The elements are encoded with the byte order of
+ * the file; the data type of the array must match the data type of the file.
+ */
+class RangeWriter {
+
+  private final FileChannel channel;
+  private final NpyHeader header;
+  private final int elemSize;
+
+  private RangeWriter(FileChannel channel, NpyHeader header) {
+    this.channel = channel;
+    this.header = header;
+    this.elemSize = header.dict().dataType().size();
+  }
+
+  /**
+   * Writes the elements {@code [from, to)} of the given array to the file,
+   * starting at the element position {@code offset} of the file.
+   */
+  static void write(FileChannel channel, NpyHeader header, long offset,
+    NpyArray<?> array, int from, int to) throws IOException {
+    var writer = new RangeWriter(channel, header);
+    writer.check(array, offset, to - from, 1);
+    writer.writeRange(offset, array, from, to);
+  }
+
+  /**
+   * Writes the elements of the given array to the file, starting at the
+   * element position {@code offset} and with a distance of {@code inc}
+   * elements between two positions in the file.
+   */
+  static void writeStrided(FileChannel channel, NpyHeader header, long offset,
+    long inc, NpyArray<?> array) throws IOException {
+    var writer = new RangeWriter(channel, header);
+    writer.check(array, offset, array.size(), inc);
+    if (inc == 1) {
+      writer.writeRange(offset, array, 0, array.size());
+    } else {
+      writer.writeStrided(offset, inc, array);
+    }
+  }
+
+  private void check(NpyArray<?> array, long offset, int n, long inc) {
+    var dict = header.dict();
+    if (array.dataType() != dict.dataType())
+      throw new IllegalArgumentException("the data type "
+        + array.dataType() + " of the array does not match the data type "
+        + dict.dataType() + " of the file");
+    if (elemSize == 0)
+      throw new IllegalArgumentException(
+        "writing ranges of strings is not supported");
+    if (n == 0)
+      return;
+    long last = offset + (n - 1) * inc;
+    if (offset < 0 || inc < 1 || last >= dict.longNumberOfElements())
+      throw new IndexOutOfBoundsException(
+        "cannot write " + n + " elements at position " + offset
+          + " with an increment of " + inc + " into an array of size "
+          + dict.longNumberOfElements());
+  }
+
+  private void writeRange(long offset, NpyArray<?> array, int from, int to)
+    throws IOException {
+    long bytes = (long) (to - from) * elemSize;
+    var buffer = BufferPool.get(
+      NpyOptions.defaults(), bytes, header.byteOrder());
+    int bufferSize = buffer.limit();
+    long pos = header.dataOffset() + offset * elemSize;
+    try {
+      int i = from;
+      while (i < to) {
+        i += array.writeRangeTo(i, to, buffer);
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+          pos += channel.write(buffer, pos);
+        }
+        buffer.clear().limit(bufferSize);
+      }
+    } finally {
+      BufferPool.release(buffer);
+    }
+  }
+
+  private void writeStrided(long offset, long inc, NpyArray<?> array)
+    throws IOException {
+    long bytes = (long) array.size() * elemSize;
+    var buffer = BufferPool.get(
+      NpyOptions.defaults(), bytes, header.byteOrder());
+    int bufferSize = buffer.limit();
+    long pos = header.dataOffset() + offset * elemSize;
+    long step = inc * elemSize;
+    try {
+      int i = 0;
+      while (i < array.size()) {
+        int n = array.writeRangeTo(i, array.size(), buffer);
+        i += n;
+        for (int k = 0; k < n; k++) {
+          int start = k * elemSize;
+          buffer.limit(start + elemSize).position(start);
+          writeFully(buffer, pos);
+          pos += step;
+        }
+        buffer.clear().limit(bufferSize);
+      }
+    } finally {
+      BufferPool.release(buffer);
+    }
+  }
+
+  private void writeFully(ByteBuffer buffer, long pos) throws IOException {
+    while (buffer.hasRemaining()) {
+      pos += channel.write(buffer, pos);
+    }
+  }
+}
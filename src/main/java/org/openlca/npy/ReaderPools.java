@@ -0,0 +1,69 @@
+package org.openlca.npy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Shared fork-join pools for parallel reads. The requested parallelism is
+ * rounded up to the next power of two and limited to
+ * {@link #MAX_PARALLELISM}, so that there are at most 7 pools. The pools
+ * live as long as the application so that their worker threads, and with
+ * them the buffers of the {@link BufferPool}, are reused across reads. A
+ * worker thread that is idle for 60 seconds terminates and its buffers can
+ * be garbage collected. The worker threads are daemon threads and do not
+ * prevent the JVM from exiting.
+ */
+final class ReaderPools {
+
+  static final int MAX_PARALLELISM = 64;
+
+  private static final ForkJoinPool[] pools =
+    new ForkJoinPool[Integer.numberOfTrailingZeros(MAX_PARALLELISM) + 1];
+
+  private ReaderPools() {
+  }
+
+  static ForkJoinPool of(int parallelism) {
+    if (parallelism < 1)
+      throw new IllegalArgumentException(
+        "invalid parallelism: " + parallelism);
+    int level = parallelism >= MAX_PARALLELISM
+      ? MAX_PARALLELISM
+      : Integer.highestOneBit(parallelism * 2 - 1);
+    int i = Integer.numberOfTrailingZeros(level);
+    synchronized (pools) {
+      if (pools[i] == null) {
+        pools[i] = create(level);
+      }
+      return pools[i];
+    }
+  }
+
+  private static ForkJoinPool create(int parallelism) {
+    ForkJoinPool.ForkJoinWorkerThreadFactory factory = pool -> {
+      var thread = new ForkJoinWorkerThread(pool) {
+      };
+      thread.setDaemon(true);
+      thread.setName(
+        "npy-reader-" + parallelism + "-" + thread.getPoolIndex());
+      return thread;
+    };
+    return new ForkJoinPool(parallelism, factory, null, false);
+  }
+
+  /**
+   * Runs the given task on the shared pool with the given parallelism. An
+   * {@link UncheckedIOException} of the task is rethrown as its cause.
+   */
+  static void invoke(int parallelism, ForkJoinTask<?> task)
+    throws IOException {
+    try {
+      of(parallelism).invoke(task);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+}
@@ -0,0 +1,130 @@
+package org.openlca.npy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Reads a sequence of byte runs from the data region of an NPY file into a
+ * byte array, one run after another. The runs need to be added in ascending
+ * file order. Runs with small gaps between them are coalesced into single
+ * positional reads of up to {@link StridedReader#BLOCK_SIZE} bytes when this
+ * is cheaper than separate reads according to the cost model of the strided
+ * reader. Runs that are larger than a block are directly read into the
+ * output. The block buffer is taken from the {@link BufferPool} and given
+ * back when the reader is closed.
+ */
+class RunReader implements AutoCloseable {
+
+  private final FileChannel channel;
+  private final long dataOffset;
+  private final byte[] out;
+  private int outPos;
+
+  private final ByteBuffer block;
+  private final int blockSize;
+  private long blockStart = -1;
+  private long blockEnd;
+  private long[] runs = new long[32];
+  private int runCount;
+
+  /**
+   * Creates a new run reader.
+   *
+   * @param channel    the channel of the NPY file
+   * @param dataOffset the position of the data region in the file
+   * @param out        the array into which the runs are read
+   * @param outPos     the position in the output array where the first run
+   *                   is stored
+   * @param totalBytes the total number of bytes of all runs; used to limit
+   *                   the size of the block buffer
+   */
+  RunReader(FileChannel channel, long dataOffset,
+    byte[] out, int outPos, int totalBytes) {
+    this.channel = channel;
+    this.dataOffset = dataOffset;
+    this.out = out;
+    this.outPos = outPos;
+    this.blockSize = Math.max(1,
+      Math.min(StridedReader.BLOCK_SIZE, totalBytes));
+    this.block = BufferPool.get(blockSize, false, ByteOrder.LITTLE_ENDIAN);
+  }
+
+  /**
+   * Adds the run of {@code length} bytes at the given byte offset of the
+   * data region.
+   */
+  void add(long offset, int length) throws IOException {
+    if (length == 0)
+      return;
+    if (length >= blockSize) {
+      flush();
+      readFully(ByteBuffer.wrap(out, outPos, length), offset);
+      outPos += length;
+      return;
+    }
+    if (blockStart >= 0) {
+      long gap = offset - blockEnd;
+      boolean coalesce = gap >= 0
+        && offset + length - blockStart <= blockSize
+        && StridedReader.useBlocks(length, gap + length);
+      if (!coalesce) {
+        flush();
+      }
+    }
+    if (blockStart < 0) {
+      blockStart = offset;
+    }
+    if (runCount + 2 > runs.length) {
+      runs = Arrays.copyOf(runs, runs.length * 2);
+    }
+    runs[runCount++] = offset;
+    runs[runCount++] = length;
+    blockEnd = offset + length;
+  }
+
+  /**
+   * Reads the current block and copies its runs into the output. This needs
+   * to be called after the last run was added.
+   */
+  void flush() throws IOException {
+    if (blockStart < 0)
+      return;
+    block.clear().limit((int) (blockEnd - blockStart));
+    readFully(block, blockStart);
+    var bytes = block.array();
+    for (int i = 0; i < runCount; i += 2) {
+      int start = (int) (runs[i] - blockStart);
+      int length = (int) runs[i + 1];
+      System.arraycopy(bytes, start, out, outPos, length);
+      outPos += length;
+    }
+    blockStart = -1;
+    runCount = 0;
+  }
+
+  /**
+   * Fills the remaining space of the buffer with the bytes at the given
+   * offset of the data region.
+   */
+  private void readFully(ByteBuffer buffer, long offset) throws IOException {
+    long pos = dataOffset + offset - buffer.position();
+    while (buffer.hasRemaining()) {
+      int k = channel.read(buffer, pos + buffer.position());
+      if (k < 0)
+        throw new NpyFormatException(
+          "unexpected end of file at position " + (pos + buffer.position()));
+    }
+  }
+
+  /**
+   * Gives the block buffer back to the pool; the reader cannot be used
+   * after this.
+   */
+  @Override
+  public void close() {
+    BufferPool.release(block);
+  }
+}
@@ -0,0 +1,276 @@
+package org.openlca.npy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import org.openlca.npy.dict.NpyHeaderDict;
+
+/**
+ * Reads a selection of rows or columns of a matrix in a single pass over the
+ * file. The matrix is stored as a sequence of runs: the rows of a matrix in
+ * row-major order or the columns of a matrix in column-major order. When
+ * whole runs are selected, each selected run is read once, and adjacent runs
+ * are read with a single call; duplicate indices are read only once.
+ * Otherwise, the runs are streamed through a block buffer and the selected
+ * elements are extracted from each run. The result is a matrix in the
+ * storage order of the file with the selected rows or columns in the order
+ * of the given indices. Rectangular blocks of a matrix are read in the same
+ * way, with one read per run or with a single read for adjacent runs.
+ */
+class SelectionReader {
+
+  private static final int BLOCK_SIZE = StridedReader.BLOCK_SIZE;
+
+  private final FileChannel channel;
+  private final NpyHeader header;
+  private final int elemSize;
+  private final int runs;
+  private final int runLength;
+
+  private SelectionReader(FileChannel channel, NpyHeader header) {
+    this.channel = channel;
+    this.header = header;
+    var dict = header.dict();
+    this.elemSize = dict.dataType().size();
+    if (elemSize == 0)
+      throw new IllegalArgumentException(
+        "selections of strings are not supported");
+    int rows = dict.sizeOfDimension(0);
+    int cols = dict.sizeOfDimension(1);
+    this.runs = dict.hasFortranOrder() ? cols : rows;
+    this.runLength = dict.hasFortranOrder() ? rows : cols;
+  }
+
+  static NpyArray<?> readColumns(
+    FileChannel channel, NpyHeader header, int[] columns) throws IOException {
+    var reader = new SelectionReader(channel, header);
+    var dict = header.dict();
+    int rows = dict.sizeOfDimension(0);
+    checkIndices(columns, dict.sizeOfDimension(1));
+    var bytes = dict.hasFortranOrder()
+      ? reader.readRuns(columns)
+      : reader.readWithinRuns(columns);
+    return reader.decode(bytes, rows, columns.length);
+  }
+
+  static NpyArray<?> readRows(
+    FileChannel channel, NpyHeader header, int[] rows) throws IOException {
+    var reader = new SelectionReader(channel, header);
+    var dict = header.dict();
+    int cols = dict.sizeOfDimension(1);
+    checkIndices(rows, dict.sizeOfDimension(0));
+    var bytes = dict.hasFortranOrder()
+      ? reader.readWithinRuns(rows)
+      : reader.readRuns(rows);
+    return reader.decode(bytes, rows.length, cols);
+  }
+
+  static NpyArray<?> readBlock(FileChannel channel, NpyHeader header,
+    int rowStart, int rowCount, int colStart, int colCount)
+    throws IOException {
+    var reader = new SelectionReader(channel, header);
+    var dict = header.dict();
+    int rows = dict.sizeOfDimension(0);
+    int cols = dict.sizeOfDimension(1);
+    if (rowStart < 0 || colStart < 0 || rowCount < 0 || colCount < 0
+      || rowStart + rowCount > rows || colStart + colCount > cols)
+      throw new IndexOutOfBoundsException(
+        "a block of " + rowCount + " x " + colCount + " at (" + rowStart
+          + ", " + colStart + ") is out of bounds for a matrix of "
+          + rows + " x " + cols);
+    var bytes = dict.hasFortranOrder()
+      ? reader.readBlock(colStart, colCount, rowStart, rowCount)
+      : reader.readBlock(rowStart, rowCount, colStart, colCount);
+    return reader.decode(bytes, rowCount, colCount);
+  }
+
+  private static void checkIndices(int[] indices, int size) {
+    for (int i : indices) {
+      if (i < 0 || i >= size)
+        throw new IndexOutOfBoundsException(
+          "index " + i + " is out of bounds for a dimension of " + size);
+    }
+  }
+
+  /**
+   * Returns the positions of the given indices, sorted by index. Each
+   * value is the position in the lower 32 bits and the index in the upper
+   * 32 bits.
+   */
+  private static long[] sortedPositions(int[] indices) {
+    var sorted = new long[indices.length];
+    for (int i = 0; i < indices.length; i++) {
+      sorted[i] = ((long) indices[i] << 32) | i;
+    }
+    Arrays.sort(sorted);
+    return sorted;
+  }
+
+  /**
+   * Reads the selected runs. The selected run at position {@code j} is
+   * stored at {@code [j * runBytes, (j+1) * runBytes)} in the result.
+   */
+  private byte[] readRuns(int[] indices) throws IOException {
+    int runBytes = runLength * elemSize;
+    var out = new byte[Math.multiplyExact(indices.length, runBytes)];
+    if (out.length == 0)
+      return out;
+    var sorted = sortedPositions(indices);
+    int maxRuns = Math.max(1, BLOCK_SIZE / runBytes);
+    var block = BufferPool.get(
+      Math.multiplyExact(Math.min(maxRuns, indices.length), runBytes),
+      false, header.byteOrder());
+    var bytes = block.array();
+
+    try {
+      int i = 0;
+      while (i < sorted.length) {
+
+        // collect a group of adjacent runs that fit into the block
+        int first = (int) (sorted[i] >>> 32);
+        int last = first;
+        int end = i + 1;
+        while (end < sorted.length) {
+          int next = (int) (sorted[end] >>> 32);
+          if (next == last) {
+            end++;
+            continue;
+          }
+          if (next != last + 1 || next - first >= maxRuns)
+            break;
+          last = next;
+          end++;
+        }
+
+        // read the group and copy the runs into their positions
+        long offset = (long) first * runBytes;
+        readFully(block, offset, (last - first + 1) * runBytes);
+        for (int k = i; k < end; k++) {
+          int run = (int) (sorted[k] >>> 32);
+          int pos = (int) sorted[k];
+          System.arraycopy(bytes, (run - first) * runBytes,
+            out, pos * runBytes, runBytes);
+        }
+        i = end;
+      }
+    } finally {
+      BufferPool.release(block);
+    }
+    return out;
+  }
+
+  /**
+   * Streams through all runs and extracts the elements at the given indices
+   * of each run. The element at index position {@code j} of run {@code r}
+   * is stored at position {@code r * n + j} in the result.
+   */
+  private byte[] readWithinRuns(int[] indices) throws IOException {
+    int n = indices.length;
+    var out = new byte[Math.multiplyExact(Math.multiplyExact(runs, n),
+      elemSize)];
+    if (out.length == 0)
+      return out;
+
+    // only the span between the first and last selected index of a run
+    // needs to be read
+    int min = Arrays.stream(indices).min().orElse(0);
+    int max = Arrays.stream(indices).max().orElse(0);
+    readSpans(0, runs, min, max - min + 1, (block, r, base) -> {
+      int outBase = r * n * elemSize;
+      for (int j = 0; j < n; j++) {
+        System.arraycopy(block, base + (indices[j] - min) * elemSize,
+          out, outBase + j * elemSize, elemSize);
+      }
+    });
+    return out;
+  }
+
+  /**
+   * Reads the given block of the matrix. The result contains the spans of
+   * the selected runs one after another.
+   */
+  private byte[] readBlock(int runStart, int runCount, int start, int length)
+    throws IOException {
+    int spanBytes = length * elemSize;
+    var out = new byte[Math.multiplyExact(runCount, spanBytes)];
+    if (out.length == 0)
+      return out;
+    readSpans(runStart, runCount, start, length, (block, r, base) ->
+      System.arraycopy(block, base, out, r * spanBytes, spanBytes));
+    return out;
+  }
+
+  /**
+   * Reads the span of {@code length} elements, starting at index
+   * {@code start}, of each run in the range {@code [runStart,
+   * runStart + runCount)}. Whether multiple runs are read with a single
+   * call is decided by the cost model of the strided reader: the bytes
+   * between the spans are read too, but fewer calls are needed. The
+   * function is called for each run with its 0-based position in the range
+   * and the position of its span in the block.
+   */
+  private void readSpans(int runStart, int runCount, int start, int length,
+    SpanFn fn) throws IOException {
+    int spanBytes = length * elemSize;
+    int runBytes = runLength * elemSize;
+    boolean coalesce = spanBytes == runBytes
+      || StridedReader.useBlocks(spanBytes, runBytes);
+    int runsPerBlock = !coalesce || spanBytes >= BLOCK_SIZE
+      ? 1
+      : Math.min(runCount, 1 + (BLOCK_SIZE - spanBytes) / runBytes);
+    var block = BufferPool.get(
+      (runsPerBlock - 1) * runBytes + spanBytes, false, header.byteOrder());
+    var bytes = block.array();
+
+    try {
+      int r = 0;
+      while (r < runCount) {
+        int k = Math.min(runsPerBlock, runCount - r);
+        long offset = (long) (runStart + r) * runBytes
+          + (long) start * elemSize;
+        readFully(block, offset, (k - 1) * runBytes + spanBytes);
+        for (int i = 0; i < k; i++) {
+          fn.accept(bytes, r + i, i * runBytes);
+        }
+        r += k;
+      }
+    } finally {
+      BufferPool.release(block);
+    }
+  }
+
+  @FunctionalInterface
+  private interface SpanFn {
+    void accept(byte[] block, int run, int base);
+  }
+
+  /**
+   * Reads {@code length} bytes, starting at the given byte offset of the
+   * data region, into the beginning of the block.
+   */
+  private void readFully(ByteBuffer block, long offset, int length)
+    throws IOException {
+    block.clear().limit(length);
+    long pos = header.dataOffset() + offset;
+    while (block.hasRemaining()) {
+      int k = channel.read(block, pos + block.position());
+      if (k < 0)
+        throw new NpyFormatException(
+          "unexpected end of file at position " + (pos + block.position()));
+    }
+  }
+
+  private NpyArray<?> decode(byte[] bytes, int rows, int cols) {
+    var dict = header.dict();
+    var resultDict = NpyHeaderDict.of(dict.dataType())
+      .withByteOrder(dict.byteOrder())
+      .withFortranOrder(dict.hasFortranOrder())
+      .withShape(new int[]{rows, cols})
+      .create();
+    var reader = NpyArrayReader.of(resultDict);
+    reader.readAllFrom(ByteBuffer.wrap(bytes).order(header.byteOrder()));
+    return reader.finish();
+  }
+}
@@ -0,0 +1,215 @@
+package org.openlca.npy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A NumPy-like slice of an N-dimensional array, e.g. {@code 2:10, :, ::4}.
+ * The expression contains one entry per dimension, separated by commas.
+ * An entry is either:
+ * <ul>
+ *   <li>a range {@code start:stop:step} where each part is optional; the
+ *   start is inclusive, the stop exclusive, and the step needs to be
+ *   positive</li>
+ *   <li>a single index, which selects one element of the dimension and
+ *   removes the dimension from the shape of the result</li>
+ *   <li>an ellipsis {@code ...} that stands for all dimensions that are not
+ *   given in the expression</li>
+ * </ul>
+ * Negative start, stop, and index values count from the end of the
+ * dimension, and dimensions that are not given are fully selected, just like
+ * in NumPy.
+ *
+ * <pre>{@code
+ * var array = Npy.slice(file, Slice.of("2:10, :, ::4"));
+ * }</pre>
+ */
+public final class Slice {
+
+  private final String expression;
+  private final List<Entry> entries;
+
+  private Slice(String expression, List<Entry> entries) {
+    this.expression = expression;
+    this.entries = entries;
+  }
+
+  /**
+   * Parses the given slice expression.
+   *
+   * @param expression the slice expression, e.g. {@code "2:10, :, ::4"}
+   * @return the parsed slice
+   * @throws IllegalArgumentException if the expression is not valid
+   */
+  public static Slice of(String expression) {
+    if (expression == null)
+      throw new IllegalArgumentException("slice expression is null");
+    var entries = new ArrayList<Entry>();
+    boolean hasEllipsis = false;
+    var s = expression.trim();
+    if (s.isEmpty())
+      return new Slice(expression, entries);
+    for (var part : s.split(",", -1)) {
+      var p = part.trim();
+      if (p.equals("...")) {
+        if (hasEllipsis)
+          throw new IllegalArgumentException(
+            "only one ellipsis is allowed: " + expression);
+        hasEllipsis = true;
+        entries.add(Entry.ELLIPSIS);
+        continue;
+      }
+      entries.add(Entry.parse(p, expression));
+    }
+    return new Slice(expression, entries);
+  }
+
+  @Override
+  public String toString() {
+    return expression;
+  }
+
+  /**
+   * Resolves this slice against the given shape. Returns one range for each
+   * dimension of the shape.
+   *
+   * @throws IllegalArgumentException  if the slice has more entries than
+   *                                   the shape has dimensions
+   * @throws IndexOutOfBoundsException if a single index is out of the bounds
+   *                                   of its dimension
+   */
+  Range[] resolve(int[] shape) {
+    int given = 0;
+    for (var e : entries) {
+      if (e != Entry.ELLIPSIS) {
+        given++;
+      }
+    }
+    if (given > shape.length)
+      throw new IllegalArgumentException("the slice " + expression
+        + " has more entries than the array has dimensions: "
+        + shape.length);
+
+    var ranges = new Range[shape.length];
+    int dim = 0;
+    for (var e : entries) {
+      if (e == Entry.ELLIPSIS) {
+        int n = shape.length - given;
+        for (int i = 0; i < n; i++, dim++) {
+          ranges[dim] = Range.all(shape[dim]);
+        }
+        continue;
+      }
+      ranges[dim] = e.resolve(shape[dim]);
+      dim++;
+    }
+    for (; dim < shape.length; dim++) {
+      ranges[dim] = Range.all(shape[dim]);
+    }
+    return ranges;
+  }
+
+  /**
+   * A resolved range of a dimension: {@code count} indices, starting at
+   * {@code start}, with a distance of {@code step}. When the range was
+   * given as a single index, the dimension is dropped from the result.
+   */
+  static final class Range {
+
+    final int start;
+    final int count;
+    final int step;
+    final boolean isIndex;
+    final int size;
+
+    private Range(int start, int count, int step, boolean isIndex, int size) {
+      this.start = start;
+      this.count = count;
+      this.step = step;
+      this.isIndex = isIndex;
+      this.size = size;
+    }
+
+    static Range all(int size) {
+      return new Range(0, size, 1, false, size);
+    }
+
+    /**
+     * Returns {@code true} if the range selects all elements of the
+     * dimension.
+     */
+    boolean isFull() {
+      return start == 0 && count == size && (step == 1 || count <= 1);
+    }
+  }
+
+  private static final class Entry {
+
+    static final Entry ELLIPSIS = new Entry(null, null, 1, false);
+
+    private final Integer start;
+    private final Integer stop;
+    private final int step;
+    private final boolean isIndex;
+
+    private Entry(Integer start, Integer stop, int step, boolean isIndex) {
+      this.start = start;
+      this.stop = stop;
+      this.step = step;
+      this.isIndex = isIndex;
+    }
+
+    static Entry parse(String s, String expression) {
+      var parts = s.split(":", -1);
+      if (parts.length > 3)
+        throw new IllegalArgumentException(
+          "invalid slice entry '" + s + "' in " + expression);
+      try {
+        if (parts.length == 1) {
+          if (parts[0].isEmpty())
+            throw new IllegalArgumentException(
+              "empty slice entry in " + expression);
+          int index = Integer.parseInt(parts[0].trim());
+          return new Entry(index, null, 1, true);
+        }
+        var start = intOf(parts[0]);
+        var stop = intOf(parts[1]);
+        var step = parts.length == 3 ? intOf(parts[2]) : null;
+        if (step != null && step <= 0)
+          throw new IllegalArgumentException(
+            "only positive steps are supported: " + expression);
+        return new Entry(start, stop, step == null ? 1 : step, false);
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException(
+          "invalid slice entry '" + s + "' in " + expression, e);
+      }
+    }
+
+    private static Integer intOf(String s) {
+      var t = s.trim();
+      return t.isEmpty() ? null : Integer.parseInt(t);
+    }
+
+    Range resolve(int size) {
+      if (isIndex) {
+        int i = start < 0 ? start + size : start;
+        if (i < 0 || i >= size)
+          throw new IndexOutOfBoundsException(
+            "index " + start + " is out of bounds for a dimension of "
+              + size);
+        return new Range(i, 1, 1, true, size);
+      }
+      int from = clamp(start == null ? 0 : start, size);
+      int to = clamp(stop == null ? size : stop, size);
+      int count = to <= from
+        ? 0
+        : (to - from + step - 1) / step;
+      return new Range(from, count, step, false, size);
+    }
+
+    private static int clamp(int i, int size) {
+      int j = i < 0 ? i + size : i;
+      return Math.max(0, Math.min(j, size));
+    }
+  }
+}
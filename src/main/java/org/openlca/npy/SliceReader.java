@@ -0,0 +1,129 @@
+package org.openlca.npy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.openlca.npy.dict.NpyHeaderDict;
+
+/**
+ * Reads a slice of an N-dimensional array from an NPY file. The slice is
+ * planned as a sequence of contiguous runs of elements in the storage order
+ * of the file: the innermost dimensions (the last dimensions in C order, the
+ * first dimensions in Fortran order) that are fully selected are merged with
+ * the next dimension if it has a step of 1. The runs are read in ascending
+ * file order with a {@link RunReader}, which coalesces runs with small gaps
+ * between them into single reads.
+ */
+class SliceReader {
+
+  static NpyArray<?> read(FileChannel channel, NpyHeader header, Slice slice)
+    throws IOException {
+    var dict = header.dict();
+    int elemSize = dict.dataType().size();
+    if (elemSize == 0)
+      throw new IllegalArgumentException(
+        "slices of strings are not supported");
+    var shape = dict.shape();
+    var ranges = slice.resolve(shape);
+
+    // the shape of the result
+    int total = 1;
+    int kept = 0;
+    for (var r : ranges) {
+      total = Math.multiplyExact(total, r.count);
+      if (!r.isIndex) {
+        kept++;
+      }
+    }
+    var resultShape = new int[kept];
+    for (int i = 0, k = 0; i < ranges.length; i++) {
+      if (!ranges[i].isIndex) {
+        resultShape[k++] = ranges[i].count;
+      }
+    }
+
+    // bring the dimensions into storage order, from the slowest to the
+    // fastest changing dimension
+    var dims = ranges.clone();
+    if (dict.hasFortranOrder()) {
+      for (int i = 0; i < dims.length / 2; i++) {
+        var tmp = dims[i];
+        dims[i] = dims[dims.length - 1 - i];
+        dims[dims.length - 1 - i] = tmp;
+      }
+    }
+    int n = dims.length;
+    var strides = new long[n];
+    for (int i = n - 1; i >= 0; i--) {
+      strides[i] = i == n - 1
+        ? 1
+        : strides[i + 1] * dims[i + 1].size;
+    }
+
+    // find the dimensions that form a contiguous run
+    long runLength = 1;
+    int outer = n;
+    while (outer > 0 && dims[outer - 1].isFull()) {
+      runLength *= dims[outer - 1].size;
+      outer--;
+    }
+    if (outer > 0 && dims[outer - 1].step == 1) {
+      runLength *= dims[outer - 1].count;
+      outer--;
+    }
+
+    var out = new byte[Math.multiplyExact(total, elemSize)];
+    if (total > 0) {
+      try (var reader = new RunReader(
+        channel, header.dataOffset(), out, 0, out.length)) {
+        readRuns(reader, dims, strides, outer,
+          Math.toIntExact(runLength * elemSize), elemSize);
+      }
+    }
+
+    var resultDict = NpyHeaderDict.of(dict.dataType())
+      .withByteOrder(dict.byteOrder())
+      .withFortranOrder(dict.hasFortranOrder())
+      .withShape(resultShape)
+      .create();
+    var builder = NpyArrayReader.of(resultDict);
+    var bytes = ByteBuffer.wrap(out).order(header.byteOrder());
+    builder.readAllFrom(bytes);
+    return builder.finish();
+  }
+
+  /**
+   * Iterates over all index combinations of the outer dimensions with an
+   * odometer and adds the run of each combination to the reader.
+   */
+  private static void readRuns(RunReader reader, Slice.Range[] dims,
+    long[] strides, int outer, int runBytes, int elemSize)
+    throws IOException {
+    var counters = new int[outer];
+    long base = 0;
+    for (int i = 0; i < dims.length; i++) {
+      base += dims[i].start * strides[i];
+    }
+    while (true) {
+      long offset = base;
+      for (int i = 0; i < outer; i++) {
+        offset += (long) counters[i] * dims[i].step * strides[i];
+      }
+      reader.add(offset * elemSize, runBytes);
+
+      // increment the odometer
+      int i = outer - 1;
+      while (i >= 0) {
+        counters[i]++;
+        if (counters[i] < dims[i].count)
+          break;
+        counters[i] = 0;
+        i--;
+      }
+      if (i < 0)
+        break;
+    }
+    reader.flush();
+  }
+}
@@ -0,0 +1,132 @@
+package org.openlca.npy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Reads elements that are stored with a fixed distance (stride) in a file,
+ * e.g. a row of a matrix in column-major order. Depending on the stride, the
+ * elements are either read with positional reads of single elements, or the
+ * spanned region is read in large blocks from which the elements are then
+ * extracted. The strategy is selected by a simple cost model: reading a
+ * block wastes the bytes between the elements but saves system calls, and
+ * we assume that a read call costs about as much as transferring
+ * {@link #CALL_COST} bytes.
+ */
+class StridedReader {
+
+  /**
+   * The estimated cost of a read call, in number of bytes that could be
+   * transferred from the page cache in the same time.
+   */
+  static final int CALL_COST = 8 * 1024;
+
+  /**
+   * The size of the blocks that are read when the elements are read in
+   * blocks.
+   */
+  static final int BLOCK_SIZE = 1024 * 1024;
+
+  private final FileChannel channel;
+  private final int elemSize;
+  private final long stride;
+
+  /**
+   * Creates a reader for elements with the given size and stride (both in
+   * bytes). A reader can be reused for multiple reads, which is useful when
+   * the same kind of elements is read many times, e.g. by a cursor.
+   */
+  StridedReader(FileChannel channel, int elemSize, long stride) {
+    this.channel = channel;
+    this.elemSize = elemSize;
+    this.stride = stride;
+  }
+
+  /**
+   * Returns {@code true} if elements with the given size and stride (both in
+   * bytes) should be read in blocks. Per element, a block read costs the
+   * stride in bytes plus a fraction of a call, and a single read costs the
+   * element size plus a full call.
+   */
+  static boolean useBlocks(int elemSize, long stride) {
+    if (stride > BLOCK_SIZE)
+      return false;
+    return stride * (BLOCK_SIZE + CALL_COST)
+      < (long) (elemSize + CALL_COST) * BLOCK_SIZE;
+  }
+
+  /**
+   * Reads {@code n} elements of the given size, starting at the byte
+   * position {@code start} in the channel, with a distance of
+   * {@code stride} bytes between two elements. The elements are written
+   * to the given buffer which needs to have enough space for them.
+   */
+  static void read(FileChannel channel, long start, int n, int elemSize,
+    long stride, ByteBuffer out) throws IOException {
+    new StridedReader(channel, elemSize, stride).read(start, n, out);
+  }
+
+  /**
+   * Reads {@code n} elements, starting at the byte position {@code start}
+   * in the channel, into the given buffer.
+   */
+  void read(long start, int n, ByteBuffer out) throws IOException {
+    if (n < 2 || !useBlocks(elemSize, stride)) {
+      readSingles(start, n, out);
+    } else {
+      readBlocks(start, n, out);
+    }
+  }
+
+  private void readSingles(long start, int n, ByteBuffer out)
+    throws IOException {
+    for (int i = 0; i < n; i++) {
+      long pos = start + i * stride;
+      out.limit(out.position() + elemSize);
+      while (out.hasRemaining()) {
+        int k = channel.read(out, pos);
+        if (k < 0)
+          throw new IndexOutOfBoundsException(
+            "failed to read " + n + " elements from file");
+        pos += k;
+      }
+    }
+  }
+
+  private void readBlocks(long start, int n, ByteBuffer out)
+    throws IOException {
+    var block = BufferPool.get(
+      (int) Math.min(BLOCK_SIZE, (n - 1) * stride + elemSize),
+      false, out.order());
+    var bytes = block.array();
+    try {
+      int i = 0;
+      while (i < n) {
+
+        // fill the block, starting at the next element
+        long blockStart = start + i * stride;
+        long end = start + (n - 1) * stride + elemSize;
+        block.clear();
+        block.limit((int) Math.min(block.capacity(), end - blockStart));
+        while (block.hasRemaining()) {
+          int k = channel.read(block, blockStart + block.position());
+          if (k < 0)
+            throw new IndexOutOfBoundsException(
+              "failed to read " + n + " elements from file");
+        }
+
+        // extract the elements that are completely in the block
+        long offset = 0;
+        int limit = block.limit();
+        while (i < n && offset + elemSize <= limit) {
+          out.put(bytes, (int) offset, elemSize);
+          offset += stride;
+          i++;
+        }
+      }
+    } finally {
+      BufferPool.release(block);
+    }
+  }
+}
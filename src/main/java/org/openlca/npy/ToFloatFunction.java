@@ -1,8 +0,0 @@
-package org.openlca.npy;
-
-@FunctionalInterface
-interface ToFloatFunction<T> {
-
-  float applyAsFloat(T value);
-
-}
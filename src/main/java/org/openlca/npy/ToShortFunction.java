@@ -1,8 +0,0 @@
-package org.openlca.npy;
-
-@FunctionalInterface
-interface ToShortFunction<T> {
-
-  short applyAsShort(T value);
-
-}
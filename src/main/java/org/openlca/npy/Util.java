@@ -48,38 +48,161 @@ class Util {
     return upper.shiftLeft(32).add(lower);
   }
 
+  /**
+   * Reads the next element of the given numeric type from the buffer and
+   * converts it to a {@code double} value. Values of type {@code u8} are
+   * converted as unsigned values.
+   */
+  static double getDouble(ByteBuffer buffer, NpyDataType type) {
+    switch (type) {
+      case f8:
+        return buffer.getDouble();
+      case f4:
+        return buffer.getFloat();
+      case f2:
+        return f2ToFloat(buffer);
+      case u8:
+        return NpyUnsignedLongArray.toDouble(buffer.getLong());
+      default:
+        return getLong(buffer, type);
+    }
+  }
+
+  /**
+   * Reads the next element of the given numeric type from the buffer and
+   * converts it to a {@code long} value like a Java cast. Values of type
+   * {@code u8} are returned with the same 64 bits.
+   */
+  static long getLong(ByteBuffer buffer, NpyDataType type) {
+    switch (type) {
+      case f8:
+        return (long) buffer.getDouble();
+      case f4:
+        return (long) buffer.getFloat();
+      case f2:
+        return (long) f2ToFloat(buffer);
+      case i8:
+      case u8:
+        return buffer.getLong();
+      case i4:
+        return buffer.getInt();
+      case u4:
+        return u4ToLong(buffer);
+      case i2:
+        return buffer.getShort();
+      case u2:
+        return u2ToInt(buffer);
+      case i1:
+        return buffer.get();
+      case u1:
+        return u1ToShort(buffer);
+      case bool:
+        return buffer.get() != 0 ? 1 : 0;
+      default:
+        throw new IllegalArgumentException("not a numeric type: " + type);
+    }
+  }
+
   static float f2ToFloat(ByteBuffer buffer) {
-    return toFloat(buffer.getShort() & 0xffff);
+    return F16.TABLE[buffer.getShort() & 0xffff];
+  }
+
+  /**
+   * Converts the given bits of a 16 bit floating point number into a 32 bit
+   * floating point number via a lookup table.
+   */
+  static float f2ToFloat(short bits) {
+    return F16.TABLE[bits & 0xffff];
   }
 
   /**
    * Converts a 16 bit floating point number to a 32 bit floating point number.
    * The 16 bits are stored in the given integer parameter, the higher 16 bits
-   * are ignored. This function was directly taken from here:
-   * https://stackoverflow.com/a/6162687.
+   * are ignored. All half-precision values, including subnormal numbers,
+   * infinities, and NaNs, can be represented exactly as {@code float} values.
+   * This is only used to initialize the lookup table of {@link F16}.
+   */
+  static float toFloat(int hbits) {
+    int sign = (hbits & 0x8000) << 16;
+    int exp = (hbits >>> 10) & 0x1f;
+    int mant = hbits & 0x03ff;
+    if (exp == 0x1f)                    // Inf/NaN, keep the NaN payload
+      return Float.intBitsToFloat(sign | 0x7f800000 | mant << 13);
+    if (exp == 0) {                     // +/-0 or subnormal: mant * 2^-24
+      float f = mant * 0x1.0p-24f;
+      return sign == 0 ? f : -f;
+    }
+    return Float.intBitsToFloat(        // rebias the exponent: -15 + 127
+      sign | (exp + 112) << 23 | mant << 13);
+  }
+
+  /**
+   * Converts the given {@code float} value into the bits of the nearest 16 bit
+   * floating point number, with ties rounded to even like in NumPy. Values
+   * that are too large become infinite, values that are too small become
+   * subnormal numbers or zero, and NaNs stay NaNs with the upper bits of their
+   * payload.
+   */
+  static short floatToF2(float value) {
+    int bits = Float.floatToRawIntBits(value);
+    int sign = (bits >>> 16) & 0x8000;
+    int abs = bits & 0x7fffffff;
+    if (abs >= 0x7f800000)              // Inf/NaN
+      return (short) (abs == 0x7f800000
+        ? sign | 0x7c00
+        : sign | 0x7e00 | (abs >>> 13) & 0x3ff);
+    if (abs >= 0x477ff000)              // >= 65520 rounds to infinity
+      return (short) (sign | 0x7c00);
+    if (abs < 0x38800000) {             // < 2^-14: subnormal; the scaling
+      // is exact and rint rounds ties to even
+      int m = (int) Math.rint(Float.intBitsToFloat(abs) * 0x1.0p24f);
+      return (short) (sign | m);
+    }
+    // rebias the exponent (-127 + 15) and round to nearest even without a
+    // branch: add just less than half an ulp, plus one if the last kept bit
+    // is odd, and truncate; a carry goes into the exponent
+    int e = abs - 0x38000000;
+    e += 0xfff + ((e >>> 13) & 1);
+    return (short) (sign | e >>> 13);
+  }
+
+  /**
+   * Same as {@link #floatToF2(float)} but for {@code double} values. The
+   * value is rounded only once, directly from double precision, which gives
+   * other results than rounding to {@code float} first for some values.
    */
-  private static float toFloat(int hbits) {
-    int mant = hbits & 0x03ff;           // 10 bits mantissa
-    int exp = hbits & 0x7c00;            // 5 bits exponent
-    if (exp == 0x7c00)                   // NaN/Inf
-      exp = 0x3fc00;                     // -> NaN/Inf
-    else if (exp != 0)                   // normalized value
-    {
-      exp += 0x1c000;                   // exp - 15 + 127
-      if (mant == 0 && exp > 0x1c400)   // smooth transition
-        return Float.intBitsToFloat((hbits & 0x8000) << 16
-                                    | exp << 13 | 0x3ff);
-    } else if (mant != 0)                  // && exp==0 -> subnormal
-    {
-      exp = 0x1c400;                    // make it normal
-      do {
-        mant <<= 1;                     // mantissa * 2
-        exp -= 0x400;                   // decrease exp by 1
-      } while ((mant & 0x400) == 0);    // while not normal
-      mant &= 0x3ff;                    // discard subnormal bit
-    }                                     // else +/-0 -> +/-0
-    return Float.intBitsToFloat(          // combine all parts
-      (hbits & 0x8000) << 16          // sign  << ( 31 - 15 )
-      | (exp | mant) << 13);          // value << ( 23 - 10 )
+  static short doubleToF2(double value) {
+    long bits = Double.doubleToRawLongBits(value);
+    int sign = (int) (bits >>> 48) & 0x8000;
+    long abs = bits & 0x7fffffffffffffffL;
+    if (abs >= 0x7ff0000000000000L)     // Inf/NaN
+      return (short) (abs == 0x7ff0000000000000L
+        ? sign | 0x7c00
+        : sign | 0x7e00 | (int) (abs >>> 42) & 0x3ff);
+    if (abs >= 0x40effe0000000000L)     // >= 65520 rounds to infinity
+      return (short) (sign | 0x7c00);
+    if (abs < 0x3f10000000000000L) {    // < 2^-14: subnormal
+      int m = (int) Math.rint(Double.longBitsToDouble(abs) * 0x1.0p24);
+      return (short) (sign | m);
+    }
+    long e = abs - (1008L << 52);       // rebias the exponent: -1023 + 15
+    e += 0x1ffffffffffL + ((e >>> 42) & 1);
+    return (short) (sign | (int) (e >>> 42));
+  }
+
+  /**
+   * Holds the lookup table with the {@code float} values of all 65536
+   * half-precision bit patterns (256 KB). The table is initialized when the
+   * first {@code f2} value is decoded.
+   */
+  private static final class F16 {
+
+    static final float[] TABLE = new float[1 << 16];
+
+    static {
+      for (int i = 0; i < TABLE.length; i++) {
+        TABLE[i] = toFloat(i);
+      }
+    }
   }
 }
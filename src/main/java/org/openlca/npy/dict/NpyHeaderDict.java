@@ -22,7 +22,7 @@ public class NpyHeaderDict {
   private final NpyDataType dataType;
   private final NpyByteOrder byteOrder;
   private final boolean fortranOrder;
-  private final int[] shape;
+  private final long[] shape;
   private final Map<String, String> properties;
   private final int typeSize;
 
@@ -32,7 +32,7 @@ public class NpyHeaderDict {
 
     // shape
     this.shape = builder.shape == null
-      ? new int[0]
+      ? new long[0]
       : Arrays.copyOf(builder.shape, builder.shape.length);
 
     // byte order
@@ -97,8 +97,20 @@ public class NpyHeaderDict {
    * @param i the 0-based dimension for which the size is requested.
    * @return the size of the requested dimension
    * @throws IndexOutOfBoundsException if {@code i < 0 || i >= dimensions()}
+   * @throws ArithmeticException       if the size of the dimension does not
+   *                                   fit into an {@code int}; use
+   *                                   {@link #longSizeOfDimension(int)} in
+   *                                   this case
    */
   public int sizeOfDimension(int i) {
+    return toInt(longSizeOfDimension(i));
+  }
+
+  /**
+   * Same as {@link #sizeOfDimension(int)} but returns the size as
+   * {@code long} value.
+   */
+  public long longSizeOfDimension(int i) {
     if (i < 0 || i >= shape.length)
       throw new IndexOutOfBoundsException(i);
     return shape[i];
@@ -112,7 +124,7 @@ public class NpyHeaderDict {
    * @return the size of the stored array in bytes
    */
   public long dataSize() {
-    long elemCount = numberOfElements();
+    long elemCount = longNumberOfElements();
     var type = dataType();
     if (type.size() != 0)
       return elemCount * typeSize();
@@ -125,12 +137,23 @@ public class NpyHeaderDict {
    * Returns the number of elements that are stored in the array.
    *
    * @return the number of elements which is the product of all dimension sizes.
+   * @throws ArithmeticException if the number of elements does not fit into
+   *                             an {@code int}; use
+   *                             {@link #longNumberOfElements()} in this case
    */
   public int numberOfElements() {
-    int count = 1;
-    int n = dimensions();
-    for (int i = 0; i < n; i++) {
-      count *= sizeOfDimension(i);
+    return toInt(longNumberOfElements());
+  }
+
+  /**
+   * Same as {@link #numberOfElements()} but returns the number of elements
+   * as {@code long} value. Arrays with more than {@code 2^31 - 1} elements
+   * can be read into an {@link org.openlca.npy.NpyLargeArray}.
+   */
+  public long longNumberOfElements() {
+    long count = 1;
+    for (long dim : shape) {
+      count = Math.multiplyExact(count, dim);
     }
     return count;
   }
@@ -140,6 +163,9 @@ public class NpyHeaderDict {
    * allocated array each time you call this method.
    *
    * @return the shape of the stored array
+   * @throws ArithmeticException if a dimension does not fit into an
+   *                             {@code int}; use {@link #longShape()} in this
+   *                             case
    */
   public int[] shape() {
     int n = dimensions();
@@ -150,6 +176,22 @@ public class NpyHeaderDict {
     return shape;
   }
 
+  /**
+   * Same as {@link #shape()} but returns the dimensions as {@code long}
+   * values.
+   */
+  public long[] longShape() {
+    return Arrays.copyOf(shape, shape.length);
+  }
+
+  private static int toInt(long value) {
+    if (value > Integer.MAX_VALUE)
+      throw new ArithmeticException(
+        value + " exceeds the range of int; use the long-valued methods " +
+          "of the header and large arrays for such data");
+    return (int) value;
+  }
+
   public String property(String key) {
     return properties.get(key);
   }
@@ -244,7 +286,7 @@ public class NpyHeaderDict {
     }
   }
 
-  private static int[] getShape(PyDict dict) throws NpyFormatException {
+  private static long[] getShape(PyDict dict) throws NpyFormatException {
     var entry = dict.get("shape");
     if (entry.isNone()) {
       throw new NpyFormatException(
@@ -256,7 +298,7 @@ public class NpyHeaderDict {
     }
 
     var tuple = entry.asTuple();
-    int[] shape = new int[tuple.size()];
+    long[] shape = new long[tuple.size()];
     for (int i = 0; i < tuple.size(); i++) {
       var value = tuple.at(i);
       if (!value.isInt()) {
@@ -264,7 +306,13 @@ public class NpyHeaderDict {
           "invalid header dictionary: argument "
           + i + " of tuple 'shape' is not an integer");
       }
-      shape[i] = (int) value.asInt().value();
+      long dim = value.asInt().value();
+      if (dim < 0) {
+        throw new NpyFormatException(
+          "invalid header dictionary: argument "
+          + i + " of tuple 'shape' is negative");
+      }
+      shape[i] = dim;
     }
     return shape;
   }
@@ -326,6 +374,19 @@ public class NpyHeaderDict {
   }
 
   public byte[] toNpyHeader() {
+    return toNpyHeader(0);
+  }
+
+  /**
+   * Same as {@link #toNpyHeader()} but pads the header with spaces so that it
+   * has at least the given length in bytes. This can be used to reserve space
+   * in a file so that the header can be later updated in place, e.g. with a
+   * larger shape. The length should be a multiple of 64.
+   *
+   * @param minLength the minimum length of the header in bytes
+   * @return the bytes of the header
+   */
+  public byte[] toNpyHeader(int minLength) {
 
     int version = 1;
 
@@ -344,13 +405,13 @@ public class NpyHeaderDict {
     int filled = version == 1
       ? 11 + dictBytes.length
       : 13 + dictBytes.length;
-    int padding = 64 - (filled % 64);
+    int padding = paddingOf(filled, minLength);
     int totalLen = filled + padding;
 
     if (version == 1 && totalLen > 65535) {
       version = 2;
       filled = 13 + dictBytes.length;
-      padding = 64 - (filled % 64);
+      padding = paddingOf(filled, minLength);
       totalLen = filled + padding;
     }
 
@@ -381,10 +442,22 @@ public class NpyHeaderDict {
     return buf.array();
   }
 
+  /**
+   * Returns the number of spaces that need to be added to a header with the
+   * given number of bytes so that its length is a multiple of 64 and at least
+   * {@code minLength}.
+   */
+  private static int paddingOf(int filled, int minLength) {
+    int padding = 64 - (filled % 64);
+    return filled + padding < minLength
+      ? minLength - filled
+      : padding;
+  }
+
   public static class Builder {
 
     private final NpyDataType dataType;
-    private int[] shape;
+    private long[] shape;
     private NpyByteOrder byteOrder;
     private boolean fortranOrder;
     private Map<String, String> properties;
@@ -395,6 +468,18 @@ public class NpyHeaderDict {
     }
 
     public Builder withShape(int[] shape) {
+      if (shape == null) {
+        this.shape = null;
+        return this;
+      }
+      this.shape = new long[shape.length];
+      for (int i = 0; i < shape.length; i++) {
+        this.shape[i] = shape[i];
+      }
+      return this;
+    }
+
+    public Builder withShape(long[] shape) {
       this.shape = shape;
       return this;
     }
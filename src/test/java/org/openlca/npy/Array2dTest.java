@@ -1,10 +1,13 @@
 package org.openlca.npy;
 
+import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.util.function.Function;
 
 import static org.junit.Assert.*;
 
 import org.junit.Test;
+import org.openlca.npy.dict.NpyHeaderDict;
 
 public class Array2dTest {
 
@@ -87,4 +90,292 @@ public class Array2dTest {
     }, 4, 3));
     assertArrayEquals(new double[]{1, 5, 9}, diag.data(), 1e-10);
   }
+
+  @Test
+  public void testReadOffDiagonals() {
+    int rows = 40, cols = 70;
+    var data = new double[rows * cols];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = i;
+    }
+    for (var array : new NpyDoubleArray[]{
+      NpyDoubleArray.rowOrderOf(data, rows, cols),
+      NpyDoubleArray.columnOrderOf(data, rows, cols)}) {
+      Tests.withFile(file -> {
+        Npy.write(file, array);
+        for (int k = -rows + 1; k < cols; k += 3) {
+          var expected = diagOf(array, k);
+          var diag = Array2d.readDiag(file, k).asDoubleArray();
+          assertArrayEquals(expected, diag.data(), 0);
+          try (var raf = new RandomAccessFile(file, "r")) {
+            var header = NpyHeader.read(raf.getChannel());
+            var par = Array2d.readDiag(raf, header, k, 4).asDoubleArray();
+            assertArrayEquals(expected, par.data(), 0);
+          } catch (IOException e) {
+            throw new RuntimeException(e);
+          }
+        }
+        assertThrows(IndexOutOfBoundsException.class,
+          () -> Array2d.readDiag(file, cols));
+        assertThrows(IndexOutOfBoundsException.class,
+          () -> Array2d.readDiag(file, -rows));
+      });
+    }
+  }
+
+  @Test
+  public void testReadDiagOfStrings() {
+    // the previous implementation read single bytes of the strings
+    for (var type : new NpyDataType[]{NpyDataType.S, NpyDataType.U}) {
+      Tests.withFile(file -> {
+        var dict = NpyHeaderDict.of(type)
+          .withTypeSize(3)
+          .withShape(new int[]{3, 3})
+          .create();
+        int charSize = type == NpyDataType.U ? 4 : 1;
+        Npy.write(file, dict, new byte[9 * 3 * charSize]);
+        assertThrows(IllegalArgumentException.class,
+          () -> Array2d.readDiag(file));
+        assertThrows(IllegalArgumentException.class,
+          () -> Array2d.readBand(file, 1));
+      });
+    }
+  }
+
+  @Test
+  public void testReadBand() {
+    var data = new double[]{
+      1, 2, 3, 4,
+      5, 6, 7, 8,
+      9, 10, 11, 12
+    };
+    for (var array : new NpyDoubleArray[]{
+      NpyDoubleArray.rowOrderOf(data, 3, 4),
+      NpyDoubleArray.columnOrderOf(data, 3, 4)}) {
+      Tests.withFile(file -> {
+        Npy.write(file, array);
+        var band = Array2d.readBand(file, 3);
+        assertEquals(7, band.length);
+        for (int d = -3; d <= 3; d++) {
+          var diag = band[d + 3].asDoubleArray().data();
+          var expected = d == -3 ? new double[0] : diagOf(array, d);
+          assertArrayEquals("diagonal " + d, expected, diag, 0);
+        }
+      });
+    }
+  }
+
+  private static double[] diagOf(NpyDoubleArray array, int k) {
+    int rows = array.shape()[0];
+    int cols = array.shape()[1];
+    int n = k >= 0
+      ? Math.min(rows, cols - k)
+      : Math.min(rows + k, cols);
+    var diag = new double[n];
+    for (int i = 0; i < n; i++) {
+      int row = k >= 0 ? i : i - k;
+      int col = k >= 0 ? i + k : i;
+      diag[i] = Array2d.get(array, row, col);
+    }
+    return diag;
+  }
+
+  @Test
+  public void testWriteRowAndColumn() {
+    var data = new double[]{1, 2, 3, 4, 5, 6};
+    for (var array : new NpyDoubleArray[]{
+      NpyDoubleArray.rowOrderOf(data, 2, 3),
+      NpyDoubleArray.columnOrderOf(data, 2, 3)}) {
+      Tests.withFile(file -> {
+        Npy.write(file, array);
+        Array2d.writeRow(file, 1,
+          NpyDoubleArray.vectorOf(new double[]{10, 11, 12}));
+        Array2d.writeColumn(file, 2,
+          NpyDoubleArray.vectorOf(new double[]{20, 21}));
+        var r = Npy.read(file).asDoubleArray();
+        assertEquals(array.hasColumnOrder(), r.hasColumnOrder());
+        var row0 = Array2d.getRow(array, 0);
+        assertArrayEquals(new double[]{row0[0], row0[1], 20},
+          Array2d.getRow(r, 0), 0);
+        assertArrayEquals(new double[]{10, 11, 21}, Array2d.getRow(r, 1), 0);
+      });
+    }
+  }
+
+  @Test
+  public void testWriteBigEndian() {
+    Tests.withFile(file -> {
+      var dict = NpyHeaderDict.of(NpyDataType.i4)
+        .withShape(new int[]{3, 2})
+        .withByteOrder(NpyByteOrder.BIG_ENDIAN)
+        .create();
+      Npy.write(file, dict, new byte[24]);
+      Array2d.writeColumn(file, 1, NpyIntArray.vectorOf(new int[]{1, 2, 3}));
+      Array2d.writeRow(file, 0, NpyIntArray.vectorOf(new int[]{-1, -2}));
+      var r = Npy.read(file).asIntArray();
+      assertArrayEquals(new int[]{-1, -2, 0, 2, 0, 3}, r.data());
+    });
+  }
+
+  @Test
+  public void testWriteBlock() {
+    for (boolean fortran : new boolean[]{false, true}) {
+      Tests.withFile(file -> {
+        var matrix = new NpyIntArray(new int[]{3, 4}, new int[12], fortran);
+        Npy.write(file, matrix);
+        // the block is in row-major order, independent of the file
+        var block = NpyIntArray.rowOrderOf(new int[]{1, 2, 3, 4}, 2, 2);
+        Array2d.writeBlock(file, 1, 2, block);
+        var r = Npy.read(file).asIntArray();
+        assertArrayEquals(new int[]{0, 0, 0, 0}, Array2d.getRow(r, 0));
+        assertArrayEquals(new int[]{0, 0, 1, 2}, Array2d.getRow(r, 1));
+        assertArrayEquals(new int[]{0, 0, 3, 4}, Array2d.getRow(r, 2));
+        assertThrows(RuntimeException.class,
+          () -> Array2d.writeBlock(file, 2, 2, block));
+      });
+    }
+  }
+
+  @Test
+  public void testWriteBlockInOtherOrder() {
+    // the blocks are in row-major order and the files in column-major order
+    Tests.withFile(file -> {
+      Npy.write(file, new NpyFloat16Array(
+        new int[]{3, 4}, new short[12], true));
+      var block = new NpyFloat16Array(new int[]{2, 2},
+        NpyFloat16Array.encode(new float[]{1, 2, 3, 4}), false);
+      Array2d.writeBlock(file, 1, 2, block);
+      var r = Npy.read(file).asFloatArray();
+      assertArrayEquals(new float[]{0, 0, 1, 2}, Array2d.getRow(r, 1), 0);
+      assertArrayEquals(new float[]{0, 0, 3, 4}, Array2d.getRow(r, 2), 0);
+    });
+
+    Tests.withFile(file -> {
+      Npy.write(file, NpyBitArray.of(new int[]{3, 4}, true));
+      var bits = NpyBitArray.of(new int[]{2, 2}, false);
+      bits.set(1, true);
+      bits.set(2, true);
+      Array2d.writeBlock(file, 1, 2, bits);
+      var r = Npy.readBits(file);
+      assertTrue(r.hasColumnOrder());
+      assertEquals(2, r.cardinality());
+      assertTrue(r.get(3 * 3 + 1)); // (1, 3)
+      assertTrue(r.get(2 * 3 + 2)); // (2, 2)
+    });
+
+    Tests.withFile(blockFile -> Tests.withFile(file -> {
+      Npy.write(blockFile,
+        NpyDoubleArray.rowOrderOf(new double[]{1, 2, 3, 4}, 2, 2));
+      Npy.write(file, NpyDoubleArray.columnOrderOf(new double[12], 3, 4));
+      try (var block = (MappedArray<?>) Npy.map(blockFile)) {
+        Array2d.writeBlock(file, 1, 2, block);
+      }
+      var r = Npy.read(file).asDoubleArray();
+      assertArrayEquals(new double[]{0, 0, 1, 2}, Array2d.getRow(r, 1), 0);
+      assertArrayEquals(new double[]{0, 0, 3, 4}, Array2d.getRow(r, 2), 0);
+    }));
+  }
+
+  @Test
+  public void testWriteInvalid() {
+    Tests.withFile(file -> {
+      Npy.write(file, NpyDoubleArray.rowOrderOf(new double[6], 2, 3));
+      assertThrows(IllegalArgumentException.class,
+        () -> Array2d.writeRow(file, 0,
+          NpyFloatArray.vectorOf(new float[]{1, 2, 3})));
+      assertThrows(IllegalArgumentException.class,
+        () -> Array2d.writeRow(file, 0,
+          NpyDoubleArray.vectorOf(new double[]{1, 2})));
+      assertThrows(IndexOutOfBoundsException.class,
+        () -> Array2d.writeColumn(file, 3,
+          NpyDoubleArray.vectorOf(new double[]{1, 2})));
+    });
+  }
+
+  @Test
+  public void testReadRowsAndColumns() {
+    Tests.eachNpy(testNpy -> {
+      if (testNpy.dataType().size() < 4)
+        return;
+      // the test matrix is [[0, 1, 2], [3, 4, 5]]
+      var cols = Array2d.readColumns(testNpy.file(), new int[]{2, 0, 2});
+      assertArrayEquals(new int[]{2, 3}, cols.shape());
+      var doubles = cols.asDoubleArray();
+      assertArrayEquals(new double[]{2, 0, 2},
+        Array2d.getRow(doubles, 0), 1e-16);
+      assertArrayEquals(new double[]{5, 3, 5},
+        Array2d.getRow(doubles, 1), 1e-16);
+
+      var rows = Array2d.readRows(testNpy.file(), new int[]{1});
+      assertArrayEquals(new int[]{1, 3}, rows.shape());
+      assertArrayEquals(new double[]{3, 4, 5},
+        rows.asDoubleArray().data(), 1e-16);
+    });
+  }
+
+  @Test
+  public void testReadSelectionsOfLargeMatrix() {
+    int n = 600;
+    var data = new int[n * n];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = i;
+    }
+    for (var matrix : new NpyIntArray[]{
+      NpyIntArray.rowOrderOf(data, n, n),
+      NpyIntArray.columnOrderOf(data, n, n)}) {
+      Tests.withFile(file -> {
+        Npy.write(file, matrix);
+        var indices = new int[]{599, 3, 4, 5, 3, 0, 300};
+        var rows = Array2d.readRows(file, indices).asIntArray();
+        var cols = Array2d.readColumns(file, indices).asIntArray();
+        assertEquals(matrix.hasColumnOrder(), rows.hasColumnOrder());
+        for (int j = 0; j < indices.length; j++) {
+          assertArrayEquals(Array2d.getRow(matrix, indices[j]),
+            Array2d.getRow(rows, j));
+          assertArrayEquals(Array2d.getColumn(matrix, indices[j]),
+            Array2d.getColumn(cols, j));
+        }
+        assertThrows(RuntimeException.class,
+          () -> Array2d.readRows(file, new int[]{600}));
+      });
+    }
+  }
+
+  @Test
+  public void testReadBlock() {
+    int rows = 300;
+    int cols = 500;
+    var data = new long[rows * cols];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = i;
+    }
+    for (var matrix : new NpyLongArray[]{
+      NpyLongArray.rowOrderOf(data, rows, cols),
+      NpyLongArray.columnOrderOf(data, rows, cols)}) {
+      Tests.withFile(file -> {
+        Npy.write(file, matrix);
+        // a small block, full rows, full columns, and an empty block
+        int[][] blocks = {
+          {10, 5, 20, 7},
+          {0, rows, 100, 3},
+          {42, 2, 0, cols},
+          {0, 0, 0, 0},
+        };
+        for (var b : blocks) {
+          var block = Array2d.readBlock(file, b[0], b[1], b[2], b[3])
+            .asLongArray();
+          assertArrayEquals(new int[]{b[1], b[3]}, block.shape());
+          assertEquals(matrix.hasColumnOrder(), block.hasColumnOrder());
+          for (int row = 0; row < b[1]; row++) {
+            for (int col = 0; col < b[3]; col++) {
+              assertEquals(Array2d.get(matrix, b[0] + row, b[2] + col),
+                Array2d.get(block, row, col));
+            }
+          }
+        }
+        assertThrows(RuntimeException.class,
+          () -> Array2d.readBlock(file, 299, 2, 0, 1));
+      });
+    }
+  }
 }
@@ -0,0 +1,92 @@
+package org.openlca.npy;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class BufferPoolTest {
+
+  @After
+  public void cleanup() {
+    BufferPool.clear();
+  }
+
+  @Test
+  public void testReuse() {
+    for (boolean direct : new boolean[]{true, false}) {
+      var first = BufferPool.get(100, direct, ByteOrder.LITTLE_ENDIAN);
+      assertEquals(direct, first.isDirect());
+      assertEquals(100, first.limit());
+      BufferPool.release(first);
+
+      // a smaller buffer is served from the pooled one
+      var second = BufferPool.get(50, direct, ByteOrder.BIG_ENDIAN);
+      assertSame(first, second);
+      assertEquals(0, second.position());
+      assertEquals(50, second.limit());
+      assertEquals(ByteOrder.BIG_ENDIAN, second.order());
+      BufferPool.release(second);
+    }
+  }
+
+  @Test
+  public void testNestedUse() {
+    var outer = BufferPool.get(100, false, ByteOrder.LITTLE_ENDIAN);
+    var inner = BufferPool.get(100, false, ByteOrder.LITTLE_ENDIAN);
+    assertNotSame(outer, inner);
+
+    // giving back the inner buffer does not free the outer one
+    BufferPool.release(inner);
+    assertNotSame(outer,
+      BufferPool.get(100, false, ByteOrder.LITTLE_ENDIAN));
+
+    BufferPool.release(outer);
+    assertSame(outer, BufferPool.get(100, false, ByteOrder.LITTLE_ENDIAN));
+  }
+
+  @Test
+  public void testLargeBuffersAreNotPooled() {
+    int size = BufferPool.MAX_POOLED_SIZE + 1;
+    var first = BufferPool.get(size, false, ByteOrder.LITTLE_ENDIAN);
+    BufferPool.release(first);
+    var second = BufferPool.get(size, false, ByteOrder.LITTLE_ENDIAN);
+    assertNotSame(first, second);
+    BufferPool.release(second);
+  }
+
+  @Test
+  public void testRelease() {
+    var first = BufferPool.get(100, true, ByteOrder.LITTLE_ENDIAN);
+    BufferPool.release(first);
+    Npy.releaseBuffers();
+    var second = BufferPool.get(100, true, ByteOrder.LITTLE_ENDIAN);
+    assertNotSame(first, second);
+    BufferPool.release(second);
+  }
+
+  @Test
+  public void testReleaseInOtherThreads() throws Exception {
+    var executor = Executors.newSingleThreadExecutor();
+    Callable<ByteBuffer> task = () -> {
+      var buffer = BufferPool.get(100, true, ByteOrder.LITTLE_ENDIAN);
+      BufferPool.release(buffer);
+      return buffer;
+    };
+    try {
+      var first = executor.submit(task).get();
+      assertSame(first, executor.submit(task).get());
+
+      // the other thread drops its buffer on the next request
+      Npy.releaseBuffers();
+      assertNotSame(first, executor.submit(task).get());
+    } finally {
+      executor.shutdown();
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package org.openlca.npy;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import org.junit.Test;
+import org.openlca.npy.dict.NpyHeaderDict;
+
+public class ByteOrderSwitchTest {
+
+  @Test
+  public void testConvertTestFiles() {
+    Tests.eachNpy(testNpy -> Tests.withFile(file -> {
+      Files.copy(testNpy.file().toPath(), file.toPath(),
+        StandardCopyOption.REPLACE_EXISTING);
+      var before = headerOf(file);
+      boolean converted = Npy.toLittleEndian(file);
+      boolean bigEndian = testNpy.byteOrder() == ByteOrder.BIG_ENDIAN
+        && before.dict().byteOrder() != NpyByteOrder.NOT_APPLICABLE;
+      assertEquals(bigEndian, converted);
+      if (!converted) {
+        assertArrayEquals(Files.readAllBytes(testNpy.file().toPath()),
+          Files.readAllBytes(file.toPath()));
+        return;
+      }
+      var after = headerOf(file);
+      assertEquals(NpyByteOrder.LITTLE_ENDIAN, after.dict().byteOrder());
+      assertEquals(before.dataOffset(), after.dataOffset());
+      assertEquals(before.dict().dataType(), after.dict().dataType());
+      assertArrayEquals(before.dict().shape(), after.dict().shape());
+      assertEquals(before.dict().hasFortranOrder(),
+        after.dict().hasFortranOrder());
+      Tests.check(testNpy, Npy.read(file));
+      assertFalse(Npy.toLittleEndian(file));
+    }));
+  }
+
+  @Test
+  public void testConvertUnicode() {
+    var dict = NpyHeaderDict.of(NpyDataType.U)
+      .withTypeSize(2)
+      .withByteOrder(NpyByteOrder.BIG_ENDIAN)
+      .withShape(new int[]{2})
+      .create();
+    var data = "abcä".getBytes(Charset.forName("UTF-32BE"));
+    Tests.withFile(file -> {
+      Npy.write(file, dict, data);
+      assertTrue(Npy.toLittleEndian(file));
+      assertEquals(NpyByteOrder.LITTLE_ENDIAN, headerOf(file).dict().byteOrder());
+      var bytes = Files.readAllBytes(file.toPath());
+      var text = new String(bytes, bytes.length - 16, 16,
+        Charset.forName("UTF-32LE"));
+      assertEquals("abcä", text);
+    });
+  }
+
+  @Test
+  public void testConvertWithTightHeader() {
+    // a header without the padding to 64 bytes; the new header does not fit
+    // into its space so that the file is rewritten
+    var dict = "{'descr': '>i4', 'fortran_order': False, 'shape': (3,), }";
+    int len = 10 + dict.length() + 1;
+    var buffer = ByteBuffer.allocate(len + 12)
+      .order(ByteOrder.LITTLE_ENDIAN);
+    buffer.put((byte) 0x93)
+      .put("NUMPY".getBytes(StandardCharsets.US_ASCII))
+      .put((byte) 1)
+      .put((byte) 0)
+      .putShort((short) (len - 10))
+      .put(dict.getBytes(StandardCharsets.US_ASCII))
+      .put((byte) '\n');
+    buffer.order(ByteOrder.BIG_ENDIAN)
+      .putInt(1)
+      .putInt(-2)
+      .putInt(0x01020304);
+    Tests.withFile(file -> {
+      try (var out = new FileOutputStream(file)) {
+        out.write(buffer.array());
+      }
+      assertArrayEquals(new int[]{1, -2, 0x01020304},
+        Npy.read(file).asIntArray().data());
+      assertTrue(Npy.toLittleEndian(file));
+      var header = headerOf(file);
+      assertEquals(0, header.dataOffset() % 64);
+      assertEquals(NpyByteOrder.LITTLE_ENDIAN, header.dict().byteOrder());
+      assertEquals(header.dataOffset() + 12, file.length());
+      assertArrayEquals(new int[]{1, -2, 0x01020304},
+        Npy.read(file).asIntArray().data());
+      var files = file.getAbsoluteFile().getParentFile()
+        .listFiles((dir, name) -> name.endsWith(".npy.tmp"));
+      assertEquals(0, files == null ? 0 : files.length);
+    });
+  }
+
+  private static NpyHeader headerOf(File file) throws Exception {
+    try (var channel = FileChannel.open(file.toPath())) {
+      return NpyHeader.read(channel);
+    }
+  }
+}
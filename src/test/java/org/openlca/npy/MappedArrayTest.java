@@ -0,0 +1,261 @@
+package org.openlca.npy;
+
+import static org.junit.Assert.*;
+
+import java.io.RandomAccessFile;
+import java.nio.ReadOnlyBufferException;
+
+import org.junit.Test;
+import org.openlca.npy.dict.NpyHeaderDict;
+
+public class MappedArrayTest {
+
+  @Test
+  public void testMappedDoubles() {
+    var data = new double[]{1, 2, 3, 4, 5, 6};
+    for (var array : new NpyDoubleArray[]{
+      NpyDoubleArray.rowOrderOf(data, 2, 3),
+      NpyDoubleArray.columnOrderOf(data, 2, 3)}) {
+      Tests.withFile(file -> {
+        Npy.write(file, array);
+        var mapped = Npy.map(file);
+        assertTrue(mapped instanceof MappedDoubleArray);
+        assertFalse(mapped.isDoubleArray());
+        assertEquals(NpyDataType.f8, mapped.dataType());
+        assertEquals(array.hasColumnOrder(), mapped.hasColumnOrder());
+        assertArrayEquals(array.shape(), mapped.shape());
+        assertEquals(6, mapped.size());
+
+        var doubles = (MappedDoubleArray) mapped;
+        for (int i = 0; i < data.length; i++) {
+          assertEquals(data[i], doubles.get(i), 1e-16);
+        }
+        for (int row = 0; row < 2; row++) {
+          for (int col = 0; col < 3; col++) {
+            assertEquals(Array2d.get(array, row, col),
+              doubles.get(row, col), 1e-16);
+          }
+        }
+
+        var range = new double[4];
+        doubles.copyTo(2, range, 1, 3);
+        assertArrayEquals(new double[]{0, 3, 4, 5}, range, 1e-16);
+        assertEquals(6, doubles.data().remaining());
+        assertArrayEquals(data, doubles.asDoubleArray().data(), 1e-16);
+        assertArrayEquals(
+          new int[]{1, 2, 3, 4, 5, 6}, doubles.asIntArray().data());
+      });
+    }
+  }
+
+  @Test
+  public void testMappedTypes() {
+    var arrays = new NpyArray<?>[]{
+      NpyFloatArray.vectorOf(new float[]{1, 2, 3}),
+      NpyLongArray.vectorOf(new long[]{1, 2, 3}),
+      NpyIntArray.vectorOf(new int[]{1, 2, 3}),
+      NpyShortArray.vectorOf(new short[]{1, 2, 3}),
+      NpyByteArray.vectorOf(new byte[]{1, 2, 3}),
+    };
+    for (var array : arrays) {
+      Tests.withFile(file -> {
+        Npy.write(file, array);
+        var mapped = Npy.map(file);
+        assertTrue(mapped instanceof MappedArray);
+        assertEquals(array.dataType(), mapped.dataType());
+        assertArrayEquals(new double[]{1, 2, 3},
+          mapped.asDoubleArray().data(), 1e-16);
+        var copy = ((MappedArray<?>) mapped).load();
+        assertEquals(array.getClass(), copy.getClass());
+      });
+    }
+  }
+
+  @Test
+  public void testWriteMapped() {
+    var array = NpyIntArray.vectorOf(new int[]{42, 43, 44});
+    Tests.withFile(file -> Tests.withFile(copyFile -> {
+      Npy.write(file, array);
+      Npy.write(copyFile, Npy.map(file));
+      var copy = Npy.read(copyFile);
+      assertTrue(copy.isIntArray());
+      assertArrayEquals(array.data(), copy.asIntArray().data());
+    }));
+  }
+
+  @Test
+  public void testCopyOutOfRange() {
+    Tests.withFile(file -> {
+      Npy.write(file, NpyLongArray.vectorOf(new long[]{1, 2, 3}));
+      var mapped = (MappedLongArray) Npy.map(file);
+      assertThrows(IndexOutOfBoundsException.class,
+        () -> mapped.copyTo(2, new long[2], 0, 2));
+      assertThrows(IndexOutOfBoundsException.class,
+        () -> mapped.copyTo(0, new long[2], 0, 3));
+    });
+  }
+
+  @Test
+  public void testSegments() {
+    int n = 100;
+    var doubles = new double[n];
+    var shorts = new short[n];
+    var chars = new int[n];
+    for (int i = 0; i < n; i++) {
+      doubles[i] = i;
+      shorts[i] = (short) i;
+      chars[i] = 'a' + (i % 26);
+    }
+
+    // map the data into segments of 16 bytes
+    Tests.withFile(file -> {
+      Npy.write(file, NpyDoubleArray.rowOrderOf(doubles, 10, 10));
+      var mapped = (MappedDoubleArray) Npy.map(file, 4);
+      assertEquals(50, mapped.segments.segmentCount());
+      for (int i = 0; i < n; i++) {
+        assertEquals(i, mapped.get(i), 1e-16);
+      }
+      assertEquals(34, mapped.get(3, 4), 1e-16);
+      var range = new double[7];
+      mapped.copyTo(11, range, 0, 7);
+      assertArrayEquals(new double[]{11, 12, 13, 14, 15, 16, 17}, range, 0);
+      assertArrayEquals(doubles, mapped.load().data(), 0);
+      assertThrows(UnsupportedOperationException.class, mapped::data);
+    });
+
+    Tests.withFile(file -> {
+      Npy.write(file, NpyShortArray.vectorOf(shorts));
+      var mapped = (MappedShortArray) Npy.map(file, 3);
+      var range = new short[9];
+      mapped.copyTo(3, range, 0, 9);
+      for (int i = 0; i < 9; i++) {
+        assertEquals(i + 3, range[i]);
+      }
+      assertEquals(99, mapped.get(99L));
+    });
+
+    // types without mapped array are decoded segment by segment
+    Tests.withFile(file -> {
+      var array = NpyIntArray.vectorOf(chars).asCharArray();
+      Npy.write(file, array);
+      var copy = Npy.map(file, 3);
+      assertEquals(array.toString(), copy.toString());
+    });
+  }
+
+  @Test
+  public void testCreate() {
+    for (boolean fortranOrder : new boolean[]{false, true}) {
+      Tests.withFile(file -> {
+        var dict = NpyHeaderDict.of(NpyDataType.f8)
+          .withShape(new int[]{2, 3})
+          .withFortranOrder(fortranOrder)
+          .withByteOrder(NpyByteOrder.LITTLE_ENDIAN)
+          .create();
+        try (var mapped = Npy.create(file, dict)) {
+          assertTrue(mapped.isWritable());
+          var matrix = (MappedDoubleArray) mapped;
+          assertEquals(0, matrix.get(1, 2), 0);
+          for (int row = 0; row < 2; row++) {
+            for (int col = 0; col < 3; col++) {
+              matrix.set(row, col, row * 10 + col);
+            }
+          }
+          // indices outside of the shape must not hit another element
+          assertThrows(IndexOutOfBoundsException.class,
+            () -> matrix.get(0, 3));
+          assertThrows(IndexOutOfBoundsException.class,
+            () -> matrix.get(2, 0));
+          assertThrows(IndexOutOfBoundsException.class,
+            () -> matrix.set(-1, 0, 42));
+        }
+        var array = Npy.read(file).asDoubleArray();
+        assertEquals(fortranOrder, array.hasColumnOrder());
+        assertArrayEquals(new int[]{2, 3}, array.shape());
+        for (int row = 0; row < 2; row++) {
+          for (int col = 0; col < 3; col++) {
+            assertEquals(row * 10 + col, Array2d.get(array, row, col), 0);
+          }
+        }
+      });
+    }
+  }
+
+  @Test
+  public void testCreateSegments() {
+    Tests.withFile(file -> {
+      var dict = NpyHeaderDict.of(NpyDataType.i4)
+        .withShape(new int[]{10})
+        .withByteOrder(NpyByteOrder.BIG_ENDIAN)
+        .create();
+      // an existing file with more data is overwritten
+      Npy.write(file, NpyIntArray.vectorOf(new int[100]));
+      try (var ints = (MappedIntArray) Npy.create(file, dict, 3)) {
+        ints.copyFrom(new int[]{1, 2, 3, 4, 5, 6, 7}, 1, 2, 6);
+        ints.set(9, 42);
+      }
+      var array = Npy.read(file);
+      assertArrayEquals(new int[]{0, 0, 2, 3, 4, 5, 6, 7, 0, 42},
+        array.asIntArray().data());
+    });
+  }
+
+  @Test
+  public void testCreateUnsupported() {
+    Tests.withFile(file -> {
+      var dict = NpyHeaderDict.of(NpyDataType.u2)
+        .withShape(new int[]{10})
+        .create();
+      assertThrows(IllegalArgumentException.class,
+        () -> Npy.create(file, dict));
+    });
+  }
+
+  @Test
+  public void testReadOnly() {
+    Tests.withFile(file -> {
+      Npy.write(file, NpyDoubleArray.vectorOf(new double[]{1, 2}));
+      var mapped = (MappedDoubleArray) Npy.map(file);
+      assertFalse(mapped.isWritable());
+      assertThrows(ReadOnlyBufferException.class, () -> mapped.set(0, 42));
+    });
+  }
+
+  @Test
+  public void testMoreThanIntMaxElements() {
+    // a sparse file with a 50k x 50k matrix of 2.5 * 10^9 bytes
+    int rows = 50_000;
+    int cols = 50_000;
+    long last = (long) rows * cols - 1;
+    long beyondInt = (1L << 31) + 1;
+    var dict = NpyHeaderDict.of(NpyDataType.i1)
+      .withShape(new int[]{rows, cols})
+      .create();
+    Tests.withFile(file -> {
+      var header = dict.toNpyHeader();
+      try (var f = new RandomAccessFile(file, "rw")) {
+        f.write(header);
+        f.setLength(header.length + last + 1);
+        f.seek(header.length + beyondInt);
+        f.write(7);
+        f.seek(header.length + last);
+        f.write(42);
+      }
+
+      var mapped = (MappedByteArray) Npy.map(file);
+      assertEquals(last + 1, mapped.longSize());
+      assertThrows(ArithmeticException.class, mapped::size);
+      assertThrows(UnsupportedOperationException.class, mapped::data);
+      assertEquals(42, mapped.get(last));
+      assertEquals(42, mapped.get(rows - 1, cols - 1));
+      assertEquals(7, mapped.get(beyondInt));
+      int row = (int) (beyondInt / cols);
+      int col = (int) (beyondInt % cols);
+      assertEquals(7, mapped.get(row, col));
+
+      var dest = new byte[4];
+      mapped.copyTo(beyondInt - 2, dest, 0, 4);
+      assertArrayEquals(new byte[]{0, 0, 7, 0}, dest);
+    });
+  }
+}
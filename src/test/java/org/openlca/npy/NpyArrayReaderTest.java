@@ -0,0 +1,144 @@
+package org.openlca.npy;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.openlca.npy.dict.NpyHeaderDict;
+
+public class NpyArrayReaderTest {
+
+  @Test
+  public void testBulkReadHeapAndDirect() {
+    for (var order : new ByteOrder[]{
+      ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN}) {
+      for (boolean direct : new boolean[]{false, true}) {
+        var doubles = new double[1000];
+        for (int i = 0; i < doubles.length; i++) {
+          doubles[i] = i * 0.5;
+        }
+        var array = NpyDoubleArray.vectorOf(doubles);
+        var copy = readInChunks(array, order, direct, 8 * 1000);
+        assertArrayEquals(doubles, copy.asDoubleArray().data(), 1e-16);
+      }
+    }
+  }
+
+  @Test
+  public void testChunksWithPartialElements() {
+    var ints = new int[999];
+    for (int i = 0; i < ints.length; i++) {
+      ints[i] = i - 500;
+    }
+    var longs = new long[999];
+    for (int i = 0; i < longs.length; i++) {
+      longs[i] = (long) i << 40;
+    }
+    var bools = new boolean[999];
+    for (int i = 0; i < bools.length; i++) {
+      bools[i] = i % 3 == 0;
+    }
+    for (int chunk : new int[]{8, 13, 27, 4096}) {
+      var intCopy = readInChunks(
+        NpyIntArray.vectorOf(ints), ByteOrder.BIG_ENDIAN, false, chunk);
+      assertArrayEquals(ints, intCopy.asIntArray().data());
+      var longCopy = readInChunks(
+        NpyLongArray.vectorOf(longs), ByteOrder.LITTLE_ENDIAN, true, chunk);
+      assertArrayEquals(longs, longCopy.asLongArray().data());
+      var boolCopy = readInChunks(
+        NpyBooleanArray.vectorOf(bools), ByteOrder.LITTLE_ENDIAN, false, chunk);
+      assertArrayEquals(bools, boolCopy.asBooleanArray().data());
+    }
+  }
+
+  @Test
+  public void testUnsignedWidening() {
+    int n = 5000;
+    var bytes = new byte[n];
+    var shorts = new short[n];
+    var ints = new int[n];
+    for (int i = 0; i < n; i++) {
+      bytes[i] = (byte) (i * 7);
+      shorts[i] = (short) (i * 7919);
+      ints[i] = i * 1_000_000_007;
+    }
+    for (var order : new ByteOrder[]{
+      ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN}) {
+      for (boolean direct : new boolean[]{false, true}) {
+        for (int chunk : new int[]{7, 4096, 20_000}) {
+          var u1 = readInChunks(NpyByteArray.vectorOf(bytes),
+            NpyDataType.u1, order, direct, chunk).asShortArray().data();
+          var u2 = readInChunks(NpyShortArray.vectorOf(shorts),
+            NpyDataType.u2, order, direct, chunk).asIntArray().data();
+          var u4 = readInChunks(NpyIntArray.vectorOf(ints),
+            NpyDataType.u4, order, direct, chunk).asLongArray().data();
+          for (int i = 0; i < n; i++) {
+            assertEquals(Byte.toUnsignedInt(bytes[i]), u1[i]);
+            assertEquals(Short.toUnsignedInt(shorts[i]), u2[i]);
+            assertEquals(Integer.toUnsignedLong(ints[i]), u4[i]);
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testWideningFromSlicedHeapBuffer() {
+    var dict = NpyHeaderDict.of(NpyDataType.u2)
+      .withShape(new int[]{3})
+      .withByteOrder(NpyByteOrder.BIG_ENDIAN)
+      .create();
+    var bytes = new byte[]{9, 9, 9, (byte) 0xff, (byte) 0xfe, 0, 1, 1, 0};
+    var buffer = ByteBuffer.wrap(bytes, 3, 6).slice()
+      .order(ByteOrder.BIG_ENDIAN);
+    var reader = NpyArrayReader.of(dict);
+    reader.readAllFrom(buffer);
+    assertTrue(reader.isComplete());
+    assertFalse(buffer.hasRemaining());
+    assertArrayEquals(new int[]{0xfffe, 1, 256},
+      reader.finish().asIntArray().data());
+  }
+
+  private NpyArray<?> readInChunks(
+    NpyArray<?> array, ByteOrder order, boolean direct, int chunkSize) {
+    return readInChunks(array, array.dataType(), order, direct, chunkSize);
+  }
+
+  /**
+   * Encodes the given array and decodes it again, passing the bytes in chunks
+   * of the given size into the reader like the channel reader does it. The
+   * elements are decoded as the given type which needs to have the same
+   * size as the type of the array.
+   */
+  private NpyArray<?> readInChunks(NpyArray<?> array, NpyDataType type,
+    ByteOrder order, boolean direct, int chunkSize) {
+    var dict = NpyHeaderDict.of(type)
+      .withShape(array.shape())
+      .withByteOrder(order == ByteOrder.BIG_ENDIAN
+        ? NpyByteOrder.BIG_ENDIAN
+        : NpyByteOrder.LITTLE_ENDIAN)
+      .create();
+    var bytes = ByteBuffer.allocate((int) dict.dataSize()).order(order);
+    for (int i = 0; i < array.size(); i++) {
+      array.writeElementTo(i, bytes);
+    }
+    bytes.flip();
+
+    var reader = NpyArrayReader.of(dict);
+    var buffer = direct
+      ? ByteBuffer.allocateDirect(chunkSize)
+      : ByteBuffer.allocate(chunkSize);
+    buffer.order(order);
+    while (bytes.hasRemaining()) {
+      while (buffer.hasRemaining() && bytes.hasRemaining()) {
+        buffer.put(bytes.get());
+      }
+      buffer.flip();
+      reader.readAllFrom(buffer);
+      buffer.compact();
+    }
+    return reader.finish();
+  }
+}
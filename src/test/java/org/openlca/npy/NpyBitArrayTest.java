@@ -0,0 +1,186 @@
+package org.openlca.npy;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.junit.Test;
+import org.openlca.npy.dict.NpyHeaderDict;
+
+public class NpyBitArrayTest {
+
+  private final Random rand = new Random(42);
+
+  private boolean[] randomBooleans(int n) {
+    var values = new boolean[n];
+    for (int i = 0; i < n; i++) {
+      values[i] = rand.nextInt(3) == 0;
+    }
+    return values;
+  }
+
+  @Test
+  public void testBits() {
+    var values = randomBooleans(1003);
+    var bits = NpyBitArray.vectorOf(values);
+    assertEquals(1003, bits.size());
+    assertEquals(16, bits.data().length);
+    assertArrayEquals(values, bits.asBooleanArray().data());
+
+    long count = 0;
+    var positions = new ArrayList<Integer>();
+    for (int i = 0; i < values.length; i++) {
+      assertEquals(values[i], bits.get(i));
+      if (values[i]) {
+        count++;
+        positions.add(i);
+      }
+    }
+    assertEquals(count, bits.cardinality());
+
+    var visited = new ArrayList<Integer>();
+    bits.forEachSetBit(visited::add);
+    assertEquals(positions, visited);
+    visited.clear();
+    for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+      visited.add(i);
+    }
+    assertEquals(positions, visited);
+    assertEquals(-1, bits.nextSetBit(1003));
+
+    bits.set(1002, true);
+    assertTrue(bits.get(1002));
+    assertEquals(1002, bits.nextSetBit(1002));
+    bits.set(1002, false);
+    assertFalse(bits.get(1002));
+  }
+
+  @Test
+  public void testLogic() {
+    var a = randomBooleans(777);
+    var b = randomBooleans(777);
+    var bitsA = NpyBitArray.vectorOf(a);
+    var bitsB = NpyBitArray.vectorOf(b);
+    var and = bitsA.and(bitsB);
+    var or = bitsA.or(bitsB);
+    var xor = bitsA.xor(bitsB);
+    for (int i = 0; i < a.length; i++) {
+      assertEquals(a[i] && b[i], and.get(i));
+      assertEquals(a[i] || b[i], or.get(i));
+      assertEquals(a[i] ^ b[i], xor.get(i));
+    }
+    assertEquals(and.cardinality() + xor.cardinality(), or.cardinality());
+    assertThrows(IllegalArgumentException.class,
+      () -> bitsA.and(NpyBitArray.vectorOf(new boolean[776])));
+    var matrix = NpyBitArray.of(new int[]{7, 111}, true);
+    assertThrows(IllegalArgumentException.class, () -> bitsA.or(matrix));
+  }
+
+  @Test
+  public void testPack() {
+    for (int b = 0; b < 256; b++) {
+      long bytes = NpyBitArray.Bits.EXPAND[b];
+      assertEquals(b, NpyBitArray.Bits.pack(bytes));
+      // any value that is not 0 is true
+      assertEquals(b, NpyBitArray.Bits.pack(bytes * 0x80));
+      assertEquals(b, NpyBitArray.Bits.pack(bytes * 0xff));
+      assertEquals(b, NpyBitArray.Bits.pack(bytes * 0x42));
+    }
+  }
+
+  @Test
+  public void testReadWrite() {
+    var values = randomBooleans(3 * 337);
+    var array = NpyBitArray.of(
+      NpyBooleanArray.columnOrderOf(values, 3, 337));
+    assertTrue(array.hasColumnOrder());
+    Tests.withFile(file -> {
+      Npy.write(file, array);
+      assertEquals(values.length, file.length() - 128);
+      var booleans = Npy.read(file).asBooleanArray();
+      assertArrayEquals(values, booleans.data());
+      assertTrue(booleans.hasColumnOrder());
+      var bits = Npy.readBits(file);
+      assertArrayEquals(array.data(), bits.data());
+      assertArrayEquals(new int[]{3, 337}, bits.shape());
+      assertTrue(bits.hasColumnOrder());
+    });
+  }
+
+  @Test
+  public void testReadTestFiles() {
+    Tests.eachNpy(testNpy -> {
+      if (testNpy.dataType() != NpyDataType.bool) {
+        assertThrows(RuntimeException.class,
+          () -> Npy.readBits(testNpy.file()));
+        return;
+      }
+      var bits = Npy.readBits(testNpy.file());
+      var expected = Npy.read(testNpy.file()).asBooleanArray();
+      assertArrayEquals(expected.data(), bits.asBooleanArray().data());
+      assertArrayEquals(expected.shape(), bits.shape());
+    });
+  }
+
+  @Test
+  public void testReadInChunks() {
+    var values = randomBooleans(1000);
+    var bytes = new byte[values.length];
+    for (int i = 0; i < values.length; i++) {
+      if (values[i]) {
+        bytes[i] = (byte) (1 + rand.nextInt(255));
+      }
+    }
+    var dict = NpyHeaderDict.of(NpyDataType.bool)
+      .withShape(new int[]{values.length})
+      .create();
+    for (int chunk : new int[]{1, 7, 13, 64, 1000}) {
+      for (var order : new ByteOrder[]{
+        ByteOrder.LITTLE_ENDIAN, ByteOrder.BIG_ENDIAN}) {
+        var reader = NpyArrayReader.bitsOf(dict);
+        var source = ByteBuffer.wrap(bytes);
+        while (source.hasRemaining()) {
+          int n = Math.min(chunk, source.remaining());
+          var buffer = ByteBuffer.allocateDirect(n).order(order);
+          for (int i = 0; i < n; i++) {
+            buffer.put(source.get());
+          }
+          buffer.flip();
+          reader.readAllFrom(buffer);
+          assertFalse(buffer.hasRemaining());
+        }
+        assertTrue(reader.isComplete());
+        var bits = (NpyBitArray) reader.finish();
+        assertArrayEquals(values, bits.asBooleanArray().data());
+      }
+    }
+  }
+
+  @Test
+  public void testPackedBits() {
+    var bits = NpyBitArray.vectorOf(new boolean[]{
+      true, false, true, true, false, false, false, false, true});
+    assertArrayEquals(new byte[]{(byte) 0xb0, (byte) 0x80},
+      bits.toPackedBits());
+
+    var values = randomBooleans(41 * 29);
+    var array = NpyBitArray.of(NpyBooleanArray.rowOrderOf(values, 41, 29));
+    Tests.withFile(file -> {
+      Npy.writePackedBits(file, array);
+      try (var channel = FileChannel.open(file.toPath())) {
+        var dict = NpyHeader.read(channel).dict();
+        assertEquals(NpyDataType.u1, dict.dataType());
+        assertEquals((values.length + 7) / 8, dict.numberOfElements());
+      }
+      var copy = Npy.readPackedBits(file, new int[]{41, 29}, false);
+      assertArrayEquals(array.data(), copy.data());
+      assertArrayEquals(values, copy.asBooleanArray().data());
+      assertThrows(IllegalArgumentException.class,
+        () -> Npy.readPackedBits(file, new int[]{42, 29}, false));
+    });
+  }
+}
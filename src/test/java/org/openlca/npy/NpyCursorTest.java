@@ -0,0 +1,125 @@
+package org.openlca.npy;
+
+import static org.junit.Assert.*;
+
+import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+public class NpyCursorTest {
+
+  private final NpyDoubleArray[] matrices;
+
+  public NpyCursorTest() {
+    int rows = 30, cols = 20;
+    var data = new double[rows * cols];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = i;
+    }
+    matrices = new NpyDoubleArray[]{
+      NpyDoubleArray.rowOrderOf(data, rows, cols),
+      NpyDoubleArray.columnOrderOf(data, rows, cols)};
+  }
+
+  @Test
+  public void testReadRowsAndColumns() {
+    for (var matrix : matrices) {
+      Tests.withFile(file -> {
+        Npy.write(file, matrix);
+        try (var raf = new RandomAccessFile(file, "r")) {
+          var header = NpyHeader.read(raf.getChannel());
+          var cursor = NpyCursor.of(raf, header);
+          var row = new double[cursor.columns()];
+          var rowInts = new int[cursor.columns()];
+          for (int i = 0; i < cursor.rows(); i++) {
+            cursor.readRow(i, row);
+            assertArrayEquals(Array2d.getRow(matrix, i), row, 0);
+            cursor.readRow(i, rowInts);
+            for (int j = 0; j < rowInts.length; j++) {
+              assertEquals((int) row[j], rowInts[j]);
+            }
+          }
+          var col = new float[cursor.rows()];
+          var colLongs = new long[cursor.rows()];
+          for (int j = 0; j < cursor.columns(); j++) {
+            var expected = Array2d.getColumn(matrix, j);
+            cursor.readColumn(j, col);
+            cursor.readColumn(j, colLongs);
+            for (int i = 0; i < expected.length; i++) {
+              assertEquals(expected[i], col[i], 0);
+              assertEquals((long) expected[i], colLongs[i]);
+            }
+          }
+          var range = new double[5];
+          cursor.readRange(7, 5, range);
+          assertArrayEquals(new double[]{7, 8, 9, 10, 11}, range, 0);
+
+          assertThrows(IndexOutOfBoundsException.class,
+            () -> cursor.readRow(cursor.rows(), row));
+          assertThrows(IllegalArgumentException.class,
+            () -> cursor.readColumn(0, new double[1]));
+        }
+      });
+    }
+  }
+
+  @Test
+  public void testConversions() {
+    Tests.eachNpy(testNpy -> {
+      if (testNpy.dataType().size() == 0)
+        return;
+      try (var raf = new RandomAccessFile(testNpy.file(), "r")) {
+        var header = NpyHeader.read(raf.getChannel());
+        var cursor = NpyCursor.of(raf, header);
+        var expected = Npy.read(testNpy.file()).asDoubleArray();
+        var row = new double[cursor.columns()];
+        for (int i = 0; i < cursor.rows(); i++) {
+          cursor.readRow(i, row);
+          assertArrayEquals("failed for " + testNpy.dataType(),
+            Array2d.getRow(expected, i), row, 1e-6);
+        }
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    });
+  }
+
+  @Test
+  public void testNoAllocation() {
+    var bean = ManagementFactory.getThreadMXBean();
+    Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+    var threads = (com.sun.management.ThreadMXBean) bean;
+    Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+    threads.setThreadAllocatedMemoryEnabled(true);
+    long thread = Thread.currentThread().getId();
+
+    for (var matrix : matrices) {
+      Tests.withFile(file -> {
+        Npy.write(file, matrix);
+        try (var raf = new RandomAccessFile(file, "r")) {
+          var header = NpyHeader.read(raf.getChannel());
+          var cursor = NpyCursor.of(raf, header);
+          var row = new double[cursor.columns()];
+          var col = new double[cursor.rows()];
+          Runnable reads = () -> {
+            for (int i = 0; i < 10_000; i++) {
+              cursor.readRow(i % cursor.rows(), row);
+              cursor.readColumn(i % cursor.columns(), col);
+            }
+          };
+
+          // warm up, then measure
+          reads.run();
+          long before = threads.getThreadAllocatedBytes(thread);
+          reads.run();
+          long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+          // allow a few bytes for the measurement itself
+          assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+        }
+      });
+    }
+  }
+}
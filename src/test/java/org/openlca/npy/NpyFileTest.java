@@ -0,0 +1,74 @@
+package org.openlca.npy;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+public class NpyFileTest {
+
+  @Test
+  public void testConcurrentReads() {
+    int rows = 200, cols = 50;
+    var data = new double[rows * cols];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = i;
+    }
+    for (var array : new NpyDoubleArray[]{
+      NpyDoubleArray.rowOrderOf(data, rows, cols),
+      NpyDoubleArray.columnOrderOf(data, rows, cols)}) {
+      Tests.withFile(file -> {
+        Npy.write(file, array);
+        var pool = Executors.newFixedThreadPool(8);
+        try (var npy = NpyFile.open(file)) {
+          var tasks = new ArrayList<Callable<Void>>();
+          for (int t = 0; t < 8; t++) {
+            int offset = t;
+            tasks.add(() -> {
+              for (int i = offset; i < rows; i += 3) {
+                assertArrayEquals(Array2d.getRow(array, i),
+                  npy.readRow(i).asDoubleArray().data(), 0);
+                int col = i % cols;
+                assertArrayEquals(Array2d.getColumn(array, col),
+                  npy.readColumn(col).asDoubleArray().data(), 0);
+                assertArrayEquals(new double[]{i, i + 1},
+                  npy.readRange(2, i).asDoubleArray().data(), 0);
+              }
+              return null;
+            });
+          }
+          for (var future : pool.invokeAll(tasks)) {
+            future.get();
+          }
+        } finally {
+          pool.shutdown();
+        }
+      });
+    }
+  }
+
+  @Test
+  public void testInterrupt() {
+    Tests.withFile(file -> {
+      Npy.write(file, NpyDoubleArray.rowOrderOf(
+        new double[]{1, 2, 3, 4, 5, 6}, 2, 3));
+      var npy = NpyFile.open(file);
+
+      // an interrupt closes the channel of the file; the interrupted thread
+      // gets the error but the handle is still usable afterwards
+      Thread.currentThread().interrupt();
+      assertThrows(RuntimeException.class, () -> npy.readRow(1));
+      assertTrue(Thread.interrupted());
+      assertArrayEquals(new double[]{4, 5, 6},
+        npy.readRow(1).asDoubleArray().data(), 0);
+      assertArrayEquals(new double[]{3, 6},
+        npy.readColumn(2).asDoubleArray().data(), 0);
+
+      npy.close();
+      assertThrows(IllegalStateException.class, () -> npy.readRow(0));
+    });
+  }
+}
@@ -0,0 +1,85 @@
+package org.openlca.npy;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class NpyFloat16ArrayTest {
+
+  @Test
+  public void testReadWrite() {
+    var data = new float[]{1, -2.5f, 0.1f, 65504, 1e-6f, Float.NaN};
+    var array = NpyFloat16Array.of(NpyFloatArray.columnOrderOf(data, 2, 3));
+    assertEquals(NpyDataType.f2, array.dataType());
+    assertArrayEquals(new int[]{2, 3}, array.shape());
+    assertTrue(array.hasColumnOrder());
+    Tests.withFile(file -> {
+      Npy.write(file, array);
+      assertEquals(6 * 2, file.length() - headerLength(file));
+      var copy = Npy.read(file);
+      assertTrue(copy.isFloatArray());
+      assertTrue(copy.hasColumnOrder());
+      var floats = copy.asFloatArray().data();
+      assertEquals(1f, floats[0], 0);
+      assertEquals(-2.5f, floats[1], 0);
+      assertEquals(0.0999755859375f, floats[2], 0);
+      assertEquals(65504f, floats[3], 0);
+      assertEquals(0x1.1p-20f, floats[4], 0);
+      assertTrue(Float.isNaN(floats[5]));
+      for (int i = 0; i < 6; i++) {
+        assertEquals(array.get(i), floats[i], 0);
+      }
+    });
+  }
+
+  @Test
+  public void testConversions() {
+    var doubles = new double[]{1, 2.5, -3, 70000, 1e-8};
+    var array = NpyFloat16Array.vectorOf(doubles);
+    assertArrayEquals(
+      new double[]{1, 2.5, -3, Double.POSITIVE_INFINITY, 0},
+      array.asDoubleArray().data(), 0);
+    assertArrayEquals(new int[]{1, 2, -3}, Arrays.copyOf(
+      array.asIntArray().data(), 3));
+    var ints = NpyFloat16Array.of(NpyIntArray.vectorOf(new int[]{1, 2049}));
+    assertArrayEquals(new float[]{1, 2048}, ints.asFloatArray().data(), 0);
+    assertThrows(IllegalArgumentException.class,
+      () -> NpyFloat16Array.of(NpyCharArray.of("abc")));
+  }
+
+  @Test
+  public void testWriter() {
+    int n = 100_000;
+    var doubles = new double[n];
+    for (int i = 0; i < n; i++) {
+      doubles[i] = Math.sin(i) * 1000;
+    }
+    Tests.withFile(file -> {
+      try (var writer = NpyWriter.of(file, NpyDataType.f2)
+        .withRowShape(1000)
+        .create()) {
+        writer.append(doubles);
+        writer.append(NpyFloatArray.vectorOf(new float[1000]));
+        assertThrows(IllegalArgumentException.class,
+          () -> writer.append(new int[]{1}));
+      }
+      var array = Npy.read(file).asFloatArray();
+      assertArrayEquals(new int[]{101, 1000}, array.shape());
+      var expected = NpyFloat16Array.vectorOf(doubles);
+      for (int i = 0; i < n; i++) {
+        assertEquals(expected.get(i), array.data()[i], 0);
+        assertEquals(doubles[i], array.data()[i], 0.5);
+      }
+    });
+  }
+
+  private static long headerLength(File file) throws Exception {
+    try (var channel = FileChannel.open(file.toPath())) {
+      return NpyHeader.read(channel).dataOffset();
+    }
+  }
+}
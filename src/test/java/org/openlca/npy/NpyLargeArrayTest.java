@@ -0,0 +1,117 @@
+package org.openlca.npy;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.openlca.npy.dict.NpyHeaderDict;
+
+public class NpyLargeArrayTest {
+
+  @Test
+  public void testLongShape() {
+    var dict = NpyHeaderDict.parse(
+      "{'descr': '<f8', 'fortran_order': False, 'shape': (3000000000, 2), }");
+    assertEquals(6_000_000_000L, dict.longNumberOfElements());
+    assertEquals(48_000_000_000L, dict.dataSize());
+    assertArrayEquals(new long[]{3_000_000_000L, 2}, dict.longShape());
+    assertEquals(2, dict.sizeOfDimension(1));
+    assertThrows(ArithmeticException.class, dict::numberOfElements);
+    assertThrows(ArithmeticException.class, dict::shape);
+    assertThrows(ArithmeticException.class, () -> dict.sizeOfDimension(0));
+
+    var copy = NpyHeaderDict.parse(dict.toString());
+    assertArrayEquals(dict.longShape(), copy.longShape());
+  }
+
+  @Test
+  public void testReadPages() {
+    var data = new double[100];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = i;
+    }
+    Tests.withFile(file -> {
+      Npy.write(file, NpyDoubleArray.rowOrderOf(data, 10, 10));
+      var array = readLarge(file, 3);
+      assertTrue(array instanceof NpyLargeDoubleArray);
+      assertArrayEquals(new long[]{10, 10}, array.shape());
+      assertEquals(100, array.size());
+      assertEquals(8, array.pageSize());
+
+      var doubles = (NpyLargeDoubleArray) array;
+      assertEquals(13, doubles.data().length);
+      assertEquals(4, doubles.data()[12].length);
+      for (int i = 0; i < data.length; i++) {
+        assertEquals(data[i], doubles.get(i), 1e-16);
+      }
+    });
+  }
+
+  @Test
+  public void testConvertPages() {
+    var shorts = new short[]{1, 2, 3, 4, 5};
+    Tests.withFile(file -> {
+      var dict = NpyHeaderDict.of(NpyDataType.u2)
+        .withShape(new int[]{5})
+        .withByteOrder(NpyByteOrder.LITTLE_ENDIAN)
+        .create();
+      var bytes = new byte[10];
+      for (int i = 0; i < shorts.length; i++) {
+        bytes[2 * i] = (byte) shorts[i];
+      }
+      Npy.write(file, dict, bytes);
+      var array = readLarge(file, 1);
+      assertTrue(array instanceof NpyLargeIntArray);
+      var ints = (NpyLargeIntArray) array;
+      for (int i = 0; i < shorts.length; i++) {
+        assertEquals(shorts[i], ints.get(i));
+      }
+    });
+  }
+
+  @Test
+  public void testWrite() {
+    var array = new NpyLargeLongArray(new long[]{3, 4}, true);
+    for (int i = 0; i < 12; i++) {
+      array.set(i, i * 1000L);
+    }
+    Tests.withFile(file -> {
+      Npy.write(file, array);
+      var copy = Npy.read(file);
+      assertTrue(copy.isLongArray());
+      assertTrue(copy.hasColumnOrder());
+      assertArrayEquals(new int[]{3, 4}, copy.shape());
+      for (int i = 0; i < 12; i++) {
+        assertEquals(i * 1000L, copy.asLongArray().data()[i]);
+      }
+      var large = (NpyLargeLongArray) Npy.readLarge(file);
+      assertEquals(12, large.size());
+      assertEquals(11000L, large.get(11));
+    });
+  }
+
+  @Test
+  public void testWriteBooleanPages() {
+    var bools = new boolean[]{true, false, false, true, true};
+    Tests.withFile(file -> {
+      Npy.write(file, NpyBooleanArray.vectorOf(bools));
+      var large = readLarge(file, 1);
+      assertTrue(large instanceof NpyLargeBooleanArray);
+      Tests.withFile(copyFile -> {
+        Npy.write(copyFile, large);
+        assertArrayEquals(bools, Npy.read(copyFile).asBooleanArray().data());
+      });
+    });
+  }
+
+  private NpyLargeArray<?> readLarge(File file, int pageShift)
+    throws Exception {
+    try (var raf = new RandomAccessFile(file, "r");
+         var channel = raf.getChannel()) {
+      var header = NpyHeader.read(channel);
+      return ChannelReader.readLarge(channel, header, pageShift);
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package org.openlca.npy;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class NpyOptionsTest {
+
+  @Test
+  public void testDefaults() {
+    var options = NpyOptions.defaults();
+    assertEquals(NpyOptions.DEFAULT_BUFFER_SIZE, options.bufferSize());
+    assertTrue(options.hasDirectBuffers());
+    assertEquals(1, options.parallelism());
+  }
+
+  @Test
+  public void testReadTestFiles() {
+    for (var options : variants()) {
+      Tests.eachNpy(testNpy -> {
+        var array = Npy.read(testNpy.file(), options);
+        Tests.check(testNpy, array);
+      });
+    }
+  }
+
+  @Test
+  public void testWriteRead() {
+    var doubles = new double[1001];
+    for (int i = 0; i < doubles.length; i++) {
+      doubles[i] = i / 7.0;
+    }
+    for (var options : variants()) {
+      Tests.withFile(file -> {
+        Npy.write(file, NpyDoubleArray.vectorOf(doubles), options);
+        var array = Npy.read(file, options);
+        assertArrayEquals(doubles, array.asDoubleArray().data(), 0);
+      });
+    }
+  }
+
+  @Test
+  public void testInvalidOptions() {
+    assertThrows(IllegalArgumentException.class,
+      () -> NpyOptions.builder().withBufferSize(4));
+    assertThrows(IllegalArgumentException.class,
+      () -> NpyOptions.builder().withParallelism(0));
+    assertThrows(IllegalArgumentException.class,
+      () -> NpyOptions.builder().withChunkSize(0));
+  }
+
+  private NpyOptions[] variants() {
+    return new NpyOptions[]{
+      NpyOptions.defaults(),
+      NpyOptions.builder().withBufferSize(8).create(),
+      NpyOptions.builder().withBufferSize(13).withDirectBuffers(false).create(),
+      NpyOptions.builder().withParallelism(3).withChunkSize(24).create(),
+    };
+  }
+}
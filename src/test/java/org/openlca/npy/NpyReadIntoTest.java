@@ -0,0 +1,98 @@
+package org.openlca.npy;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class NpyReadIntoTest {
+
+  @Test
+  public void testReadInto() {
+    var data = new double[]{1, 2, 3, 4, 5, 6};
+    var array = NpyDoubleArray.columnOrderOf(data, 2, 3);
+    Tests.withFile(file -> {
+      Npy.write(file, array);
+      var dest = new double[6];
+      var r = Npy.readInto(file, dest);
+      assertSame(dest, r.data());
+      assertArrayEquals(data, dest, 0);
+      assertArrayEquals(new int[]{2, 3}, r.shape());
+      assertTrue(r.hasColumnOrder());
+
+      // read again into the same array
+      Npy.write(file, NpyDoubleArray.columnOrderOf(
+        new double[]{6, 5, 4, 3, 2, 1}, 2, 3));
+      Npy.readInto(file, dest);
+      assertArrayEquals(new double[]{6, 5, 4, 3, 2, 1}, dest, 0);
+
+      assertThrows(IllegalArgumentException.class,
+        () -> Npy.readInto(file, new double[5]));
+      assertThrows(IllegalArgumentException.class,
+        () -> Npy.readInto(file, new float[6]));
+      var floats = Npy.readInto(file, new float[6], true);
+      assertArrayEquals(new float[]{6, 5, 4, 3, 2, 1}, floats.data(), 0);
+    });
+  }
+
+  @Test
+  public void testConvert() {
+    Tests.eachNpy(testNpy -> {
+      if (testNpy.dataType().size() == 0)
+        return;
+      var expected = Npy.read(testNpy.file());
+      int n = expected.size();
+      var doubles = Npy.readInto(testNpy.file(), new double[n], true);
+      assertArrayEquals(expected.asDoubleArray().data(), doubles.data(), 1e-6);
+      assertArrayEquals(expected.shape(), doubles.shape());
+      var ints = Npy.readInto(testNpy.file(), new int[n], true);
+      var longs = Npy.readInto(testNpy.file(), new long[n], true);
+      for (int i = 0; i < n; i++) {
+        assertEquals((long) doubles.data()[i], longs.data()[i]);
+        assertEquals((int) doubles.data()[i], ints.data()[i]);
+      }
+    });
+  }
+
+  @Test
+  public void testReadMappedInto() {
+    var data = new int[]{1, 2, 3, 4, 5, 6};
+    Tests.withFile(file -> {
+      Npy.write(file, NpyIntArray.rowOrderOf(data, 3, 2));
+      var mapped = Npy.map(file);
+      try {
+        assertTrue(mapped instanceof MappedIntArray);
+        var ints = Npy.readInto(mapped, new int[6], false);
+        assertArrayEquals(data, ints.data());
+        assertArrayEquals(new int[]{3, 2}, ints.shape());
+        var doubles = Npy.readInto(mapped, new double[6], true);
+        assertArrayEquals(new double[]{1, 2, 3, 4, 5, 6}, doubles.data(), 0);
+        assertThrows(IllegalArgumentException.class,
+          () -> Npy.readInto(mapped, new long[6], false));
+      } finally {
+        ((MappedArray<?>) mapped).close();
+      }
+    });
+  }
+
+  @Test
+  public void testReadConverted() {
+    Tests.eachNpy(testNpy -> {
+      if (testNpy.dataType().size() == 0)
+        return;
+      var expected = Npy.read(testNpy.file()).asDoubleArray();
+      var doubles = Npy.readDoubles(testNpy.file());
+      assertArrayEquals(expected.data(), doubles.data(), 1e-6);
+      assertArrayEquals(expected.shape(), doubles.shape());
+      assertEquals(expected.hasColumnOrder(), doubles.hasColumnOrder());
+      var floats = Npy.readFloats(testNpy.file());
+      var longs = Npy.readLongs(testNpy.file());
+      var ints = Npy.readInts(testNpy.file());
+      for (int i = 0; i < expected.size(); i++) {
+        double e = expected.data()[i];
+        assertEquals((float) e, floats.data()[i], 1e-6);
+        assertEquals((long) e, longs.data()[i]);
+        assertEquals((int) e, ints.data()[i]);
+      }
+    });
+  }
+}
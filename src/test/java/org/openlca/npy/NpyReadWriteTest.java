@@ -1,6 +1,8 @@
 package org.openlca.npy;
 
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.file.Files;
 
 import static org.junit.Assert.*;
@@ -24,10 +26,11 @@ public class NpyReadWriteTest {
     var tempFile = Files.createTempFile("_npy_test", ".npy").toFile();
     Npy.write(tempFile, array);
     var copy = Npy.read(tempFile);
-    assertTrue(copy.isBigIntegerArray());
+    assertTrue(copy.isUnsignedLongArray());
     assertTrue(copy.hasColumnOrder());
     assertArrayEquals(array.shape(), copy.shape());
-    assertArrayEquals(array.data(), ((NpyBigIntArray) copy).data());
+    assertArrayEquals(array.data(),
+      ((NpyUnsignedLongArray) copy).asBigIntArray().data());
     Files.delete(tempFile.toPath());
   }
 
@@ -143,4 +146,42 @@ public class NpyReadWriteTest {
     Files.delete(tempFile.toPath());
   }
 
+
+  @Test
+  public void testWriteRangeTo() {
+    var arrays = new NpyArray<?>[]{
+      NpyBooleanArray.vectorOf(new boolean[]{true, false, true, true, false}),
+      NpyByteArray.vectorOf(new byte[]{1, -2, 3, -4, 5}),
+      NpyDoubleArray.vectorOf(new double[]{1.5, -2.5, 3.5, -4.5, 5.5}),
+      NpyFloatArray.vectorOf(new float[]{1.5f, -2.5f, 3.5f, -4.5f, 5.5f}),
+      NpyIntArray.vectorOf(new int[]{1, -2, 3, -4, 5}),
+      NpyLongArray.vectorOf(new long[]{1, -2, 3, -4, 5}),
+      NpyShortArray.vectorOf(new short[]{1, -2, 3, -4, 5}),
+    };
+    for (var array : arrays) {
+      int elemSize = array.dataType().size();
+
+      // the expected bytes, encoded element by element
+      var expected = ByteBuffer.allocate(array.size() * elemSize)
+        .order(ByteOrder.LITTLE_ENDIAN);
+      for (int i = 0; i < array.size(); i++) {
+        array.writeElementTo(i, expected);
+      }
+
+      // a buffer with space for 2 elements and a partial third one
+      var buffer = ByteBuffer.allocate(3 * elemSize - 1)
+        .order(ByteOrder.LITTLE_ENDIAN);
+      var actual = ByteBuffer.allocate(array.size() * elemSize);
+      int pos = 0;
+      while (pos < array.size()) {
+        int n = array.writeRangeTo(pos, array.size(), buffer);
+        assertEquals(Math.min(2, array.size() - pos), n);
+        pos += n;
+        buffer.flip();
+        actual.put(buffer);
+        buffer.clear();
+      }
+      assertArrayEquals(expected.array(), actual.array());
+    }
+  }
 }
@@ -25,6 +25,19 @@ public class NpyTest {
     });
   }
 
+  @Test
+  public void testMap() {
+    Tests.eachNpy(testNpy -> {
+      var array = Npy.map(testNpy.file());
+      assertEquals(MappedArray.isSupported(testNpy.dataType()),
+        array instanceof MappedArray);
+      if (array instanceof MappedArray) {
+        array = ((MappedArray<?>) array).load();
+      }
+      Tests.check(testNpy, array);
+    });
+  }
+
   @Test
   public void testReadAscii() {
     var file = new File(Tests.testDir, "S.npy");
@@ -65,4 +78,16 @@ public class NpyTest {
     assertArrayEquals(new int[]{1, 3, 5}, intArray.data());
   }
 
+  @Test
+  public void testWriteRange() {
+    Tests.withFile(file -> {
+      Npy.write(file, NpyLongArray.vectorOf(new long[]{1, 2, 3, 4, 5}));
+      Npy.writeRange(file, 1, NpyLongArray.vectorOf(new long[]{-2, -3}));
+      Npy.writeRange(file, 4, NpyLongArray.vectorOf(new long[]{-5}));
+      var r = Npy.read(file).asLongArray();
+      assertArrayEquals(new long[]{1, -2, -3, 4, -5}, r.data());
+      assertThrows(IndexOutOfBoundsException.class, () -> Npy.writeRange(
+        file, 4, NpyLongArray.vectorOf(new long[]{1, 2})));
+    });
+  }
 }
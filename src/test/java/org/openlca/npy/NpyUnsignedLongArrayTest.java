@@ -0,0 +1,87 @@
+package org.openlca.npy;
+
+import static org.junit.Assert.*;
+
+import java.math.BigInteger;
+import java.nio.channels.FileChannel;
+
+import org.junit.Test;
+
+public class NpyUnsignedLongArrayTest {
+
+  private final long max = -1L; // 2^64 - 1
+  private final long large = Long.MIN_VALUE + 42; // 2^63 + 42
+
+  @Test
+  public void testConversions() {
+    var array = NpyUnsignedLongArray.vectorOf(new long[]{0, 42, large, max});
+    assertEquals("[0, 42, 9223372036854775850, 18446744073709551615]",
+      array.toString());
+    assertEquals("18446744073709551615", array.toString(3));
+    assertTrue(array.compare(2, 1) > 0);
+    assertTrue(array.compare(3, 2) > 0);
+    assertEquals(0, array.compare(1, 1));
+
+    var doubles = array.asDoubleArray().data();
+    assertEquals(0x1.0p63, doubles[2], 0);
+    assertEquals(0x1.0p64, doubles[3], 0);
+    var bigs = array.asBigIntArray().data();
+    assertEquals(new BigInteger("9223372036854775850"), bigs[2]);
+    assertEquals(BigInteger.ONE.shiftLeft(64).subtract(BigInteger.ONE),
+      bigs[3]);
+  }
+
+  @Test
+  public void testReadWrite() {
+    var data = new long[]{1, large, 3, max, 5, 6};
+    for (var array : new NpyUnsignedLongArray[]{
+      NpyUnsignedLongArray.rowOrderOf(data, 2, 3),
+      NpyUnsignedLongArray.columnOrderOf(data, 2, 3)}) {
+      Tests.withFile(file -> {
+        Npy.write(file, array);
+        try (var channel = FileChannel.open(file.toPath())) {
+          var header = NpyHeader.read(channel);
+          assertEquals(NpyDataType.u8, header.dict().dataType());
+        }
+        var copy = Npy.read(file);
+        assertTrue(copy.isUnsignedLongArray());
+        assertEquals(array.hasColumnOrder(), copy.hasColumnOrder());
+        assertArrayEquals(data, ((NpyUnsignedLongArray) copy).data());
+
+        // big integers are written with their unsigned bits
+        Npy.write(file, array.asBigIntArray());
+        var fromBigs = (NpyUnsignedLongArray) Npy.read(file);
+        assertArrayEquals(data, fromBigs.data());
+      });
+    }
+  }
+
+  @Test
+  public void testSwitchOrder() {
+    var array = NpyUnsignedLongArray.rowOrderOf(
+      new long[]{1, 2, 3, 4, 5, max}, 2, 3);
+    var switched = Array2d.switchOrder(array);
+    assertTrue(switched.hasColumnOrder());
+    assertArrayEquals(new long[]{1, 4, 2, 5, 3, max}, switched.data());
+  }
+
+  @Test
+  public void testBigIntsOutOfRange() {
+    var two64 = BigInteger.ONE.shiftLeft(64);
+    for (var value : new BigInteger[]{BigInteger.ONE.negate(), two64}) {
+      var array = NpyBigIntArray.vectorOf(
+        new BigInteger[]{BigInteger.ONE, value});
+      Tests.withFile(file -> assertThrows(
+        IllegalArgumentException.class, () -> Npy.write(file, array)));
+    }
+
+    // the bounds of the range are fine
+    var bounds = NpyBigIntArray.vectorOf(new BigInteger[]{
+      BigInteger.ZERO, two64.subtract(BigInteger.ONE)});
+    Tests.withFile(file -> {
+      Npy.write(file, bounds);
+      var copy = (NpyUnsignedLongArray) Npy.read(file);
+      assertArrayEquals(new long[]{0, max}, copy.data());
+    });
+  }
+}
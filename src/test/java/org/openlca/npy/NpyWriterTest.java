@@ -0,0 +1,123 @@
+package org.openlca.npy;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class NpyWriterTest {
+
+  @Test
+  public void testAppendRows() {
+    var options = NpyOptions.builder().withBufferSize(20).create();
+    Tests.withFile(file -> {
+      try (var writer = NpyWriter.of(file, NpyDataType.f8)
+        .withRowShape(3)
+        .withOptions(options)
+        .create()) {
+        for (int row = 0; row < 100; row++) {
+          writer.append(new double[]{row, row + 0.5, -row});
+        }
+        assertEquals(100, writer.rows());
+      }
+      var array = Npy.read(file).asDoubleArray();
+      assertArrayEquals(new int[]{100, 3}, array.shape());
+      assertFalse(array.hasColumnOrder());
+      for (int row = 0; row < 100; row++) {
+        assertEquals(row, Array2d.get(array, row, 0), 0);
+        assertEquals(row + 0.5, Array2d.get(array, row, 1), 0);
+        assertEquals(-row, Array2d.get(array, row, 2), 0);
+      }
+    });
+  }
+
+  @Test
+  public void testAppendChunks() {
+    Tests.withFile(file -> {
+      try (var writer = NpyWriter.of(file, NpyDataType.i4)
+        .withRowShape(2, 2)
+        .create()) {
+        writer.append(new int[]{1, 2, 3});
+        writer.append(new int[]{4, 5});
+        writer.append(NpyIntArray.vectorOf(new int[]{6, 7, 8}));
+      }
+      var array = Npy.read(file).asIntArray();
+      assertArrayEquals(new int[]{2, 2, 2}, array.shape());
+      assertArrayEquals(new int[]{1, 2, 3, 4, 5, 6, 7, 8}, array.data());
+    });
+  }
+
+  @Test
+  public void testColumnOrderChunks() {
+    Tests.withFile(file -> {
+      try (var writer = NpyWriter.of(file, NpyDataType.i4)
+        .withRowShape(3)
+        .create()) {
+        // rows [1, 2, 3] and [4, 5, 6] in column-major order
+        writer.append(NpyIntArray.columnOrderOf(
+          new int[]{1, 4, 2, 5, 3, 6}, 2, 3));
+        // a single column in column-major order is just a vector
+        writer.append(new NpyIntArray(
+          new int[]{3, 1}, new int[]{7, 8, 9}, true));
+        var cube = new NpyIntArray(new int[]{2, 2, 2}, new int[8], true);
+        assertThrows(IllegalArgumentException.class,
+          () -> writer.append(cube));
+      }
+      var array = Npy.read(file).asIntArray();
+      assertArrayEquals(new int[]{3, 3}, array.shape());
+      assertArrayEquals(
+        new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9}, array.data());
+    });
+  }
+
+  @Test
+  public void testVectors() {
+    Tests.withFile(file -> {
+      try (var writer = NpyWriter.of(file, NpyDataType.bool).create()) {
+        writer.append(new boolean[]{true, false});
+        writer.append(new boolean[]{true});
+      }
+      var array = Npy.read(file).asBooleanArray();
+      assertArrayEquals(new int[]{3}, array.shape());
+      assertArrayEquals(new boolean[]{true, false, true}, array.data());
+    });
+
+    // an empty vector
+    Tests.withFile(file -> {
+      NpyWriter.of(file, NpyDataType.i2).create().close();
+      var array = Npy.read(file);
+      assertArrayEquals(new int[]{0}, array.shape());
+      assertEquals(0, array.size());
+    });
+  }
+
+  @Test
+  public void testHeaderLength() {
+    Tests.withFile(file -> {
+      NpyWriter.of(file, NpyDataType.i8).withRowShape(5).create().close();
+      Npy.use(file, (channel, header) -> {
+        assertEquals(0, header.dataOffset() % 64);
+        assertArrayEquals(new int[]{0, 5}, header.dict().shape());
+      });
+    });
+  }
+
+  @Test
+  public void testInvalidAppends() {
+    Tests.withFile(file -> {
+      var writer = NpyWriter.of(file, NpyDataType.f8)
+        .withRowShape(2)
+        .create();
+      assertThrows(IllegalArgumentException.class,
+        () -> writer.append(new float[]{1, 2}));
+      writer.append(new double[]{1, 2, 3});
+
+      // the incomplete row is removed
+      assertThrows(IllegalStateException.class, writer::close);
+      var array = Npy.read(file).asDoubleArray();
+      assertArrayEquals(new int[]{1, 2}, array.shape());
+      assertArrayEquals(new double[]{1, 2}, array.data(), 0);
+      assertThrows(IllegalStateException.class,
+        () -> writer.append(new double[]{1, 2}));
+    });
+  }
+}
@@ -0,0 +1,90 @@
+package org.openlca.npy;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.openlca.npy.dict.NpyHeaderDict;
+
+public class ParallelReaderTest {
+
+  @Test
+  public void testReadTestFiles() {
+    Tests.eachNpy(testNpy -> {
+      var array = Npy.readParallel(testNpy.file(), 3, 4);
+      Tests.check(testNpy, array);
+    });
+  }
+
+  @Test
+  public void testChunks() {
+    var doubles = new double[1001];
+    for (int i = 0; i < doubles.length; i++) {
+      doubles[i] = i / 3.0;
+    }
+    // chunk sizes that are not a multiple of the element size
+    for (int chunkSize : new int[]{1, 20, 801, 1 << 20}) {
+      Tests.withFile(file -> {
+        Npy.write(file, NpyDoubleArray.vectorOf(doubles));
+        var array = Npy.readParallel(file, 4, chunkSize);
+        assertTrue(array.isDoubleArray());
+        assertArrayEquals(doubles, array.asDoubleArray().data(), 0);
+      });
+    }
+  }
+
+  @Test
+  public void testWidening() {
+    var ints = new int[]{1, 2, 3, 65535, 0};
+    Tests.withFile(file -> {
+      var u2 = NpyIntArray.vectorOf(ints);
+      var bytes = new byte[10];
+      for (int i = 0; i < ints.length; i++) {
+        bytes[2 * i] = (byte) ints[i];
+        bytes[2 * i + 1] = (byte) (ints[i] >>> 8);
+      }
+      var dict = NpyHeaderDict.of(NpyDataType.u2)
+        .withShape(u2.shape())
+        .withByteOrder(NpyByteOrder.LITTLE_ENDIAN)
+        .create();
+      Npy.write(file, dict, bytes);
+      var array = Npy.readParallel(file, 2, 2);
+      assertTrue(array.isIntArray());
+      assertArrayEquals(ints, array.asIntArray().data());
+    });
+  }
+
+  @Test
+  public void testStrings() {
+    Tests.withFile(file -> {
+      Npy.write(file, NpyCharArray.of("übergroß"));
+      var array = Npy.readParallel(file, 2, 8);
+      assertEquals("übergroß", array.toString());
+    });
+  }
+
+  @Test
+  public void testSharedPools() {
+    var pool = ReaderPools.of(3);
+    assertSame(pool, ReaderPools.of(3));
+    assertSame(pool, ReaderPools.of(4));
+    assertEquals(4, pool.getParallelism());
+    assertNotSame(pool, ReaderPools.of(2));
+    assertNotSame(pool, ReaderPools.of(5));
+    assertEquals(1, ReaderPools.of(1).getParallelism());
+    var max = ReaderPools.of(ReaderPools.MAX_PARALLELISM);
+    assertSame(max, ReaderPools.of(1000));
+    assertEquals(ReaderPools.MAX_PARALLELISM, max.getParallelism());
+    assertThrows(IllegalArgumentException.class, () -> ReaderPools.of(0));
+
+    // the pool is not shut down after a read
+    Tests.withFile(file -> {
+      Npy.write(file, NpyIntArray.vectorOf(new int[]{1, 2, 3, 4, 5}));
+      for (int i = 0; i < 3; i++) {
+        var array = Npy.readParallel(file, 3, 4);
+        assertArrayEquals(
+          new int[]{1, 2, 3, 4, 5}, array.asIntArray().data());
+      }
+    });
+    assertFalse(pool.isShutdown());
+  }
+}
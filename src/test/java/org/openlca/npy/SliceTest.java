@@ -0,0 +1,135 @@
+package org.openlca.npy;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class SliceTest {
+
+  @Test
+  public void testResolve() {
+    var shape = new int[]{10, 5, 20};
+    var ranges = Slice.of("2:10, :, ::4").resolve(shape);
+    check(ranges[0], 2, 8, 1);
+    check(ranges[1], 0, 5, 1);
+    check(ranges[2], 0, 5, 4);
+
+    ranges = Slice.of("-3:, 1, ...").resolve(shape);
+    check(ranges[0], 7, 3, 1);
+    check(ranges[1], 1, 1, 1);
+    assertTrue(ranges[1].isIndex);
+    check(ranges[2], 0, 20, 1);
+
+    ranges = Slice.of("..., -1").resolve(shape);
+    check(ranges[0], 0, 10, 1);
+    check(ranges[2], 19, 1, 1);
+
+    ranges = Slice.of("5:2, 1:100:3").resolve(shape);
+    check(ranges[0], 5, 0, 1);
+    check(ranges[1], 1, 2, 3);
+  }
+
+  @Test
+  public void testInvalid() {
+    for (var s : new String[]{"1:2:3:4", "a", "::0", "::-1", "1,,2"}) {
+      assertThrows(IllegalArgumentException.class, () -> Slice.of(s));
+    }
+    assertThrows(IllegalArgumentException.class,
+      () -> Slice.of("1, 2, 3").resolve(new int[]{2, 2}));
+    assertThrows(IndexOutOfBoundsException.class,
+      () -> Slice.of("2").resolve(new int[]{2}));
+  }
+
+  @Test
+  public void testReadSlices() {
+    int[] shape = {6, 5, 7};
+    var data = new int[6 * 5 * 7];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = i;
+    }
+    var slices = new String[]{
+      "", "2:5", "2:5, :, ::4", "::2, 1:4, 3", "1, 2, 3", "-1, ..., 1:",
+      ":, :, 2:4", "4:2", "..., ::3", "1:6:2, ::2, :"};
+    for (boolean fortran : new boolean[]{false, true}) {
+      var array = new NpyIntArray(shape, data, fortran);
+      Tests.withFile(file -> {
+        Npy.write(file, array);
+        for (var s : slices) {
+          var slice = Slice.of(s);
+          var result = Npy.slice(file, slice).asIntArray();
+          assertEquals(fortran, result.hasColumnOrder());
+          var expected = sliceOf(array, slice);
+          assertArrayEquals(s, expected.shape(), result.shape());
+          assertArrayEquals(s, expected.data(), result.data());
+        }
+      });
+    }
+  }
+
+  @Test
+  public void testLargeRuns() {
+    var data = new double[300_000];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = i;
+    }
+    Tests.withFile(file -> {
+      Npy.write(file, NpyDoubleArray.rowOrderOf(data, 2, 150_000));
+      var result = Npy.slice(file, Slice.of("1")).asDoubleArray();
+      assertArrayEquals(new int[]{150_000}, result.shape());
+      assertEquals(150_000, result.data()[0], 0);
+      assertEquals(299_999, result.data()[149_999], 0);
+    });
+  }
+
+  private void check(Slice.Range range, int start, int count, int step) {
+    assertEquals(start, range.start);
+    assertEquals(count, range.count);
+    assertEquals(step, range.step);
+  }
+
+  /**
+   * Computes the slice of a 3-dimensional array in memory.
+   */
+  private NpyIntArray sliceOf(NpyIntArray array, Slice slice) {
+    var shape = array.shape();
+    var r = slice.resolve(shape);
+    var values = new int[r[0].count * r[1].count * r[2].count];
+    int k = 0;
+    // iterate in the storage order of the array
+    if (!array.hasColumnOrder()) {
+      for (int i = 0; i < r[0].count; i++)
+        for (int j = 0; j < r[1].count; j++)
+          for (int l = 0; l < r[2].count; l++)
+            values[k++] = valueOf(array, r, i, j, l);
+    } else {
+      for (int l = 0; l < r[2].count; l++)
+        for (int j = 0; j < r[1].count; j++)
+          for (int i = 0; i < r[0].count; i++)
+            values[k++] = valueOf(array, r, i, j, l);
+    }
+    int dims = 0;
+    for (var range : r) {
+      if (!range.isIndex) {
+        dims++;
+      }
+    }
+    var resultShape = new int[dims];
+    for (int i = 0, d = 0; i < r.length; i++) {
+      if (!r[i].isIndex) {
+        resultShape[d++] = r[i].count;
+      }
+    }
+    return new NpyIntArray(resultShape, values, array.hasColumnOrder());
+  }
+
+  private int valueOf(NpyIntArray array, Slice.Range[] r, int i, int j, int l) {
+    var shape = array.shape();
+    int a = r[0].start + i * r[0].step;
+    int b = r[1].start + j * r[1].step;
+    int c = r[2].start + l * r[2].step;
+    int index = array.hasColumnOrder()
+      ? a + shape[0] * (b + shape[1] * c)
+      : (a * shape[1] + b) * shape[2] + c;
+    return array.data()[index];
+  }
+}
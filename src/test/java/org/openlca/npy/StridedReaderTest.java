@@ -0,0 +1,52 @@
+package org.openlca.npy;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class StridedReaderTest {
+
+  @Test
+  public void testCostModel() {
+    assertTrue(StridedReader.useBlocks(8, 16));
+    assertTrue(StridedReader.useBlocks(8, 8 * 1000));
+    assertFalse(StridedReader.useBlocks(8, 8 * 2000));
+    assertFalse(StridedReader.useBlocks(1, 2L * StridedReader.BLOCK_SIZE));
+  }
+
+  @Test
+  public void testStrategies() {
+    int size = 400_000;
+    var data = new long[size];
+    for (int i = 0; i < size; i++) {
+      data[i] = i;
+    }
+    Tests.withFile(file -> {
+      Npy.write(file, NpyLongArray.vectorOf(data));
+      // small strides are read in blocks (also over multiple blocks), large
+      // strides with single reads
+      for (int inc : new int[]{2, 3, 1000, 4999, 20_000}) {
+        for (int offset : new int[]{0, 7}) {
+          int n = (size - 1 - offset) / inc + 1;
+          var array = Npy.readElements(file, n, offset, inc).asLongArray();
+          assertEquals(n, array.size());
+          for (int i = 0; i < n; i++) {
+            assertEquals(offset + (long) i * inc, array.data()[i]);
+          }
+        }
+      }
+    });
+  }
+
+  @Test
+  public void testOutOfRange() {
+    Tests.withFile(file -> {
+      Npy.write(file, NpyIntArray.vectorOf(new int[]{1, 2, 3, 4, 5}));
+      var e = assertThrows(IndexOutOfBoundsException.class,
+        () -> Npy.readElements(file, 3, 1, 2));
+      assertNotNull(e);
+      var array = Npy.readElements(file, 3, 0, 2).asIntArray();
+      assertArrayEquals(new int[]{1, 3, 5}, array.data());
+    });
+  }
+}
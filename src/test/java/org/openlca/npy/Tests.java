@@ -113,7 +113,7 @@ public class Tests {
         assertTrue(array.isLongArray());
         break;
       case u8:
-        assertTrue(array.isBigIntegerArray());
+        assertTrue(array.isUnsignedLongArray());
         break;
       case f2:
       case f4:
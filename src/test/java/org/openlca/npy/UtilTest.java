@@ -36,4 +36,89 @@ public class UtilTest {
     var u8Max = Util.u8ToBigInteger(buffer);
     assertEquals("18446744073709551615", u8Max.toString());
   }
+
+  @Test
+  public void testF2ToFloat() {
+    assertEquals(0f, Util.f2ToFloat((short) 0x0000), 0);
+    assertEquals(1f, Util.f2ToFloat((short) 0x3c00), 0);
+    assertEquals(-2f, Util.f2ToFloat((short) 0xc000), 0);
+    assertEquals(0.5f, Util.f2ToFloat((short) 0x3800), 0);
+    assertEquals(65504f, Util.f2ToFloat((short) 0x7bff), 0);
+    assertEquals(0x1.0p-24f, Util.f2ToFloat((short) 0x0001), 0);
+    assertEquals(0x1.ff8p-15f, Util.f2ToFloat((short) 0x03ff), 0);
+    assertEquals(Float.POSITIVE_INFINITY, Util.f2ToFloat((short) 0x7c00), 0);
+    assertEquals(Float.NEGATIVE_INFINITY, Util.f2ToFloat((short) 0xfc00), 0);
+    assertTrue(Float.isNaN(Util.f2ToFloat((short) 0x7e00)));
+    var buffer = ByteBuffer.allocate(2).order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putShort((short) 0x3555).flip();
+    assertEquals(0.333251953125f, Util.f2ToFloat(buffer), 0);
+  }
+
+  @Test
+  public void testFloatToF2() {
+    assertEquals(0x0000, Util.floatToF2(0f));
+    assertEquals((short) 0x8000, Util.floatToF2(-0f));
+    assertEquals(0x3c00, Util.floatToF2(1f));
+    assertEquals((short) 0xc000, Util.floatToF2(-2f));
+    assertEquals(0x7bff, Util.floatToF2(65504f));
+    assertEquals(0x3555, Util.floatToF2(1f / 3f));
+
+    // ties to even: 1 + 2^-11 is between 1 and 1 + 2^-10
+    assertEquals(0x3c00, Util.floatToF2(1f + 0x1.0p-11f));
+    assertEquals(0x3c02, Util.floatToF2(1f + 3 * 0x1.0p-11f));
+    assertEquals(0x3c01, Util.floatToF2(Math.nextUp(1f + 0x1.0p-11f)));
+    assertEquals(0x7bff, Util.floatToF2(65519.99f));
+    assertEquals(0x7c00, Util.floatToF2(65520f));
+    assertEquals(0x7c00, Util.floatToF2(1e10f));
+    assertEquals((short) 0xfc00, Util.floatToF2(Float.NEGATIVE_INFINITY));
+    assertTrue(Float.isNaN(Util.f2ToFloat(Util.floatToF2(Float.NaN))));
+
+    // subnormal numbers: 2^-24 is the smallest one, 2^-25 a tie to zero
+    assertEquals(0x0001, Util.floatToF2(0x1.0p-24f));
+    assertEquals(0x03ff, Util.floatToF2(0x1.ff8p-15f));
+    assertEquals(0x0400, Util.floatToF2(0x1.ffcp-15f));
+    assertEquals(0x0000, Util.floatToF2(0x1.0p-25f));
+    assertEquals(0x0001, Util.floatToF2(Math.nextUp(0x1.0p-25f)));
+    assertEquals(0x0002, Util.floatToF2(3 * 0x1.0p-25f));
+    assertEquals(0x0000, Util.floatToF2(Float.MIN_VALUE));
+  }
+
+  @Test
+  public void testF2RoundTrip() {
+    for (int bits = 0; bits < 0x10000; bits++) {
+      float f = Util.f2ToFloat((short) bits);
+      if (Float.isNaN(f)) {
+        assertTrue(Float.isNaN(Util.f2ToFloat(Util.floatToF2(f))));
+        assertTrue(Float.isNaN(Util.f2ToFloat(Util.doubleToF2(f))));
+        continue;
+      }
+      assertEquals(bits, Util.floatToF2(f) & 0xffff);
+      assertEquals(bits, Util.doubleToF2(f) & 0xffff);
+    }
+  }
+
+  @Test
+  public void testFloatAndDoubleToF2() {
+    // floats are exact doubles, so both encoders need to round the same
+    for (long i = 0; i <= 0xffffffffL; i += 9973) {
+      float f = Float.intBitsToFloat((int) i);
+      if (Float.isNaN(f))
+        continue;
+      assertEquals(Util.doubleToF2(f), Util.floatToF2(f));
+    }
+  }
+
+  @Test
+  public void testDoubleToF2() {
+    // rounding via float would round twice here and give 0x3c01
+    double d = 1 + 0x1.0p-11 + 0x1.0p-40;
+    assertEquals(0x3c00, Util.floatToF2((float) d));
+    assertEquals(0x3c01, Util.doubleToF2(d));
+    assertEquals(0x7bff, Util.doubleToF2(65519.99999));
+    assertEquals(0x7c00, Util.doubleToF2(65520));
+    assertEquals(0x0000, Util.doubleToF2(0x1.0p-25));
+    assertEquals(0x0001, Util.doubleToF2(0x1.0000000001p-25));
+    assertEquals((short) 0xfc00, Util.doubleToF2(-1e300));
+    assertEquals((short) 0x8000, Util.doubleToF2(-1e-300));
+  }
 }
@@ -0,0 +1,63 @@
+package org.openlca.npy.examples;
+
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.openlca.npy.Npy;
+import org.openlca.npy.NpyBitArray;
+
+/**
+ * Compares reading a large boolean array into a {@code boolean[]} array with
+ * reading it into a bit array, and the sizes of the {@code ?} file and the
+ * file with packed bits.
+ */
+public class BitArrayBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    int n = 200_000_000;
+    var rand = new Random(42);
+    var bits = NpyBitArray.of(new int[]{n}, false);
+    for (int i = 0; i < n; i++) {
+      if (rand.nextInt(10) == 0) {
+        bits.set(i, true);
+      }
+    }
+    var file = Files.createTempFile("_npy_bench", ".npy").toFile();
+    var packed = Files.createTempFile("_npy_bench", ".npy").toFile();
+
+    System.out.println("Npy.write bits as ?");
+    benchmark(() -> {
+      Npy.write(file, bits);
+      return null;
+    }, 3);
+    System.out.println("Npy.read as boolean[]");
+    benchmark(() -> Npy.read(file), 3);
+    System.out.println("Npy.readBits");
+    benchmark(() -> Npy.readBits(file), 3);
+    System.out.println("cardinality");
+    benchmark(bits::cardinality, 3);
+
+    System.out.println("Npy.writePackedBits");
+    benchmark(() -> {
+      Npy.writePackedBits(packed, bits);
+      return null;
+    }, 3);
+    System.out.println("Npy.readPackedBits");
+    benchmark(() -> Npy.readPackedBits(packed, new int[]{n}, false), 3);
+    System.out.printf("file sizes: ? = %d MB, packed = %d MB%n",
+      file.length() / 1_000_000, packed.length() / 1_000_000);
+
+    Files.delete(file.toPath());
+    Files.delete(packed.toPath());
+  }
+
+  private static void benchmark(Supplier<Object> fn, int n) {
+    for (int i = 0; i < n; i++) {
+      var start = System.nanoTime();
+      fn.get();
+      var time = ((double) (System.nanoTime() - start)) / 1e9;
+      System.out.printf("%d: %.3f seconds %n", i + 1, time);
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package org.openlca.npy.examples;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.openlca.npy.Npy;
+import org.openlca.npy.NpyByteOrder;
+import org.openlca.npy.NpyDataType;
+import org.openlca.npy.dict.NpyHeaderDict;
+
+/**
+ * Compares reading a large {@code >f8} array with reading the same array in
+ * little-endian order, and measures the conversion of the big-endian file
+ * with {@code Npy.toLittleEndian}.
+ */
+public class ByteOrderBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    int n = 25_000_000;
+    var rand = new Random(42);
+    var buffer = ByteBuffer.allocate(8 * n).order(ByteOrder.BIG_ENDIAN);
+    for (int i = 0; i < n; i++) {
+      buffer.putDouble(rand.nextDouble());
+    }
+    var dict = NpyHeaderDict.of(NpyDataType.f8)
+      .withByteOrder(NpyByteOrder.BIG_ENDIAN)
+      .withShape(new int[]{n})
+      .create();
+    var file = Files.createTempFile("_npy_bench", ".npy").toFile();
+    Npy.write(file, dict, buffer.array());
+    System.out.printf("read %d f8 values%n", n);
+
+    System.out.println("Npy.read >f8");
+    benchmark(() -> Npy.read(file), 5);
+
+    var start = System.nanoTime();
+    Npy.toLittleEndian(file);
+    var time = ((double) (System.nanoTime() - start)) / 1e9;
+    System.out.printf("Npy.toLittleEndian: %.3f seconds%n", time);
+
+    System.out.println("Npy.read <f8");
+    benchmark(() -> Npy.read(file), 5);
+    Files.delete(file.toPath());
+  }
+
+  private static void benchmark(Supplier<Object> fn, int n) {
+    for (int i = 0; i < n; i++) {
+      var start = System.nanoTime();
+      fn.get();
+      var time = ((double) (System.nanoTime() - start)) / 1e9;
+      System.out.printf("%d: %.3f seconds %n", i + 1, time);
+    }
+  }
+}
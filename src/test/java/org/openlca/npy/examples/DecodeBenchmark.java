@@ -0,0 +1,169 @@
+package org.openlca.npy.examples;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.openlca.npy.Npy;
+import org.openlca.npy.NpyDoubleArray;
+import org.openlca.npy.NpyHeader;
+import org.openlca.npy.dict.NpyHeaderDict;
+
+/**
+ * Compares the bulk decoding of {@code Npy.read} and {@code Npy.memmap} with
+ * the decode path that the reader used before it had typed bulk transfers:
+ * the data are read in chunks of 8 KB into a heap buffer and each element is
+ * decoded with a virtual {@code nextInto} call of a builder. As in the old
+ * reader, the builders of several data types share the call site, so that
+ * the call is megamorphic and not inlined.
+ */
+public class DecodeBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    int n = 4000;
+    var data = new double[n * n];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = Math.sqrt(i);
+    }
+    var file = Files.createTempFile("_npy_bench", ".npy").toFile();
+    Npy.write(file, NpyDoubleArray.rowOrderOf(data, n, n));
+    System.out.printf("decode a %d x %d f8 matrix%n", n, n);
+
+    // use the call site with builders of other types first, like an
+    // application that reads files of different types
+    List<Function<NpyHeaderDict, Builder>> others = List.of(
+      FloatBuilder::new, IntBuilder::new, LongBuilder::new);
+    for (var fn : others) {
+      for (int i = 0; i < 3; i++) {
+        baseline(file, fn);
+      }
+    }
+
+    System.out.println("baseline: per-element nextInto");
+    benchmark(() -> baseline(file, DoubleBuilder::new), 5);
+    System.out.println("Npy.memmap");
+    benchmark(() -> Npy.memmap(file), 5);
+    System.out.println("Npy.read");
+    benchmark(() -> Npy.read(file), 5);
+
+    Files.delete(file.toPath());
+  }
+
+  /**
+   * The read loop of the previous channel reader.
+   */
+  private static Object baseline(
+    File file, Function<NpyHeaderDict, Builder> fn) {
+    try (var f = new RandomAccessFile(file, "r");
+         var channel = f.getChannel()) {
+      var header = NpyHeader.read(channel);
+      var dict = header.dict();
+      var builder = fn.apply(dict);
+      var buffer = ByteBuffer.allocate(8 * 1024).order(header.byteOrder());
+      long totalBytes = dict.dataSize();
+      long readBytes = 0;
+      while (readBytes < totalBytes) {
+        int k = channel.read(buffer);
+        if (k <= 0)
+          break;
+        buffer.flip();
+        builder.readAllFrom(buffer);
+        buffer.clear();
+        readBytes += k;
+      }
+      return builder;
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static abstract class Builder {
+
+    final int elementCount;
+    private final int elementSize;
+    private int pos;
+
+    Builder(NpyHeaderDict dict, int elementSize) {
+      this.elementCount = (int) (dict.dataSize() / elementSize);
+      this.elementSize = elementSize;
+    }
+
+    final void readAllFrom(ByteBuffer buffer) {
+      while (pos != elementCount && buffer.remaining() >= elementSize) {
+        nextInto(buffer, pos);
+        pos++;
+      }
+    }
+
+    abstract void nextInto(ByteBuffer buffer, int pos);
+  }
+
+  private static final class DoubleBuilder extends Builder {
+    private final double[] data;
+
+    DoubleBuilder(NpyHeaderDict dict) {
+      super(dict, 8);
+      data = new double[elementCount];
+    }
+
+    @Override
+    void nextInto(ByteBuffer buffer, int pos) {
+      data[pos] = buffer.getDouble();
+    }
+  }
+
+  private static final class FloatBuilder extends Builder {
+    private final float[] data;
+
+    FloatBuilder(NpyHeaderDict dict) {
+      super(dict, 4);
+      data = new float[elementCount];
+    }
+
+    @Override
+    void nextInto(ByteBuffer buffer, int pos) {
+      data[pos] = buffer.getFloat();
+    }
+  }
+
+  private static final class IntBuilder extends Builder {
+    private final int[] data;
+
+    IntBuilder(NpyHeaderDict dict) {
+      super(dict, 4);
+      data = new int[elementCount];
+    }
+
+    @Override
+    void nextInto(ByteBuffer buffer, int pos) {
+      data[pos] = buffer.getInt();
+    }
+  }
+
+  private static final class LongBuilder extends Builder {
+    private final long[] data;
+
+    LongBuilder(NpyHeaderDict dict) {
+      super(dict, 8);
+      data = new long[elementCount];
+    }
+
+    @Override
+    void nextInto(ByteBuffer buffer, int pos) {
+      data[pos] = buffer.getLong();
+    }
+  }
+
+  private static void benchmark(Supplier<Object> fn, int n) {
+    for (int i = 0; i < n; i++) {
+      var start = System.nanoTime();
+      fn.get();
+      var time = ((double) (System.nanoTime() - start)) / 1e9;
+      System.out.printf("%d: %.3f seconds %n", i + 1, time);
+    }
+  }
+}
@@ -0,0 +1,136 @@
+package org.openlca.npy.examples;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.openlca.npy.Npy;
+import org.openlca.npy.NpyDataType;
+import org.openlca.npy.NpyHeader;
+import org.openlca.npy.dict.NpyHeaderDict;
+
+/**
+ * Compares the decoding of a large {@code f2} array with the bit-twiddling
+ * conversion per element (which is what the reader did before) against the
+ * lookup table that {@code Npy.read} now uses.
+ */
+public class Float16Benchmark {
+
+  public static void main(String[] args) throws Exception {
+    int n = 50_000_000;
+    var bytes = new byte[2 * n];
+    var buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+    var rand = new Random(42);
+    for (int i = 0; i < n; i++) {
+      // random finite values, including subnormal numbers
+      buffer.putShort((short) (rand.nextInt(0x7c00)
+        | (rand.nextBoolean() ? 0x8000 : 0)));
+    }
+    var dict = NpyHeaderDict.of(NpyDataType.f2)
+      .withShape(new int[]{n})
+      .create();
+    var file = Files.createTempFile("_npy_bench", ".npy").toFile();
+    Npy.write(file, dict, bytes);
+    System.out.printf("decode %d f2 values%n", n);
+
+    System.out.println("bit-twiddling per element");
+    benchmark(() -> perElement(file, false), 5);
+    System.out.println("lookup table per element");
+    benchmark(() -> perElement(file, true), 5);
+    System.out.println("lookup table over bulk chunks");
+    benchmark(() -> bulk(file), 5);
+    System.out.println("Npy.read");
+    benchmark(() -> Npy.read(file), 5);
+
+    Files.delete(file.toPath());
+  }
+
+  private static float[] perElement(File file, boolean table) {
+    try (var f = new RandomAccessFile(file, "r");
+         var channel = f.getChannel()) {
+      var header = NpyHeader.read(channel);
+      var buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+        header.dataOffset(), header.dict().dataSize());
+      buffer.order(header.byteOrder());
+      var values = new float[header.dict().numberOfElements()];
+      for (int i = 0; i < values.length; i++) {
+        int bits = buffer.getShort() & 0xffff;
+        values[i] = table ? TABLE[bits] : twiddle(bits);
+      }
+      return values;
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static float[] bulk(File file) {
+    try (var f = new RandomAccessFile(file, "r");
+         var channel = f.getChannel()) {
+      var header = NpyHeader.read(channel);
+      var buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+        header.dataOffset(), header.dict().dataSize());
+      var shorts = buffer.order(header.byteOrder()).asShortBuffer();
+      var values = new float[header.dict().numberOfElements()];
+      var chunk = new short[4096];
+      int pos = 0;
+      while (pos < values.length) {
+        int k = Math.min(chunk.length, values.length - pos);
+        shorts.get(chunk, 0, k);
+        for (int i = 0; i < k; i++) {
+          values[pos + i] = TABLE[chunk[i] & 0xffff];
+        }
+        pos += k;
+      }
+      return values;
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static final float[] TABLE = new float[1 << 16];
+
+  static {
+    for (int i = 0; i < TABLE.length; i++) {
+      TABLE[i] = twiddle(i);
+    }
+  }
+
+  /**
+   * The previous conversion routine, from https://stackoverflow.com/a/6162687.
+   */
+  private static float twiddle(int hbits) {
+    int mant = hbits & 0x03ff;
+    int exp = hbits & 0x7c00;
+    if (exp == 0x7c00)
+      exp = 0x3fc00;
+    else if (exp != 0) {
+      exp += 0x1c000;
+      if (mant == 0 && exp > 0x1c400)
+        return Float.intBitsToFloat((hbits & 0x8000) << 16
+          | exp << 13 | 0x3ff);
+    } else if (mant != 0) {
+      exp = 0x1c400;
+      do {
+        mant <<= 1;
+        exp -= 0x400;
+      } while ((mant & 0x400) == 0);
+      mant &= 0x3ff;
+    }
+    return Float.intBitsToFloat((hbits & 0x8000) << 16
+      | (exp | mant) << 13);
+  }
+
+  private static void benchmark(Supplier<Object> fn, int n) {
+    for (int i = 0; i < n; i++) {
+      var start = System.nanoTime();
+      fn.get();
+      var time = ((double) (System.nanoTime() - start)) / 1e9;
+      System.out.printf("%d: %.3f seconds %n", i + 1, time);
+    }
+  }
+}
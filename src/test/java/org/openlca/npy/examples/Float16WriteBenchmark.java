@@ -0,0 +1,58 @@
+package org.openlca.npy.examples;
+
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.openlca.npy.Npy;
+import org.openlca.npy.NpyFloat16Array;
+import org.openlca.npy.NpyFloatArray;
+
+/**
+ * Measures the encoding of {@code float} and {@code double} values into
+ * {@code f2} values and compares the time of writing a large array as
+ * {@code f2} against writing it as {@code f4}.
+ */
+public class Float16WriteBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    int n = 50_000_000;
+    var floats = new float[n];
+    var doubles = new double[n];
+    var rand = new Random(42);
+    for (int i = 0; i < n; i++) {
+      doubles[i] = rand.nextGaussian() * 100;
+      floats[i] = (float) doubles[i];
+    }
+    System.out.printf("encode %d values (%d MB of f2 data)%n",
+      n, 2 * n / 1_000_000);
+
+    System.out.println("float[] -> f2");
+    benchmark(() -> NpyFloat16Array.encode(floats), 5);
+    System.out.println("double[] -> f2");
+    benchmark(() -> NpyFloat16Array.encode(doubles), 5);
+
+    var file = Files.createTempFile("_npy_bench", ".npy").toFile();
+    var f4 = NpyFloatArray.vectorOf(floats);
+    System.out.println("write f4");
+    benchmark(() -> {
+      Npy.write(file, f4);
+      return null;
+    }, 5);
+    System.out.println("encode and write f2");
+    benchmark(() -> {
+      Npy.write(file, NpyFloat16Array.of(f4));
+      return null;
+    }, 5);
+    Files.delete(file.toPath());
+  }
+
+  private static void benchmark(Supplier<Object> fn, int n) {
+    for (int i = 0; i < n; i++) {
+      var start = System.nanoTime();
+      fn.get();
+      var time = ((double) (System.nanoTime() - start)) / 1e9;
+      System.out.printf("%d: %.3f seconds %n", i + 1, time);
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package org.openlca.npy.examples;
+
+import java.nio.file.Files;
+
+import org.openlca.npy.Npy;
+import org.openlca.npy.NpyDoubleArray;
+import org.openlca.npy.NpyOptions;
+
+/**
+ * Compares the read and write throughput of different buffer sizes and
+ * buffer types. This was used to select the default buffer size in
+ * {@link NpyOptions#DEFAULT_BUFFER_SIZE}.
+ */
+public class IOBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    int n = 4000;
+    var data = new double[n * n];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = Math.sqrt(i);
+    }
+    var array = NpyDoubleArray.rowOrderOf(data, n, n);
+    var file = Files.createTempFile("_npy_bench", ".npy").toFile();
+    System.out.printf("read and write a %d x %d f8 matrix%n", n, n);
+
+    var configs = new NpyOptions[]{
+      options(8 * 1024, false),
+      options(8 * 1024, true),
+      options(256 * 1024, true),
+      options(1024 * 1024, false),
+      options(1024 * 1024, true),
+      options(4 * 1024 * 1024, true),
+    };
+    for (var options : configs) {
+      System.out.printf("buffer size = %d KB, direct = %s%n",
+        options.bufferSize() / 1024, options.hasDirectBuffers());
+      long write = 0;
+      long read = 0;
+      int runs = 5;
+      for (int i = 0; i < runs; i++) {
+        var start = System.nanoTime();
+        Npy.write(file, array, options);
+        write += System.nanoTime() - start;
+        start = System.nanoTime();
+        Npy.read(file, options);
+        read += System.nanoTime() - start;
+      }
+      System.out.printf("  write: %d ms, read: %d ms%n",
+        write / runs / 1_000_000, read / runs / 1_000_000);
+    }
+
+    Files.delete(file.toPath());
+  }
+
+  private static NpyOptions options(int bufferSize, boolean direct) {
+    return NpyOptions.builder()
+      .withBufferSize(bufferSize)
+      .withDirectBuffers(direct)
+      .create();
+  }
+}
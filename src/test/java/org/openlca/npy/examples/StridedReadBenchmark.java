@@ -0,0 +1,79 @@
+package org.openlca.npy.examples;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.function.Supplier;
+
+import org.openlca.npy.Array2d;
+import org.openlca.npy.NpyDoubleArray;
+import org.openlca.npy.NpyHeader;
+import org.openlca.npy.Npy;
+
+/**
+ * Compares reading rows of a matrix in column-major order with a seek and a
+ * read call per element (which is what {@code Npy.readElements} did before)
+ * with the strided reader that selects between block reads and positional
+ * single reads.
+ */
+public class StridedReadBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    for (int n : new int[]{500, 2000, 4000, 10000}) {
+      var data = new double[n * n];
+      for (int i = 0; i < data.length; i++) {
+        data[i] = i;
+      }
+      var file = Files.createTempFile("_npy_bench", ".npy").toFile();
+      Npy.write(file, NpyDoubleArray.columnOrderOf(data, n, n));
+      System.out.printf("read 50 rows of a %d x %d f8 matrix in F order%n",
+        n, n);
+      System.out.println("seek and read per element");
+      benchmark(() -> perElement(file, n), 5);
+      System.out.println("Array2d.readRow");
+      benchmark(() -> readRows(file), 5);
+      Files.delete(file.toPath());
+    }
+  }
+
+  private static Object readRows(File file) {
+    try (var f = new RandomAccessFile(file, "r");
+         var channel = f.getChannel()) {
+      var header = NpyHeader.read(channel);
+      for (int row = 0; row < 50; row++) {
+        Array2d.readRow(f, header, row);
+      }
+      return null;
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static Object perElement(File file, int n) {
+    try (var f = new RandomAccessFile(file, "r");
+         var channel = f.getChannel()) {
+      var header = NpyHeader.read(channel);
+      for (int row = 0; row < 50; row++) {
+        var buffer = ByteBuffer.allocate(n * 8);
+        for (int col = 0; col < n; col++) {
+          f.seek(header.dataOffset() + ((long) col * n + row) * 8);
+          buffer.limit(buffer.position() + 8);
+          channel.read(buffer);
+        }
+      }
+      return null;
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static void benchmark(Supplier<Object> fn, int n) {
+    for (int i = 0; i < n; i++) {
+      var start = System.nanoTime();
+      fn.get();
+      var time = ((double) (System.nanoTime() - start)) / 1e9;
+      System.out.printf("%d: %.3f seconds %n", i + 1, time);
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package org.openlca.npy.examples;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+import org.openlca.npy.Npy;
+import org.openlca.npy.NpyDataType;
+import org.openlca.npy.NpyHeader;
+import org.openlca.npy.dict.NpyHeaderDict;
+
+/**
+ * Compares the decoding of large {@code u2} and {@code u4} arrays with a
+ * conversion function per element (which is what the reader did before)
+ * against {@code Npy.read} that now widens the values in loops over byte
+ * array views. {@code Npy.read} uses the default options with direct
+ * buffers, so the bytes are copied into a scratch array first. Each case
+ * runs 10 times and prints the best time at the end.
+ */
+public class UnsignedBenchmark {
+
+  public static void main(String[] args) throws Exception {
+    int n = 25_000_000;
+    var rand = new Random(42);
+    var bytes = new byte[4 * n];
+    rand.nextBytes(bytes);
+
+    var u2 = tempFile(NpyDataType.u2, 2 * n, bytes);
+    System.out.printf("decode %d u2 values%n", 2 * n);
+    System.out.println("function per element");
+    benchmark(() -> perElement(u2, 2 * n,
+      (ToIntFunction<ByteBuffer>) b -> b.getShort() & 0xffff), 10);
+    System.out.println("Npy.read");
+    benchmark(() -> Npy.read(u2), 10);
+
+    var u4 = tempFile(NpyDataType.u4, n, bytes);
+    System.out.printf("decode %d u4 values%n", n);
+    System.out.println("function per element");
+    benchmark(() -> perElement(u4, n,
+      (ToLongFunction<ByteBuffer>) b -> b.getInt() & 0xffffffffL), 10);
+    System.out.println("Npy.read");
+    benchmark(() -> Npy.read(u4), 10);
+
+    Files.delete(u2.toPath());
+    Files.delete(u4.toPath());
+  }
+
+  private static File tempFile(NpyDataType type, int n, byte[] bytes)
+    throws Exception {
+    var dict = NpyHeaderDict.of(type)
+      .withShape(new int[]{n})
+      .create();
+    var file = Files.createTempFile("_npy_bench", ".npy").toFile();
+    Npy.write(file, dict, bytes);
+    return file;
+  }
+
+  private static Object perElement(File file, int n, Object fn) {
+    try (var f = new RandomAccessFile(file, "r");
+         var channel = f.getChannel()) {
+      var header = NpyHeader.read(channel);
+      var buffer = ByteBuffer.allocateDirect(8192)
+        .order(ByteOrder.LITTLE_ENDIAN);
+      int[] ints = fn instanceof ToIntFunction ? new int[n] : null;
+      long[] longs = ints == null ? new long[n] : null;
+      int pos = 0;
+      while (pos < n) {
+        channel.read(buffer);
+        buffer.flip();
+        while (pos < n && buffer.remaining() >= header.dict().dataType().size()) {
+          if (ints != null) {
+            @SuppressWarnings("unchecked")
+            var intFn = (ToIntFunction<ByteBuffer>) fn;
+            ints[pos++] = intFn.applyAsInt(buffer);
+          } else {
+            @SuppressWarnings("unchecked")
+            var longFn = (ToLongFunction<ByteBuffer>) fn;
+            longs[pos++] = longFn.applyAsLong(buffer);
+          }
+        }
+        buffer.compact();
+      }
+      return ints != null ? ints : longs;
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private static void benchmark(Supplier<Object> fn, int n) {
+    double best = Double.MAX_VALUE;
+    for (int i = 0; i < n; i++) {
+      var start = System.nanoTime();
+      fn.get();
+      var time = ((double) (System.nanoTime() - start)) / 1e9;
+      best = Math.min(best, time);
+      System.out.printf("%d: %.3f seconds %n", i + 1, time);
+    }
+    System.out.printf("best: %.3f seconds %n", best);
+  }
+}